@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ai.mrp.MovieRatingPredictionApplication;
+import ai.mrp.impl.ModelRegistry;
+import ai.mrp.model.ModelReadiness;
+
+/**
+ * {@link ApplicationState} runs the application for the duration of a
+ * benchmark trial, so that benchmarks measure the beans as they are wired in
+ * production. Models are loaded from their snapshots if there are any, and
+ * the trial fails unless every classifier is ready once they are loaded.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@State(Scope.Benchmark)
+public class ApplicationState {
+
+	private ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void start() throws InterruptedException {
+		context = new SpringApplicationBuilder(MovieRatingPredictionApplication.class)
+				.properties("server.port=0", "logging.level.root=WARN")
+				.run();
+		ModelRegistry modelRegistry = context.getBean(ModelRegistry.class);
+		modelRegistry.awaitInitialization();
+		ModelReadiness readiness = modelRegistry.getReadiness();
+		if (!readiness.isReady()) {
+			context.close();
+			throw new IllegalStateException("Models are not ready: " + readiness.getClassifiers());
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	/**
+	 * Returns the bean of the given type.
+	 *
+	 * @param type the type of the bean
+	 * @return the bean
+	 */
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	/**
+	 * Returns the bean of the given type with the given qualifier.
+	 *
+	 * @param type the type of the bean
+	 * @param qualifier the qualifier of the bean
+	 * @return the bean
+	 */
+	public <T> T getBean(Class<T> type, String qualifier) {
+		return BeanFactoryAnnotationUtils.qualifiedBeanOfType(context.getBeanFactory(), type, qualifier);
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ai.mrp.impl.NaiveBayesPredictorImpl;
+import ai.mrp.impl.SVMPredictorImpl;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Measures the throughput of single predictions with short and long tweets.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PredictorBenchmark {
+
+	@Param({ "short", "long" })
+	public String length;
+
+	private NaiveBayesPredictorImpl naiveBayes;
+
+	private SVMPredictorImpl svm;
+
+	private String[] texts;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp(ApplicationState application) {
+		naiveBayes = application.getBean(NaiveBayesPredictorImpl.class);
+		svm = application.getBean(SVMPredictorImpl.class);
+		texts = Tweets.of(length);
+	}
+
+	@Benchmark
+	public ReviewType naiveBayes() {
+		return naiveBayes.predict(nextText());
+	}
+
+	@Benchmark
+	public ReviewType svm() {
+		return svm.predict(nextText());
+	}
+
+	private String nextText() {
+		String text = texts[next];
+		next = (next + 1) % texts.length;
+		return text;
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ai.mrp.model.TagMatcher;
+
+/**
+ * Measures routing a tweet to the tracked movies it mentions, for growing
+ * numbers of tracked movies. The cost should not depend on the number of
+ * movies.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+
+	@Param({ "1", "100", "10000" })
+	public int movies;
+
+	@Param({ "short", "long" })
+	public String length;
+
+	private TagMatcher matcher;
+
+	private String[] texts;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<String> tags = new ArrayList<>(movies);
+		tags.add("#movie");
+		for (int i = 1; i < movies; i++) {
+			tags.add("#movie" + i);
+		}
+		matcher = new TagMatcher(tags);
+		texts = Tweets.of(length);
+	}
+
+	@Benchmark
+	public List<String> route() {
+		String text = texts[next];
+		next = (next + 1) % texts.length;
+		return matcher.match(text);
+	}
+
+}
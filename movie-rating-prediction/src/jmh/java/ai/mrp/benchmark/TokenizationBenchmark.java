@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.benchmark;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+
+import ai.mrp.config.DataConfig;
+import ai.mrp.impl.CorpusReader;
+import ai.mrp.inf.TokenConsumer;
+import ai.mrp.model.FeatureHasher;
+import ai.mrp.util.TextUtils;
+
+/**
+ * Measures tokenization in isolation: reading and splitting corpus documents,
+ * normalizing tweets as done for the prediction cache, and hashing tweets into
+ * feature vectors as done by the hashing SVM classifier.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizationBenchmark {
+
+	private CorpusReader corpusReader;
+
+	private List<Resource> documents;
+
+	private int nextDocument;
+
+	private int nextTweet;
+
+	private long characters;
+
+	private final TokenConsumer counter = (chars, start, end) -> characters += end - start;
+
+	private final FeatureHasher hasher = new FeatureHasher(18, 3, Collections.emptyList());
+
+	private final FeatureHasher.Features features = new FeatureHasher.Features();
+
+	@Setup(Level.Trial)
+	public void setUp(ApplicationState application) throws IOException {
+		corpusReader = application.getBean(CorpusReader.class);
+		documents = corpusReader.list(application.getBean(DataConfig.class).getPositiveReviewsDirectory());
+	}
+
+	/**
+	 * Tokenizes one corpus document, returning the number of token characters
+	 * seen so far.
+	 */
+	@Benchmark
+	public long corpusDocument() throws IOException {
+		corpusReader.tokenize(documents.get(nextDocument), counter);
+		nextDocument = (nextDocument + 1) % documents.size();
+		return characters;
+	}
+
+	@Benchmark
+	public String normalizeTweet() {
+		String[] tweets = nextTweet % 2 == 0 ? Tweets.SHORT : Tweets.LONG;
+		String tweet = tweets[(nextTweet / 2) % tweets.length];
+		nextTweet++;
+		return TextUtils.normalize(tweet);
+	}
+
+	/**
+	 * Hashes the 3-grams of one tweet, returning the number of non-zero
+	 * features.
+	 */
+	@Benchmark
+	public int hashTweet() {
+		String[] tweets = nextTweet % 2 == 0 ? Tweets.SHORT : Tweets.LONG;
+		String tweet = tweets[(nextTweet / 2) % tweets.length];
+		nextTweet++;
+		hasher.vectorize(tweet, features);
+		return features.size();
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ai.mrp.impl.CorpusLoader;
+import ai.mrp.inf.Trainer;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.TokenDictionary;
+import weka.core.Instances;
+
+/**
+ * Measures the time both trainers take on the bundled corpus and on synthetic
+ * corpora scaled up from it.
+ *
+ * <p>A corpus scaled up {@code n} times holds {@code n} copies of the bundled
+ * documents. In every copy but the first, each tenth token gets a suffix
+ * unique to the copy, so the vocabulary grows along with the corpus.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class TrainerBenchmark {
+
+	@Param({ "1", "10", "100" })
+	public int scale;
+
+	private Corpus<ReviewType> corpus;
+
+	private Trainer<DataModel<ReviewType>> naiveBayes;
+
+	private Trainer<Instances> svm;
+
+	@Setup(Level.Trial)
+	@SuppressWarnings("unchecked")
+	public void setUp(ApplicationState application) throws Exception {
+		corpus = scale(application.getBean(CorpusLoader.class).load(), scale);
+		naiveBayes = application.getBean(Trainer.class, "NaiveBayes");
+		svm = application.getBean(Trainer.class, "SVM");
+	}
+
+	@Benchmark
+	public DataModel<ReviewType> naiveBayes() throws Exception {
+		return naiveBayes.train(corpus);
+	}
+
+	@Benchmark
+	public Instances svm() throws Exception {
+		return svm.train(corpus);
+	}
+
+	/**
+	 * Scales up the given corpus the given number of times.
+	 */
+	static Corpus<ReviewType> scale(Corpus<ReviewType> corpus, int scale) {
+		if (scale == 1) {
+			return corpus;
+		}
+		TokenDictionary dictionary = corpus.getDictionary();
+		Corpus.Builder<ReviewType> builder = new Corpus.Builder<>(ReviewType.class);
+		for (int copy = 0; copy < scale; copy++) {
+			String suffix = copy == 0 ? null : "_" + copy;
+			for (int i = 0; i < corpus.size(); i++) {
+				builder.startDocument(corpus.label(i));
+				int[] position = { 0 };
+				corpus.forEachToken(i, id -> {
+					String token = dictionary.token(id);
+					if (suffix != null && position[0]++ % 10 == 0) {
+						token += suffix;
+					}
+					builder.addToken(token.toCharArray(), 0, token.length());
+				});
+			}
+		}
+		return builder.build();
+	}
+
+}
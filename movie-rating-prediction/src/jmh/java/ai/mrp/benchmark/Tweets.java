@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.benchmark;
+
+/**
+ * Sample tweets for benchmarks. Short tweets are typical of the stream, long
+ * tweets use up the whole 280 characters.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+final class Tweets {
+
+	static final String[] SHORT = {
+			"loved it!! #movie",
+			"What a waste of two hours",
+			"@friend you have to see this, so good",
+			"meh. the trailer was better",
+			"Best film of the year hands down https://t.co/abc123",
+			"fell asleep halfway through lol",
+			"the soundtrack alone is worth it",
+			"Not that great tbh" };
+
+	static final String[] LONG = {
+			"Just got back from the premiere and honestly I am still processing it. The first act drags a bit but "
+					+ "once the story kicks in it never lets go, the performances are incredible across the board and the "
+					+ "score is gorgeous. Go see it on the biggest screen you can find #movie https://t.co/abc123",
+			"I really wanted to like this one, I loved the books and the cast looked perfect, but the script is a "
+					+ "mess. Characters make choices that make no sense, the jokes land flat and the ending is rushed. A few "
+					+ "nice shots do not save it. Wait for streaming if you must @studio https://t.co/xyz789",
+			"Three hours long and I did not check my phone once. Every scene earns its place, the dialogue is sharp "
+					+ "and funny and the lead gives the performance of a career. People in my theater applauded at the end, "
+					+ "which never happens around here. Instant classic, will be watching again #oscars",
+			"Booooring. Predictable plot, wooden acting, and the CGI looks like it was rendered on a toaster. The only "
+					+ "good part was the popcorn. I cannot believe the reviews are this positive, did we even watch the same "
+					+ "film? Save your money and your evening, seriously, skip it #disappointed #movie" };
+
+	private Tweets() { }
+
+	static String[] of(String length) {
+		return "long".equals(length) ? LONG : SHORT;
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * {@link CacheConfig} provides configuration for caching predictions of
+ * repeated texts.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("cache")
+public class CacheConfig {
+
+	/** The classifier type names whose predictions are cached. */
+	private List<String> classifiers = new ArrayList<>();
+
+	/** The maximum number of cached predictions per classifier. */
+	private int maximumSize = 10000;
+
+	/** The time in milliseconds after which a cached prediction expires. */
+	private long expireAfterWrite = 600000;
+
+}
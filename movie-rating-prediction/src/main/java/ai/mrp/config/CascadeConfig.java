@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * {@link CascadeConfig} provides configuration for the cascading classifier,
+ * which escalates to the SVM classifier only when Naive Bayes is uncertain.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("cascade")
+public class CascadeConfig {
+
+	/**
+	 * The natural log-odds of the Naive Bayes prediction over the runner-up below
+	 * which a text is escalated to the SVM classifier. A margin of {@code 0}
+	 * never escalates.
+	 */
+	private double marginThreshold = 2.0;
+
+}
@@ -45,4 +45,7 @@ public class DataConfig {
 	/** The stop-words sub-directory. */
 	private String stopWordsDirectory;
 
+	/** The directory to store trained model snapshots in, if any. */
+	private String snapshotDirectory;
+
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * {@link EvaluationConfig} provides configuration for the cross-validation of
+ * the classifiers on the training corpus.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("evaluation")
+public class EvaluationConfig {
+
+	/** The number of folds the corpus is split into. */
+	private int folds = 10;
+
+	/** The seed of the shuffle assigning documents to folds. */
+	private long seed = 42;
+
+	/** The number of threads training and scoring folds. */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/** The types of the classifiers to evaluate. */
+	private List<String> classifiers = new ArrayList<>();
+
+	/** The file to write the JSON report of each evaluation to, if any. */
+	private String reportFile = "";
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * {@link ModelConfig} provides configuration for holding the models and for
+ * reloading them while the application runs.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("model")
+public class ModelConfig {
+
+	/** The time in milliseconds between scheduled reloads, or {@code 0} for none. */
+	private long reloadInterval = 0;
+
+	/** Whether scheduled reloads retrain the models rather than load their snapshots. */
+	private boolean retrainOnSchedule = false;
+
+	/** The number of times a new model classifies the warm-up texts before use. */
+	private int warmUpRounds = 100;
+
+	/**
+	 * Whether the inference models are read in place from memory-mapped
+	 * snapshots, which processes on the same host share, rather than copied to
+	 * the heap. This requires a snapshot directory.
+	 */
+	private boolean mapped = true;
+
+}
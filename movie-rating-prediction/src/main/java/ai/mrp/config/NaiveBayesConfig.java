@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * {@link NaiveBayesConfig} provides configuration for the Naive Bayes classifier.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("naive-bayes")
+public class NaiveBayesConfig {
+
+	/**
+	 * The maximum number of words unknown to the trained model which are learned
+	 * from feedback. Further new words in feedback are ignored.
+	 */
+	private int maximumLearnedWords = 100000;
+
+	/**
+	 * The maximum number of learned texts kept to be learned again when the
+	 * model is reloaded. Older texts are lost on reload.
+	 */
+	private int maximumReplayedTexts = 10000;
+
+}
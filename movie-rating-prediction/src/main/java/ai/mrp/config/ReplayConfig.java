@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import ai.mrp.model.ReplayMode;
+import lombok.Data;
+
+/**
+ * {@link ReplayConfig} provides configuration for replaying recorded statuses
+ * instead of streaming them from Twitter, with the {@code replay} profile.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("replay")
+public class ReplayConfig {
+
+	/** The files holding the recorded statuses, one JSON status per line. */
+	private List<String> files = new ArrayList<>();
+
+	/** The rate at which statuses are replayed. */
+	private ReplayMode mode = ReplayMode.MAX;
+
+	/** The number of statuses per second replayed in the {@link ReplayMode#FIXED} mode. */
+	private double rate = 1000;
+
+	/** The factor by which the {@link ReplayMode#RECORDED} mode speeds up the recording. */
+	private double speedup = 1;
+
+	/** The number of times the files are replayed. */
+	private int repeat = 1;
+
+	/** Whether to shut down the application once the replay completes. */
+	private boolean exitOnCompletion = false;
+
+}
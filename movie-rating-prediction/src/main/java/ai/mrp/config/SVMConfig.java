@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import ai.mrp.model.FeatureHasher;
+import ai.mrp.model.HashingSVMClassifier;
+import ai.mrp.model.Vectorizer;
+import lombok.Data;
+
+/**
+ * {@link SVMConfig} provides configuration for the SVM classifier.
+ *
+ * <p>The configuration validates itself once bound, rejecting a number of hash
+ * bits whose dense per-feature arrays would not fit the heap, so that the
+ * application fails on startup rather than when training.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("svm")
+public class SVMConfig implements Validator {
+
+	/**
+	 * Whether to predict with a compiled linear model rather than through the
+	 * Weka filter and classifier. Falls back to the latter if the trained
+	 * classifier cannot be compiled. Hashing classifiers always predict
+	 * directly.
+	 */
+	private boolean compiled = true;
+
+	/** How texts are turned into feature vectors. */
+	private Vectorizer vectorizer = Vectorizer.DICTIONARY;
+
+	/**
+	 * The base two logarithm of the number of features texts are hashed into
+	 * by the {@link Vectorizer#HASHING} vectorizer, at most
+	 * {@link FeatureHasher#MAX_BITS}. Training takes
+	 * {@link HashingSVMClassifier#trainingBytes(int)} of heap.
+	 */
+	private int hashBits = 18;
+
+	/**
+	 * The maximum number of copies of the Weka classifier predicting at once,
+	 * when it is not compiled. Further callers wait for a copy to be released.
+	 */
+	private int maximumReplicas = 4;
+
+	@Override
+	public boolean supports(Class<?> clazz) {
+		return SVMConfig.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors) {
+		SVMConfig config = (SVMConfig) target;
+		int hashBits = config.getHashBits();
+		if (hashBits < 1 || hashBits > FeatureHasher.MAX_BITS) {
+			errors.rejectValue("hashBits", "range", "must be between 1 and " + FeatureHasher.MAX_BITS);
+		}
+		else if (config.getVectorizer() == Vectorizer.HASHING) {
+			long required = HashingSVMClassifier.trainingBytes(hashBits);
+			long available = Runtime.getRuntime().maxMemory();
+			if (required > available) {
+				errors.rejectValue("hashBits", "heap", "needs " + (required >> 20) + " MB of heap to train, but at most "
+						+ (available >> 20) + " MB are available");
+			}
+		}
+	}
+
+}
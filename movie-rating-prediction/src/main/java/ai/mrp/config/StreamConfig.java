@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import ai.mrp.model.OverflowPolicy;
+import lombok.Data;
+
+/**
+ * {@link StreamConfig} provides configuration for the pipeline which classifies
+ * and publishes streamed statuses.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@Configuration
+@ConfigurationProperties("stream")
+public class StreamConfig {
+
+	/** The maximum number of statuses waiting to be classified. */
+	private int queueCapacity = 1024;
+
+	/**
+	 * The number of worker threads classifying statuses, and of the threads of
+	 * the pool of each classifier.
+	 */
+	private int workers = 2;
+
+	/** The maximum number of statuses a worker classifies at once. */
+	private int batchSize = 16;
+
+	/** What to do with incoming statuses when the queue is full. */
+	private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+
+	/**
+	 * The queue fill ratio above which the {@link OverflowPolicy#SAMPLE} policy
+	 * starts shedding statuses.
+	 */
+	private double sampleThreshold = 0.5;
+
+	/** The types of the classifiers whose sentiment is published. */
+	private List<String> classifiers = new ArrayList<>();
+
+	/**
+	 * The time in milliseconds each classifier, by classifier type name, may take
+	 * per status. A batch is left out of the sentiment of a classifier which does
+	 * not classify it within the budget times the size of the batch.
+	 */
+	private Map<String, Long> latencyBudgets = new HashMap<>();
+
+	/** The latency budget in milliseconds per status of classifiers without their own. */
+	private long defaultLatencyBudget = 100;
+
+}
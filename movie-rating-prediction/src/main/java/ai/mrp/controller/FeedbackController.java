@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import ai.mrp.impl.NaiveBayesPredictorImpl;
+import ai.mrp.model.Feedback;
+import ai.mrp.model.LearningStats;
+
+/**
+ * Accepts labelled texts which the Naive Bayes classifier learns from while it
+ * keeps classifying.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@RestController
+@RequestMapping(path = "feedback")
+public class FeedbackController {
+
+	@Autowired
+	private NaiveBayesPredictorImpl nbPredictor;
+
+	/**
+	 * Folds the given labelled texts into the counts of the live Naive Bayes
+	 * model.
+	 *
+	 * @param feedback the labelled texts
+	 * @return the learning statistics
+	 */
+	@RequestMapping(method = RequestMethod.POST)
+	public LearningStats learn(@RequestBody List<Feedback> feedback) {
+		for (Feedback item : feedback) {
+			if (item.getText() == null || item.getType() == null) {
+				throw new IllegalArgumentException("Feedback needs a text and a type");
+			}
+		}
+		for (Feedback item : feedback) {
+			nbPredictor.learn(item.getText(), item.getType());
+		}
+		return nbPredictor.getLearningStats();
+	}
+
+	/**
+	 * Returns the number of texts and new words learned so far.
+	 *
+	 * @return the learning statistics
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	public LearningStats stats() {
+		return nbPredictor.getLearningStats();
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import ai.mrp.impl.CrossValidator;
+import ai.mrp.impl.ModelRegistry;
+import ai.mrp.model.EvaluationReport;
+import ai.mrp.model.ModelReadiness;
+import ai.mrp.model.ModelStatus;
+
+/**
+ * Controls the readiness and the reloading of the classifier models.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@RestController
+@RequestMapping(path = "models")
+public class ModelController {
+
+	@Autowired
+	private ModelRegistry modelRegistry;
+
+	@Autowired
+	private CrossValidator crossValidator;
+
+	/**
+	 * Returns the version of the models in use and the state of reloading.
+	 *
+	 * @return the model status
+	 */
+	@RequestMapping(method = RequestMethod.GET)
+	public ModelStatus status() {
+		return modelRegistry.getStatus();
+	}
+
+	/**
+	 * Returns the readiness of each classifier. The response status is
+	 * {@code 503 Service Unavailable} until all classifiers are ready, so that
+	 * the endpoint can serve as a readiness probe.
+	 *
+	 * @return the model readiness
+	 */
+	@RequestMapping(path = "readiness", method = RequestMethod.GET)
+	public ResponseEntity<ModelReadiness> readiness() {
+		ModelReadiness readiness = modelRegistry.getReadiness();
+		return new ResponseEntity<>(readiness, readiness.isReady() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	/**
+	 * Starts reloading the models in the background. The models in use keep
+	 * classifying until the new ones are ready.
+	 *
+	 * @param retrain whether to retrain the models rather than load their snapshots
+	 * @return the model status
+	 */
+	@RequestMapping(path = "reload", method = RequestMethod.POST)
+	public ModelStatus reload(@RequestParam(name = "retrain", defaultValue = "false") boolean retrain) {
+		modelRegistry.requestReload(retrain);
+		return modelRegistry.getStatus();
+	}
+
+	/**
+	 * Cross-validates the classifiers on the training corpus. This blocks until
+	 * the evaluation has completed, which takes a while.
+	 *
+	 * @return the evaluation report
+	 * @throws Exception if the evaluation fails
+	 */
+	@RequestMapping(path = "evaluation", method = RequestMethod.POST)
+	public EvaluationReport evaluate() throws Exception {
+		return crossValidator.evaluate();
+	}
+
+	/**
+	 * Returns the report of the last cross-validation of the classifiers.
+	 *
+	 * @return the evaluation report, or {@code null} if none has run yet
+	 */
+	@RequestMapping(path = "evaluation", method = RequestMethod.GET)
+	public EvaluationReport evaluation() {
+		return crossValidator.getReport();
+	}
+
+}
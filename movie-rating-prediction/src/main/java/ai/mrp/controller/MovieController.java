@@ -16,12 +16,16 @@
 
 package ai.mrp.controller;
 
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import ai.mrp.impl.SentimentAggregator;
 import ai.mrp.inf.ClassificationEngine;
+import ai.mrp.model.MovieRating;
 
 /**
  * Implements logic for controlling movie review data source. 
@@ -36,15 +40,66 @@ public class MovieController {
 	@Autowired
 	private ClassificationEngine engine;
 
+	@Autowired
+	private SentimentAggregator aggregator;
+
 	/**
-	 * Updates the data source with the movie name. 
+	 * Updates the data source with the movie name, and forgets the predicted
+	 * ratings of the movies it replaces.
 	 * 
 	 * @param name the name of the movie
 	 */
 	@RequestMapping(path = "update")
 	public void update(@RequestParam("name") String name) {
-		String tag = "#" + name.replaceAll(" ", "").toLowerCase();
-		engine.update(tag);
+		engine.update(tag(name)).forEach(aggregator::remove);
+	}
+
+	/**
+	 * Starts tracking the movie along with the movies tracked so far.
+	 *
+	 * @param name the name of the movie
+	 */
+	@RequestMapping(path = "track")
+	public void track(@RequestParam("name") String name) {
+		engine.track(tag(name));
+	}
+
+	/**
+	 * Stops tracking the movie and forgets its predicted rating.
+	 *
+	 * @param name the name of the movie
+	 */
+	@RequestMapping(path = "untrack")
+	public void untrack(@RequestParam("name") String name) {
+		String tag = tag(name);
+		engine.untrack(tag);
+		aggregator.remove(tag);
+	}
+
+	/**
+	 * Returns the tags of the movies tracked.
+	 *
+	 * @return the tags
+	 */
+	@RequestMapping(path = "tracked")
+	public Set<String> tracked() {
+		return engine.getTracked();
+	}
+
+	/**
+	 * Returns the rating of the movie predicted from the statuses of the last
+	 * day, along with its trend over the last hour.
+	 *
+	 * @param name the name of the movie
+	 * @return the predicted rating
+	 */
+	@RequestMapping(path = "rating")
+	public MovieRating rating(@RequestParam("name") String name) {
+		return aggregator.getRating(tag(name));
+	}
+
+	private static String tag(String name) {
+		return "#" + name.replaceAll(" ", "").toLowerCase();
 	}
 
 }
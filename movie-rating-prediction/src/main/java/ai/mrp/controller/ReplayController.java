@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ai.mrp.impl.ReplayClassificationEngine;
+import ai.mrp.model.ReplayReport;
+
+/**
+ * Exposes the progress of the replay of recorded statuses, with the
+ * {@code replay} profile.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@RestController
+@Profile("replay")
+@RequestMapping(path = "replay")
+public class ReplayController {
+
+	@Autowired
+	private ReplayClassificationEngine engine;
+
+	/**
+	 * Returns the throughput and latency percentiles of the replay so far, or of
+	 * the whole run once completed.
+	 *
+	 * @return the replay report
+	 */
+	@RequestMapping
+	public ReplayReport report() {
+		return engine.getReport();
+	}
+
+}
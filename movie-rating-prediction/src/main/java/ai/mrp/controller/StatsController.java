@@ -0,0 +1,121 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import ai.mrp.impl.CascadingPredictorImpl;
+import ai.mrp.impl.ClassificationPipeline;
+import ai.mrp.impl.VerbatimPublisher;
+import ai.mrp.model.CacheStats;
+import ai.mrp.model.CascadeEvaluation;
+import ai.mrp.model.CascadeStats;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.LatencyReport;
+import ai.mrp.model.PipelineStats;
+import ai.mrp.model.PublishStats;
+
+/**
+ * Exposes runtime statistics of the classification engine.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@RestController
+@RequestMapping(path = "stats")
+public class StatsController {
+
+	@Autowired
+	private ClassificationPipeline pipeline;
+
+	@Autowired
+	private CascadingPredictorImpl cascade;
+
+	@Autowired
+	private VerbatimPublisher publisher;
+
+	/**
+	 * Returns the queue depth and the counters of the classification pipeline.
+	 *
+	 * @return the pipeline statistics
+	 */
+	@RequestMapping(path = "pipeline")
+	public PipelineStats pipeline() {
+		return pipeline.getStats();
+	}
+
+	/**
+	 * Returns the hit, miss and eviction counters of the prediction caches.
+	 *
+	 * @return the cache statistics per classifier type
+	 */
+	@RequestMapping(path = "cache")
+	public Map<ClassifierType, CacheStats> cache() {
+		return pipeline.getCacheStats();
+	}
+
+	/**
+	 * Returns the latency percentiles and throughput of each classifier and of
+	 * each stage from the receipt of a status to its publication.
+	 *
+	 * @return the latency report
+	 */
+	@RequestMapping(path = "latency")
+	public LatencyReport latency() {
+		return pipeline.getLatencyReport();
+	}
+
+	/**
+	 * Returns the frame and batch counters of the verbatim publisher, along with
+	 * the number of subscriptions to each destination.
+	 *
+	 * @return the publishing statistics
+	 */
+	@RequestMapping(path = "publish")
+	public PublishStats publish() {
+		return publisher.getStats();
+	}
+
+	/**
+	 * Returns the fraction of texts the cascading classifier escalated to the
+	 * SVM classifier.
+	 *
+	 * @return the cascade statistics
+	 */
+	@RequestMapping(path = "cascade")
+	public CascadeStats cascade() {
+		return cascade.getStats();
+	}
+
+	/**
+	 * Evaluates the cascading classifier against the SVM classifier on the
+	 * training corpus. The first call for the models in use and the current
+	 * threshold runs the evaluation, which takes a while.
+	 *
+	 * @return the cascade evaluation
+	 * @throws Exception if the evaluation fails
+	 */
+	@RequestMapping(path = "cascade/evaluation")
+	public CascadeEvaluation cascadeEvaluation() throws Exception {
+		return cascade.evaluate();
+	}
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.CacheStats;
+import ai.mrp.util.TextUtils;
+
+/**
+ * {@link CachingPredictor} caches the predictions of another {@link Predictor}
+ * by normalized text, so that repeated messages are classified only once.
+ *
+ * <p>The cache is split into segments, each a least recently used map guarded
+ * by its own lock, so that concurrent callers rarely contend. Predictions are
+ * evicted when a segment is full or when they expire; expired predictions are
+ * removed when they are looked up or reach the end of the eviction order. The
+ * wrapped predictor is called outside of the locks.
+ *
+ * <p>{@link #clear()} empties the cache when the wrapped predictor changes its
+ * mind, such as after a model reload. Predictions which were being computed
+ * while the cache was cleared are not cached, since they may stem from the
+ * previous model.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class CachingPredictor<C extends Enum<C>> implements Predictor<C> {
+
+	/** The number of segments, a power of two. */
+	private static final int SEGMENTS = 16;
+
+	private final Predictor<C> predictor;
+	private final long expireAfterWriteNanos;
+	private final Segment<C>[] segments;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/** The number of times the cache was cleared. */
+	private final AtomicLong epoch = new AtomicLong();
+
+	/**
+	 * Creates a cache in front of the given predictor.
+	 *
+	 * @param predictor the predictor whose predictions are to be cached
+	 * @param maximumSize the maximum number of cached predictions
+	 * @param expireAfterWrite the time in milliseconds after which a prediction expires
+	 */
+	@SuppressWarnings("unchecked")
+	public CachingPredictor(Predictor<C> predictor, int maximumSize, long expireAfterWrite) {
+		this.predictor = predictor;
+		this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWrite);
+		this.segments = (Segment<C>[]) new Segment<?>[SEGMENTS];
+		int segmentSize = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment<>(segmentSize, evictions, epoch);
+		}
+	}
+
+	@Override
+	public C predict(String text) {
+		String key = TextUtils.normalize(text);
+		C cached = get(key);
+		if (cached != null) {
+			return cached;
+		}
+		long epoch = this.epoch.get();
+		C predicted = predictor.predict(text);
+		put(key, predicted, epoch);
+		return predicted;
+	}
+
+	/**
+	 * Serves the cached predictions and passes only the remaining texts on to the
+	 * wrapped predictor, as one batch.
+	 */
+	@Override
+	public List<C> predictBatch(List<String> texts) {
+		List<C> predictions = new ArrayList<>(texts.size());
+		List<String> keys = new ArrayList<>(texts.size());
+		List<String> missed = new ArrayList<>();
+		for (String text : texts) {
+			String key = TextUtils.normalize(text);
+			C cached = get(key);
+			predictions.add(cached);
+			keys.add(key);
+			if (cached == null) {
+				missed.add(text);
+			}
+		}
+		if (missed.isEmpty()) {
+			return predictions;
+		}
+		long epoch = this.epoch.get();
+		List<C> predicted = predictor.predictBatch(missed);
+		for (int i = 0, j = 0; i < predictions.size(); i++) {
+			if (predictions.get(i) == null) {
+				C prediction = predicted.get(j++);
+				predictions.set(i, prediction);
+				put(keys.get(i), prediction, epoch);
+			}
+		}
+		return predictions;
+	}
+
+	@Override
+	public boolean isReady() {
+		return predictor.isReady();
+	}
+
+	/**
+	 * Returns the current statistics of this cache.
+	 *
+	 * @return the statistics
+	 */
+	public CacheStats getStats() {
+		long size = 0;
+		for (Segment<C> segment : segments) {
+			size += segment.size();
+		}
+		return new CacheStats(size, hits.sum(), misses.sum(), evictions.sum());
+	}
+
+	/**
+	 * Removes all cached predictions.
+	 */
+	public void clear() {
+		epoch.incrementAndGet();
+		for (Segment<C> segment : segments) {
+			segment.clear();
+		}
+	}
+
+	private C get(String key) {
+		C value = segment(key).get(key, System.nanoTime());
+		if (value == null) {
+			misses.increment();
+		}
+		else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	private void put(String key, C value, long epoch) {
+		segment(key).put(key, value, System.nanoTime() + expireAfterWriteNanos, epoch);
+	}
+
+	private Segment<C> segment(String key) {
+		int h = key.hashCode();
+		return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * {@link Entry} is a cached prediction along with its expiry time.
+	 */
+	private static final class Entry<C> {
+
+		private final C value;
+		private final long expiresAt;
+
+		private Entry(C value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+	/**
+	 * {@link Segment} is a synchronized, access ordered map which evicts its
+	 * least recently used entry when it exceeds its capacity.
+	 */
+	private static final class Segment<C> extends LinkedHashMap<String, Entry<C>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int capacity;
+		private final transient LongAdder evictions;
+		private final transient AtomicLong epoch;
+
+		private Segment(int capacity, LongAdder evictions, AtomicLong epoch) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+			this.evictions = evictions;
+			this.epoch = epoch;
+		}
+
+		private synchronized C get(String key, long now) {
+			Entry<C> entry = super.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAt - now <= 0) {
+				remove(key);
+				evictions.increment();
+				return null;
+			}
+			return entry.value;
+		}
+
+		/**
+		 * Caches the value unless the cache was cleared since the given epoch.
+		 * The epoch is checked under the lock, so a concurrent clear either
+		 * prevents the put or removes the value afterwards.
+		 */
+		private synchronized void put(String key, C value, long expiresAt, long epoch) {
+			if (this.epoch.get() == epoch) {
+				super.put(key, new Entry<>(value, expiresAt));
+			}
+		}
+
+		@Override
+		public synchronized void clear() {
+			super.clear();
+		}
+
+		@Override
+		public synchronized int size() {
+			return super.size();
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry<C>> eldest) {
+			if (super.size() > capacity || eldest.getValue().expiresAt - System.nanoTime() <= 0) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+
+	}
+
+}
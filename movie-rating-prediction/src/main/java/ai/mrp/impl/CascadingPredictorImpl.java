@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import ai.mrp.config.CascadeConfig;
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.CascadeEvaluation;
+import ai.mrp.model.CascadeStats;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.NaiveBayesModel;
+import ai.mrp.model.ReviewType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CascadingPredictorImpl} classifies with Naive Bayes first and escalates
+ * to the SVM classifier only the texts on which Naive Bayes is uncertain.
+ *
+ * <p>Naive Bayes settles most texts in microseconds. A text is escalated when
+ * the log-odds of its Naive Bayes prediction over the runner-up fall below the
+ * threshold configured in {@link CascadeConfig}, so the threshold trades SVM
+ * load for agreement with the SVM classifier. Both can be measured on the
+ * training corpus with {@link #evaluate()}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+@Qualifier("Cascade")
+public class CascadingPredictorImpl implements Predictor<ReviewType> {
+
+	@Autowired
+	private NaiveBayesPredictorImpl nbPredictor;
+
+	@Autowired
+	@Qualifier("SVM")
+	private Predictor<ReviewType> svmPredictor;
+
+	@Autowired
+	private CascadeConfig cascadeConfig;
+
+	@Autowired
+	private CorpusLoader corpusLoader;
+
+	@Autowired
+	private ModelRegistry modelRegistry;
+
+	private final LongAdder predicted = new LongAdder();
+	private final LongAdder escalated = new LongAdder();
+
+	private CascadeEvaluation evaluation;
+
+	@Override
+	public ReviewType predict(String sentence) {
+		predicted.increment();
+		ReviewType predictedType = nbPredictor.predict(sentence, cascadeConfig.getMarginThreshold());
+		if (predictedType == null) {
+			escalated.increment();
+			predictedType = svmPredictor.predict(sentence);
+			log.debug("Escalated sentence: {}, predictedType: {}", sentence, predictedType);
+		}
+		return predictedType;
+	}
+
+	/**
+	 * Classifies all texts with Naive Bayes and then the uncertain ones with a
+	 * single SVM batch.
+	 */
+	@Override
+	public List<ReviewType> predictBatch(List<String> sentences) {
+		List<ReviewType> predictedTypes = cascade(sentences, escalated);
+		predicted.add(sentences.size());
+		return predictedTypes;
+	}
+
+	/**
+	 * Returns whether both the Naive Bayes and the SVM models are ready.
+	 */
+	@Override
+	public boolean isReady() {
+		return nbPredictor.isReady() && svmPredictor.isReady();
+	}
+
+	/**
+	 * Returns the number of texts classified and escalated so far.
+	 *
+	 * @return the statistics
+	 */
+	public CascadeStats getStats() {
+		long predicted = this.predicted.sum();
+		long escalated = this.escalated.sum();
+		return new CascadeStats(cascadeConfig.getMarginThreshold(), predicted, escalated,
+				predicted == 0 ? 0 : (double) escalated / predicted);
+	}
+
+	/**
+	 * Classifies the documents of the training corpus with Naive Bayes, the SVM
+	 * classifier and the cascade, and compares the results. The evaluation is
+	 * kept until the models are reloaded or the threshold changes, and does not
+	 * count towards {@link #getStats()}. As the models were trained on the same
+	 * documents, the accuracies are optimistic; {@link CrossValidator} measures
+	 * them on held-out documents.
+	 *
+	 * @return the evaluation
+	 * @throws Exception if the corpus cannot be loaded
+	 */
+	public synchronized CascadeEvaluation evaluate() throws Exception {
+		long modelVersion = modelRegistry.getVersion();
+		double threshold = cascadeConfig.getMarginThreshold();
+		if (evaluation == null || evaluation.getModelVersion() != modelVersion
+				|| evaluation.getMarginThreshold() != threshold) {
+			Corpus<ReviewType> corpus = corpusLoader.load();
+			List<String> texts = new ArrayList<>(corpus.size());
+			for (int i = 0; i < corpus.size(); i++) {
+				texts.add(corpus.text(i));
+			}
+			List<ReviewType> nbTypes = nbPredictor.predictBatch(texts);
+			long start = System.nanoTime();
+			List<ReviewType> svmTypes = svmPredictor.predictBatch(texts);
+			long svmNanos = System.nanoTime() - start;
+			LongAdder numEscalated = new LongAdder();
+			start = System.nanoTime();
+			List<ReviewType> cascadeTypes = cascade(texts, numEscalated);
+			long cascadeNanos = System.nanoTime() - start;
+
+			int nbCorrect = 0, svmCorrect = 0, cascadeCorrect = 0, agreed = 0;
+			for (int i = 0; i < texts.size(); i++) {
+				ReviewType label = corpus.label(i);
+				nbCorrect += nbTypes.get(i) == label ? 1 : 0;
+				svmCorrect += svmTypes.get(i) == label ? 1 : 0;
+				cascadeCorrect += cascadeTypes.get(i) == label ? 1 : 0;
+				agreed += cascadeTypes.get(i) == svmTypes.get(i) ? 1 : 0;
+			}
+			double n = texts.size();
+			evaluation = new CascadeEvaluation(threshold, modelVersion, CascadeEvaluation.TRAINING_CORPUS, texts.size(),
+					numEscalated.sum() / n, agreed / n, nbCorrect / n, svmCorrect / n, cascadeCorrect / n,
+					svmNanos / 1_000_000, cascadeNanos / 1_000_000);
+			log.info("Evaluated cascade on the training corpus: {}", evaluation);
+		}
+		return evaluation;
+	}
+
+	/**
+	 * Creates a cascade of the given models, with the configured threshold,
+	 * independent of the models in use. Its predictions do not count towards
+	 * {@link #getStats()}.
+	 *
+	 * @param naiveBayes the Naive Bayes model
+	 * @param svm the SVM predictor
+	 * @return the cascading predictor
+	 */
+	public Predictor<ReviewType> compose(NaiveBayesModel<ReviewType> naiveBayes, Predictor<ReviewType> svm) {
+		double threshold = cascadeConfig.getMarginThreshold();
+		return new Predictor<ReviewType>() {
+
+			@Override
+			public ReviewType predict(String sentence) {
+				ReviewType predictedType = naiveBayes.classify(sentence, threshold);
+				return predictedType != null ? predictedType : svm.predict(sentence);
+			}
+
+			@Override
+			public List<ReviewType> predictBatch(List<String> sentences) {
+				return cascade(sentences, sentence -> naiveBayes.classify(sentence, threshold), svm, new LongAdder());
+			}
+
+		};
+	}
+
+	/**
+	 * Classifies the given texts, adding the number of escalated ones to the
+	 * given counter.
+	 */
+	private List<ReviewType> cascade(List<String> sentences, LongAdder escalated) {
+		double threshold = cascadeConfig.getMarginThreshold();
+		return cascade(sentences, sentence -> nbPredictor.predict(sentence, threshold), svmPredictor, escalated);
+	}
+
+	/**
+	 * Classifies the given texts with the given Naive Bayes classifier, which
+	 * returns {@code null} when uncertain, and escalates the uncertain ones to
+	 * the given SVM predictor in a single batch.
+	 */
+	private static List<ReviewType> cascade(List<String> sentences, Function<String, ReviewType> naiveBayes,
+			Predictor<ReviewType> svmPredictor, LongAdder escalated) {
+		List<ReviewType> predictedTypes = new ArrayList<>(sentences.size());
+		List<Integer> uncertain = new ArrayList<>();
+		List<String> uncertainSentences = new ArrayList<>();
+		for (int i = 0; i < sentences.size(); i++) {
+			ReviewType predictedType = naiveBayes.apply(sentences.get(i));
+			if (predictedType == null) {
+				uncertain.add(i);
+				uncertainSentences.add(sentences.get(i));
+			}
+			predictedTypes.add(predictedType);
+		}
+		if (!uncertainSentences.isEmpty()) {
+			List<ReviewType> svmTypes = svmPredictor.predictBatch(uncertainSentences);
+			for (int i = 0; i < uncertain.size(); i++) {
+				predictedTypes.set(uncertain.get(i), svmTypes.get(i));
+			}
+			escalated.add(uncertain.size());
+		}
+		log.debug("Predicted {} sentences, escalated {}", sentences.size(), uncertain.size());
+		return predictedTypes;
+	}
+
+}
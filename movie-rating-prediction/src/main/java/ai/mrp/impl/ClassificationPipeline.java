@@ -0,0 +1,471 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import ai.mrp.config.CacheConfig;
+import ai.mrp.config.StreamConfig;
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.CacheStats;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.LatencyHistogram;
+import ai.mrp.model.LatencyReport;
+import ai.mrp.model.LatencyStats;
+import ai.mrp.model.PipelineStats;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.Stage;
+import ai.mrp.model.Verbatim;
+import lombok.extern.slf4j.Slf4j;
+import twitter4j.Status;
+
+/**
+ * {@link ClassificationPipeline} classifies statuses and publishes them as
+ * {@link Verbatim}s, off the thread that receives them.
+ *
+ * <p>Submitted statuses are placed on a bounded queue, handled according to
+ * the configured overflow policy when full, and drained in batches by a pool
+ * of workers. The classifiers configured in {@link StreamConfig} classify each
+ * batch concurrently, each on a pool of its own and within its own latency
+ * budget; a classifier which is not ready yet or misses its budget is left out
+ * of the sentiment of the batch. The classifiers configured in {@link CacheConfig} are put behind a
+ * {@link CachingPredictor}.
+ *
+ * <p>A batch classified while the {@link ModelRegistry} swapped models is
+ * classified again, so each verbatim carries the single version of the models
+ * which classified it. The sentiment of each published status is recorded by
+ * the {@link SentimentAggregator}, and the latencies of each classifier and
+ * stage in {@link LatencyHistogram}s.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+public class ClassificationPipeline implements InitializingBean, DisposableBean {
+
+	@Autowired
+	@Qualifier("NaiveBayes")
+	private Predictor<ReviewType> nbPredictor;
+
+	@Autowired
+	@Qualifier("SVM")
+	private Predictor<ReviewType> svmPredictor;
+
+	@Autowired
+	@Qualifier("Cascade")
+	private Predictor<ReviewType> cascadePredictor;
+
+	@Autowired
+	private VerbatimPublisher publisher;
+
+	@Autowired
+	private SentimentAggregator aggregator;
+
+	@Autowired
+	private StreamConfig streamConfig;
+
+	@Autowired
+	private CacheConfig cacheConfig;
+
+	@Autowired
+	private ModelRegistry modelRegistry;
+
+	private BlockingQueue<Submission> queue;
+
+	private ExecutorService workers;
+
+	/**
+	 * The pool of each classifier type, so that the backlog of a slow classifier
+	 * never holds up the others.
+	 */
+	private final Map<ClassifierType, ExecutorService> bulkheads = new EnumMap<>(ClassifierType.class);
+
+	private final Map<ClassifierType, Predictor<ReviewType>> predictors = new EnumMap<>(ClassifierType.class);
+
+	private final Map<ClassifierType, CachingPredictor<ReviewType>> caches = new EnumMap<>(ClassifierType.class);
+
+	private final Map<ClassifierType, LongAdder> budgetMisses = new EnumMap<>(ClassifierType.class);
+
+	private final Map<ClassifierType, LatencyHistogram> classifierLatencies = new EnumMap<>(ClassifierType.class);
+
+	private final Map<Stage, LatencyHistogram> stageLatencies = new EnumMap<>(Stage.class);
+
+	/** The model version the cached predictions belong to. */
+	private final AtomicLong cachedVersion = new AtomicLong();
+
+	private final LongAdder received = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder published = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+
+	/**
+	 * Creates the queue and starts the workers, along with the pools which run
+	 * the classifiers.
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		Map<ClassifierType, Predictor<ReviewType>> available = new EnumMap<>(ClassifierType.class);
+		available.put(ClassifierType.NB, nbPredictor);
+		available.put(ClassifierType.SVM, svmPredictor);
+		available.put(ClassifierType.CASCADE, cascadePredictor);
+		for (String name : streamConfig.getClassifiers()) {
+			ClassifierType type = ClassifierType.valueOf(name);
+			predictors.put(type, cache(type, available.get(type)));
+		}
+		int threads = streamConfig.getWorkers();
+		for (ClassifierType type : predictors.keySet()) {
+			budgetMisses.put(type, new LongAdder());
+			classifierLatencies.put(type, new LatencyHistogram());
+			bulkheads.put(type, new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(threads),
+					new CustomizableThreadFactory(type.name().toLowerCase() + "-classifier-")));
+		}
+		// The publisher records the end to end latency, once a verbatim is sent
+		for (Stage stage : EnumSet.range(Stage.QUEUE, Stage.PUBLISH)) {
+			stageLatencies.put(stage, new LatencyHistogram());
+		}
+		this.queue = new ArrayBlockingQueue<>(streamConfig.getQueueCapacity());
+		this.workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("classification-worker-"));
+		for (int i = 0; i < threads; i++) {
+			workers.execute(this::work);
+		}
+	}
+
+	/**
+	 * Stops the workers, discarding the statuses which are still queued.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		workers.shutdownNow();
+		bulkheads.values().forEach(ExecutorService::shutdownNow);
+	}
+
+	/**
+	 * Submits a status for classification. Depending on the overflow policy,
+	 * this blocks while the queue is full or sheds statuses.
+	 *
+	 * @param status the status to classify
+	 * @param movies the tags of the movies the status mentions
+	 * @throws InterruptedException if interrupted while blocked
+	 */
+	public void submit(Status status, List<String> movies) throws InterruptedException {
+		received.increment();
+		Submission submission = new Submission(status, movies, System.nanoTime());
+		switch (streamConfig.getOverflowPolicy()) {
+		case BLOCK:
+			queue.put(submission);
+			break;
+		case DROP_OLDEST:
+			while (!queue.offer(submission)) {
+				if (queue.poll() != null) {
+					dropped.increment();
+				}
+			}
+			break;
+		case SAMPLE:
+			if (!admit() || !queue.offer(submission)) {
+				dropped.increment();
+			}
+			break;
+		}
+	}
+
+	/**
+	 * Returns the current statistics of this pipeline.
+	 *
+	 * @return the statistics
+	 */
+	public PipelineStats getStats() {
+		Map<ClassifierType, Long> misses = new EnumMap<>(ClassifierType.class);
+		budgetMisses.forEach((type, count) -> misses.put(type, count.sum()));
+		return new PipelineStats(queue.size(), streamConfig.getQueueCapacity(), received.sum(), dropped.sum(),
+				published.sum(), failed.sum(), misses);
+	}
+
+	/**
+	 * Returns the current statistics of the prediction caches.
+	 *
+	 * @return the statistics per cached classifier type
+	 */
+	public Map<ClassifierType, CacheStats> getCacheStats() {
+		Map<ClassifierType, CacheStats> stats = new EnumMap<>(ClassifierType.class);
+		caches.forEach((type, cache) -> stats.put(type, cache.getStats()));
+		return stats;
+	}
+
+	/**
+	 * Returns the latency percentiles of the classifiers and of the stages of
+	 * this pipeline.
+	 *
+	 * @return the latency report
+	 */
+	public LatencyReport getLatencyReport() {
+		Map<ClassifierType, LatencyStats> classifiers = new EnumMap<>(ClassifierType.class);
+		classifierLatencies.forEach((type, histogram) -> classifiers.put(type, histogram.getStats()));
+		Map<Stage, LatencyStats> stages = new EnumMap<>(Stage.class);
+		stageLatencies.forEach((stage, histogram) -> stages.put(stage, histogram.getStats()));
+		stages.put(Stage.END_TO_END, publisher.getEndToEndLatency());
+		return new LatencyReport(classifiers, stages);
+	}
+
+	/**
+	 * Puts the given predictor behind a cache, if so configured for its type.
+	 *
+	 * @param type the classifier type
+	 * @param predictor the predictor
+	 * @return the predictor to use
+	 */
+	private Predictor<ReviewType> cache(ClassifierType type, Predictor<ReviewType> predictor) {
+		if (!cacheConfig.getClassifiers().contains(type.name())) {
+			return predictor;
+		}
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(predictor, cacheConfig.getMaximumSize(),
+				cacheConfig.getExpireAfterWrite());
+		caches.put(type, cache);
+		return cache;
+	}
+
+	/**
+	 * Decides whether to admit a status under the sample policy. Statuses are
+	 * always admitted below the sample threshold, and beyond it with a
+	 * probability proportional to the room left in the queue.
+	 */
+	private boolean admit() {
+		int capacity = streamConfig.getQueueCapacity();
+		int threshold = (int) (capacity * streamConfig.getSampleThreshold());
+		int size = queue.size();
+		if (size < threshold) {
+			return true;
+		}
+		return ThreadLocalRandom.current().nextInt(capacity - threshold + 1) < capacity - size;
+	}
+
+	/**
+	 * The worker loop, which classifies and publishes batches of statuses until
+	 * interrupted.
+	 */
+	private void work() {
+		List<Submission> batch = new ArrayList<>(streamConfig.getBatchSize());
+		LatencyHistogram queueLatency = stageLatencies.get(Stage.QUEUE);
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				batch.add(queue.take());
+				queue.drainTo(batch, streamConfig.getBatchSize() - 1);
+				long now = System.nanoTime();
+				for (int i = 0; i < batch.size(); i++) {
+					queueLatency.record(now - batch.get(i).receivedAt);
+				}
+				try {
+					publish(batch);
+				}
+				catch (RuntimeException e) {
+					failed.add(batch.size());
+					log.warn("Could not classify " + batch.size() + " statuses", e);
+				}
+				batch.clear();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Classifies the given statuses and publishes them as verbatims. A status
+	 * which cannot be published is counted as failed on its own, so the
+	 * statuses of a batch are either published or failed exactly once.
+	 *
+	 * @param submissions the statuses to publish
+	 * @throws InterruptedException if interrupted while waiting for the classifiers
+	 */
+	private void publish(List<Submission> submissions) throws InterruptedException {
+		List<String> texts = new ArrayList<>(submissions.size());
+		for (Submission submission : submissions) {
+			texts.add(submission.status.getText());
+		}
+		long start = System.nanoTime();
+		long modelVersion;
+		Map<ClassifierType, List<ReviewType>> reviewTypes;
+		do {
+			modelVersion = modelRegistry.getVersion();
+			invalidateCaches(modelVersion);
+			reviewTypes = classify(texts);
+		}
+		while (!modelRegistry.isCurrent(modelVersion));
+		long classified = System.nanoTime();
+		stageLatencies.get(Stage.CLASSIFY).record(classified - start, texts.size());
+
+		for (int i = 0; i < submissions.size(); i++) {
+			Submission submission = submissions.get(i);
+			Status status = submission.status;
+			EnumMap<ClassifierType, ReviewType> sentiment = new EnumMap<>(ClassifierType.class);
+			for (Map.Entry<ClassifierType, List<ReviewType>> entry : reviewTypes.entrySet()) {
+				sentiment.put(entry.getKey(), entry.getValue().get(i));
+				log.debug("{} -- {}: {}", entry.getKey(), entry.getValue().get(i), status.getText());
+			}
+
+			try {
+				//Creating Verbatim to publish
+				Verbatim verbatim = new Verbatim("TWITTER",
+						status.getText(),
+						status.getUser().getName(),
+						status.getUser().getScreenName(),
+						status.getUser().getProfileImageURL(),
+						status.getCreatedAt(),
+						sentiment,
+						modelVersion,
+						submission.movies);
+				publisher.publish(verbatim, submission.receivedAt);
+				for (String movie : submission.movies) {
+					aggregator.record(movie, sentiment);
+				}
+			}
+			catch (RuntimeException e) {
+				failed.increment();
+				log.warn("Could not publish status " + status.getId(), e);
+				continue;
+			}
+			published.increment();
+		}
+		stageLatencies.get(Stage.PUBLISH).record(System.nanoTime() - classified, submissions.size());
+	}
+
+	/**
+	 * Clears the prediction caches once models of the given version are in use.
+	 */
+	private void invalidateCaches(long modelVersion) {
+		long cached = cachedVersion.get();
+		if (cached < modelVersion && cachedVersion.compareAndSet(cached, modelVersion)) {
+			caches.values().forEach(CachingPredictor::clear);
+		}
+	}
+
+	/**
+	 * Classifies the given texts with all ready classifiers concurrently, each on
+	 * its own pool. Each classifier has until the start of the batch plus its
+	 * latency budget per text to deliver, so that the deadline scales with the
+	 * size of the batch; a classifier whose deadline has passed before it gets to
+	 * run, or whose pool is saturated, is skipped altogether.
+	 *
+	 * @param texts the texts to classify
+	 * @return the predicted classes of each ready classifier that met its budget
+	 * @throws InterruptedException if interrupted while waiting for the classifiers
+	 */
+	private Map<ClassifierType, List<ReviewType>> classify(List<String> texts) throws InterruptedException {
+		long start = System.nanoTime();
+		Map<ClassifierType, Long> deadlines = new EnumMap<>(ClassifierType.class);
+		Map<ClassifierType, Future<List<ReviewType>>> futures = new EnumMap<>(ClassifierType.class);
+		for (Map.Entry<ClassifierType, Predictor<ReviewType>> entry : predictors.entrySet()) {
+			ClassifierType type = entry.getKey();
+			if (!entry.getValue().isReady()) {
+				continue;
+			}
+			long budget = streamConfig.getLatencyBudgets().getOrDefault(type.name(),
+					streamConfig.getDefaultLatencyBudget());
+			long deadline = start + TimeUnit.MILLISECONDS.toNanos(budget) * texts.size();
+			Predictor<ReviewType> predictor = entry.getValue();
+			LatencyHistogram latency = classifierLatencies.get(type);
+			deadlines.put(type, deadline);
+			try {
+				futures.put(type, bulkheads.get(type).submit(() -> {
+					long taskStart = System.nanoTime();
+					if (taskStart - deadline >= 0) {
+						return null;
+					}
+					List<ReviewType> result = predictor.predictBatch(texts);
+					latency.record(System.nanoTime() - taskStart, texts.size());
+					return result;
+				}));
+			}
+			catch (RejectedExecutionException e) {
+				// the pool is still busy with batches which missed their budgets
+				budgetMisses.get(type).add(texts.size());
+			}
+		}
+
+		Map<ClassifierType, List<ReviewType>> reviewTypes = new EnumMap<>(ClassifierType.class);
+		for (Map.Entry<ClassifierType, Future<List<ReviewType>>> entry : futures.entrySet()) {
+			ClassifierType type = entry.getKey();
+			Future<List<ReviewType>> future = entry.getValue();
+			try {
+				List<ReviewType> result = future.get(Math.max(0, deadlines.get(type) - System.nanoTime()),
+						TimeUnit.NANOSECONDS);
+				if (result != null) {
+					reviewTypes.put(type, result);
+					continue;
+				}
+			}
+			catch (TimeoutException e) {
+				// predictors do not check for interrupts, so a running prediction still
+				// completes and holds its thread; a queued one is dropped, and one that
+				// starts past its deadline returns at once, which bounds the backlog
+				future.cancel(true);
+			}
+			catch (ExecutionException e) {
+				log.warn(type + " could not classify " + texts.size() + " statuses", e.getCause());
+				continue;
+			}
+			budgetMisses.get(type).add(texts.size());
+			log.debug("{} missed its latency budget for {} statuses", type, texts.size());
+		}
+		return reviewTypes;
+	}
+
+	/**
+	 * {@link Submission} is a status along with the tags of the movies it
+	 * mentions and the time it was received.
+	 */
+	private static final class Submission {
+
+		private final Status status;
+		private final List<String> movies;
+		private final long receivedAt;
+
+		private Submission(Status status, List<String> movies, long receivedAt) {
+			this.status = status;
+			this.movies = movies;
+			this.receivedAt = receivedAt;
+		}
+
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import ai.mrp.config.DataConfig;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.ReviewType;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CorpusLoader} reads the positive and negative reviews configured in
+ * {@link DataConfig} into a shared {@link Corpus}.
+ *
+ * <p>The corpus is read and normalized once, on first use, and the same
+ * instance is handed to every trainer, so the startup I/O and the memory held
+ * for training data do not grow with the number of classifiers. Nothing is read
+ * if all classifiers are restored from snapshots. The {@link ModelRegistry}
+ * drops the corpus with {@link #refresh()} once the models are loaded, so it is
+ * not held for the lifetime of the process; an evaluation reads it again and
+ * keeps it until the next reload.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+public class CorpusLoader {
+
+	@Autowired
+	private CorpusReader corpusReader;
+
+	@Autowired
+	private DataConfig dataConfig;
+
+	private Corpus<ReviewType> corpus;
+
+	/**
+	 * Returns the training corpus, reading it if it has not been read yet.
+	 *
+	 * @return the corpus
+	 * @throws IOException if reading fails
+	 */
+	public synchronized Corpus<ReviewType> load() throws IOException {
+		if (corpus == null) {
+			long start = System.nanoTime();
+			Corpus.Builder<ReviewType> builder = new Corpus.Builder<>(ReviewType.class);
+			read(builder, ReviewType.POSITIVE, dataConfig.getPositiveReviewsDirectory());
+			read(builder, ReviewType.NEGATIVE, dataConfig.getNegativeReviewsDirectory());
+			corpus = builder.build();
+			log.info("Loaded corpus of {} documents with {} distinct words in {} ms, footprint ~{} KB",
+					corpus.size(), corpus.getDictionary().size(), (System.nanoTime() - start) / 1_000_000,
+					corpus.footprint() / 1024);
+		}
+		return corpus;
+	}
+
+	/**
+	 * Drops the corpus read so far, so that the next {@link #load()} reads it
+	 * again.
+	 */
+	public synchronized void refresh() {
+		corpus = null;
+	}
+
+	/**
+	 * Reads the documents of the given class type into the given builder.
+	 *
+	 * @param builder the builder to add the documents to
+	 * @param type the class type
+	 * @param directory the corpus directory from which data is to be loaded
+	 * @throws IOException if reading fails
+	 */
+	private void read(Corpus.Builder<ReviewType> builder, ReviewType type, String directory) throws IOException {
+		for (Resource document : corpusReader.list(directory)) {
+			builder.startDocument(type);
+			corpusReader.tokenize(document, builder::addToken);
+		}
+	}
+
+}
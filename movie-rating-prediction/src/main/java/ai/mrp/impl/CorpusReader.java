@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+
+import ai.mrp.config.DataConfig;
+import ai.mrp.inf.TokenConsumer;
+
+/**
+ * {@link CorpusReader} reads the documents of the training corpus.
+ *
+ * <p>Corpus directories are resolved against the configured base data
+ * directory, which may be a classpath location (the default), a {@code file:}
+ * URL or any other Spring resource location. Documents on the file system are
+ * memory-mapped; documents inside archives are read in bulk into a reusable
+ * buffer. Either way, documents are decoded into a per-thread character buffer
+ * and tokenized in place, without creating intermediate strings.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Component
+public class CorpusReader {
+
+	/** The initial size of the per-thread buffers. */
+	private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	@Autowired
+	private ResourceLoader resourceLoader;
+
+	@Autowired
+	private DataConfig dataConfig;
+
+	private final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
+	/**
+	 * Lists the documents in the given corpus directory, in name order.
+	 *
+	 * @param directory the directory relative to the base data directory
+	 * @return the documents
+	 * @throws IOException if listing fails
+	 */
+	public List<Resource> list(String directory) throws IOException {
+		ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(resourceLoader);
+		String location = dataConfig.getBaseDataDirectory() + directory;
+		if (!location.contains(":")) {
+			location = ResourceUtils.CLASSPATH_URL_PREFIX + location;
+		}
+		if (!location.endsWith("/")) {
+			location += "/";
+		}
+		List<Resource> documents = new ArrayList<>();
+		for (Resource resource : resolver.getResources(location + "*")) {
+			if (resource.isReadable() && resource.getFilename() != null && !resource.getFilename().isEmpty()) {
+				documents.add(resource);
+			}
+		}
+		documents.sort(Comparator.comparing(Resource::getFilename));
+		return documents;
+	}
+
+	/**
+	 * Returns the raw bytes of the given document. File system documents are
+	 * memory-mapped, other documents are read into a per-thread buffer which is
+	 * only valid until the next read on the same thread.
+	 *
+	 * @param document the document
+	 * @return the bytes of the document
+	 * @throws IOException if reading fails
+	 */
+	public ByteBuffer bytes(Resource document) throws IOException {
+		if (ResourceUtils.isFileURL(document.getURL())) {
+			try (FileChannel channel = FileChannel.open(document.getFile().toPath(), StandardOpenOption.READ)) {
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+		Buffers buffers = this.buffers.get();
+		try (InputStream in = document.getInputStream()) {
+			int length = 0;
+			for (int read; (read = in.read(buffers.bytes, length, buffers.bytes.length - length)) != -1; ) {
+				length += read;
+				if (length == buffers.bytes.length) {
+					buffers.bytes = Arrays.copyOf(buffers.bytes, length * 2);
+				}
+			}
+			return ByteBuffer.wrap(buffers.bytes, 0, length);
+		}
+	}
+
+	/**
+	 * Streams the lower-cased, white space separated tokens of the given
+	 * document to the given consumer.
+	 *
+	 * @param document the document
+	 * @param consumer the consumer of the tokens
+	 * @throws IOException if reading fails
+	 */
+	public void tokenize(Resource document, TokenConsumer consumer) throws IOException {
+		CharBuffer text = decode(document);
+		char[] chars = text.array();
+		int length = text.limit();
+		int start = -1;
+		for (int i = 0; i < length; i++) {
+			char c = chars[i];
+			if (Character.isWhitespace(c)) {
+				if (start >= 0) {
+					consumer.accept(chars, start, i);
+					start = -1;
+				}
+				continue;
+			}
+			chars[i] = Character.toLowerCase(c);
+			if (start < 0) {
+				start = i;
+			}
+		}
+		if (start >= 0) {
+			consumer.accept(chars, start, length);
+		}
+	}
+
+	/**
+	 * Decodes the given UTF-8 document into the per-thread character buffer.
+	 * Malformed input is replaced rather than rejected.
+	 */
+	private CharBuffer decode(Resource document) throws IOException {
+		ByteBuffer bytes = bytes(document);
+		Buffers buffers = this.buffers.get();
+		CharsetDecoder decoder = buffers.decoder.reset();
+		CharBuffer chars = buffers.chars;
+		chars.clear();
+		while (decoder.decode(bytes, chars, true).isOverflow()) {
+			chars = grow(buffers, chars);
+		}
+		while (decoder.flush(chars).isOverflow()) {
+			chars = grow(buffers, chars);
+		}
+		chars.flip();
+		return chars;
+	}
+
+	private static CharBuffer grow(Buffers buffers, CharBuffer chars) {
+		CharBuffer grown = CharBuffer.allocate(chars.capacity() * 2);
+		chars.flip();
+		grown.put(chars);
+		buffers.chars = grown;
+		return grown;
+	}
+
+	/**
+	 * {@link Buffers} holds the reusable buffers of a reading thread.
+	 */
+	private static final class Buffers {
+
+		private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+		private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+
+	}
+
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.mrp.config.EvaluationConfig;
+import ai.mrp.inf.Predictor;
+import ai.mrp.inf.SnapshotCodec;
+import ai.mrp.inf.Trainer;
+import ai.mrp.model.ClassifierEvaluation;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.EvaluationReport;
+import ai.mrp.model.NaiveBayesModel;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.SVMModel;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link CrossValidator} evaluates the classifiers with stratified k-fold
+ * cross-validation on the training corpus.
+ *
+ * <p>Documents are shuffled within each class and dealt round-robin into the
+ * configured number of folds, so that every fold has the class balance of the
+ * corpus. For each fold, the classifiers are trained from scratch on the other
+ * folds and score the held-out one. Training sets are compacted first, so that
+ * the vocabulary of the held-out documents does not leak into the models. All
+ * folds and classifiers are trained and scored concurrently on a fixed pool of
+ * threads; the cascade is composed out of the Naive Bayes and SVM models of its
+ * fold as soon as both are trained. The models in use are left untouched.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+public class CrossValidator {
+
+	@Autowired
+	private CorpusLoader corpusLoader;
+
+	@Autowired
+	@Qualifier("NaiveBayes")
+	private Trainer<DataModel<ReviewType>> nbTrainer;
+
+	@Autowired
+	private SVMPredictorImpl svmPredictor;
+
+	@Autowired
+	private CascadingPredictorImpl cascade;
+
+	@Autowired
+	private EvaluationConfig evaluationConfig;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private volatile EvaluationReport report;
+
+	/**
+	 * Returns the report of the last evaluation.
+	 *
+	 * @return the report, or {@code null} if no evaluation has run yet
+	 */
+	public EvaluationReport getReport() {
+		return report;
+	}
+
+	/**
+	 * Cross-validates the configured classifiers and writes the report to the
+	 * configured file, if any. Evaluations do not overlap; this blocks until
+	 * the evaluation has completed.
+	 *
+	 * @return the report
+	 * @throws Exception if the corpus cannot be loaded or training fails
+	 */
+	public synchronized EvaluationReport evaluate() throws Exception {
+		Set<ClassifierType> types = EnumSet.noneOf(ClassifierType.class);
+		for (String name : evaluationConfig.getClassifiers()) {
+			types.add(ClassifierType.valueOf(name));
+		}
+		Corpus<ReviewType> corpus = corpusLoader.load();
+		int numFolds = evaluationConfig.getFolds();
+		if (numFolds < 2 || numFolds > corpus.size()) {
+			throw new IllegalArgumentException("Cannot split " + corpus.size() + " documents into " + numFolds + " folds");
+		}
+		int parallelism = Math.max(1, evaluationConfig.getParallelism());
+		long start = System.nanoTime();
+
+		int[][] folds = stratify(corpus, numFolds, evaluationConfig.getSeed());
+		Map<ClassifierType, List<CompletableFuture<FoldResult>>> results = new EnumMap<>(ClassifierType.class);
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("evaluation-"));
+		try {
+			for (int fold = 0; fold < numFolds; fold++) {
+				int[] others = others(folds, fold);
+				Corpus<ReviewType> test = corpus.select(folds[fold]);
+				CompletableFuture<Corpus<ReviewType>> training =
+						CompletableFuture.supplyAsync(() -> corpus.select(others).compact(), executor);
+
+				CompletableFuture<TrainedModel<NaiveBayesModel<ReviewType>>> nb = null;
+				if (types.contains(ClassifierType.NB) || types.contains(ClassifierType.CASCADE)) {
+					nb = training.thenApplyAsync(this::trainNaiveBayes, executor);
+				}
+				CompletableFuture<TrainedModel<SVMModel>> svm = null;
+				if (types.contains(ClassifierType.SVM) || types.contains(ClassifierType.CASCADE)) {
+					svm = training.thenApplyAsync(this::trainSVM, executor);
+				}
+				for (ClassifierType type : types) {
+					CompletableFuture<? extends TrainedModel<?>> trained;
+					if (type == ClassifierType.NB) {
+						trained = nb;
+					}
+					else if (type == ClassifierType.SVM) {
+						trained = svm;
+					}
+					else {
+						trained = nb.thenCombine(svm, (nbModel, svmModel) -> new TrainedModel<>(null,
+								cascade.compose(nbModel.model, svmModel.predictor),
+								nbModel.trainingNanos + svmModel.trainingNanos, nbModel.modelBytes + svmModel.modelBytes));
+					}
+					results.computeIfAbsent(type, key -> new ArrayList<>())
+							.add(trained.thenApplyAsync(model -> score(model, test), executor));
+				}
+			}
+
+			Map<ClassifierType, ClassifierEvaluation> evaluations = new EnumMap<>(ClassifierType.class);
+			for (Map.Entry<ClassifierType, List<CompletableFuture<FoldResult>>> entry : results.entrySet()) {
+				List<FoldResult> foldResults = new ArrayList<>();
+				for (CompletableFuture<FoldResult> result : entry.getValue()) {
+					foldResults.add(result.get());
+				}
+				evaluations.put(entry.getKey(), aggregate(foldResults));
+			}
+			report = new EvaluationReport(numFolds, corpus.size(), evaluationConfig.getSeed(), parallelism,
+					(System.nanoTime() - start) / 1_000_000, evaluations);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		log.info("Cross-validated classifiers in {} folds: {}", numFolds, report);
+		write(report);
+		return report;
+	}
+
+	/**
+	 * Splits the documents of the given corpus into folds of the same class
+	 * balance, shuffling each class with the given seed.
+	 */
+	static int[][] stratify(Corpus<ReviewType> corpus, int numFolds, long seed) {
+		Map<ReviewType, List<Integer>> byClass = new EnumMap<>(ReviewType.class);
+		for (int i = 0; i < corpus.size(); i++) {
+			byClass.computeIfAbsent(corpus.label(i), key -> new ArrayList<>()).add(i);
+		}
+		Random random = new Random(seed);
+		List<List<Integer>> folds = new ArrayList<>();
+		for (int fold = 0; fold < numFolds; fold++) {
+			folds.add(new ArrayList<>());
+		}
+		int next = 0;
+		for (List<Integer> documents : byClass.values()) {
+			Collections.shuffle(documents, random);
+			for (int document : documents) {
+				folds.get(next++ % numFolds).add(document);
+			}
+		}
+		int[][] result = new int[numFolds][];
+		for (int fold = 0; fold < numFolds; fold++) {
+			result[fold] = folds.get(fold).stream().mapToInt(Integer::intValue).sorted().toArray();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the documents of all folds but the given one.
+	 */
+	private static int[] others(int[][] folds, int excluded) {
+		int size = 0;
+		for (int fold = 0; fold < folds.length; fold++) {
+			size += fold == excluded ? 0 : folds[fold].length;
+		}
+		int[] documents = new int[size];
+		int length = 0;
+		for (int fold = 0; fold < folds.length; fold++) {
+			if (fold != excluded) {
+				System.arraycopy(folds[fold], 0, documents, length, folds[fold].length);
+				length += folds[fold].length;
+			}
+		}
+		return documents;
+	}
+
+	@SneakyThrows
+	private TrainedModel<NaiveBayesModel<ReviewType>> trainNaiveBayes(Corpus<ReviewType> training) {
+		long start = System.nanoTime();
+		DataModel<ReviewType> dataModel = nbTrainer.train(training);
+		NaiveBayesModel<ReviewType> model = NaiveBayesModel.of(dataModel);
+		long trainingNanos = System.nanoTime() - start;
+		return new TrainedModel<>(model, text -> model.classify(text), trainingNanos,
+				size(dataModel, new DataModelCodec<>(ReviewType.class)));
+	}
+
+	@SneakyThrows
+	private TrainedModel<SVMModel> trainSVM(Corpus<ReviewType> training) {
+		long start = System.nanoTime();
+		SVMModel model = svmPredictor.train(training);
+		Predictor<ReviewType> predictor = svmPredictor.predictor(model);
+		long trainingNanos = System.nanoTime() - start;
+		return new TrainedModel<>(model, predictor, trainingNanos, size(model, new SVMModelCodec()));
+	}
+
+	/**
+	 * Classifies the documents of the given held-out fold in one batch and
+	 * tallies the confusion matrix.
+	 */
+	private static FoldResult score(TrainedModel<?> trained, Corpus<ReviewType> test) {
+		List<String> texts = new ArrayList<>(test.size());
+		for (int i = 0; i < test.size(); i++) {
+			texts.add(test.text(i));
+		}
+		long start = System.nanoTime();
+		List<ReviewType> predicted = trained.predictor.predictBatch(texts);
+		long predictionNanos = System.nanoTime() - start;
+
+		int numClasses = ReviewType.values().length;
+		long[][] confusion = new long[numClasses][numClasses];
+		for (int i = 0; i < test.size(); i++) {
+			confusion[test.label(i).ordinal()][predicted.get(i).ordinal()]++;
+		}
+		return new FoldResult(confusion, trained.trainingNanos, predictionNanos, test.size(), trained.modelBytes);
+	}
+
+	/**
+	 * Averages the results of all folds of a classifier. Accuracy is averaged
+	 * per fold, F1 scores are computed over the pooled confusion matrix.
+	 */
+	static ClassifierEvaluation aggregate(List<FoldResult> results) {
+		int numClasses = ReviewType.values().length;
+		long[][] pooled = new long[numClasses][numClasses];
+		double[] accuracies = new double[results.size()];
+		long trainingNanos = 0, predictionNanos = 0, texts = 0, modelBytes = 0;
+		for (int fold = 0; fold < results.size(); fold++) {
+			FoldResult result = results.get(fold);
+			long correct = 0;
+			for (int actual = 0; actual < numClasses; actual++) {
+				for (int predicted = 0; predicted < numClasses; predicted++) {
+					pooled[actual][predicted] += result.confusion[actual][predicted];
+				}
+				correct += result.confusion[actual][actual];
+			}
+			accuracies[fold] = (double) correct / result.texts;
+			trainingNanos += result.trainingNanos;
+			predictionNanos += result.predictionNanos;
+			texts += result.texts;
+			modelBytes += result.modelBytes;
+		}
+
+		double meanAccuracy = 0;
+		for (double accuracy : accuracies) {
+			meanAccuracy += accuracy / accuracies.length;
+		}
+		double variance = 0;
+		for (double accuracy : accuracies) {
+			variance += (accuracy - meanAccuracy) * (accuracy - meanAccuracy) / (accuracies.length - 1);
+		}
+
+		Map<ReviewType, Double> classF1 = new EnumMap<>(ReviewType.class);
+		double macroF1 = 0;
+		for (ReviewType type : ReviewType.values()) {
+			int c = type.ordinal();
+			long truePositives = pooled[c][c], predictedPositives = 0, actualPositives = 0;
+			for (int other = 0; other < numClasses; other++) {
+				predictedPositives += pooled[other][c];
+				actualPositives += pooled[c][other];
+			}
+			double f1 = predictedPositives + actualPositives == 0 ? 0
+					: 2.0 * truePositives / (predictedPositives + actualPositives);
+			classF1.put(type, f1);
+			macroF1 += f1 / numClasses;
+		}
+
+		return new ClassifierEvaluation(meanAccuracy, Math.sqrt(variance), macroF1, classF1,
+				trainingNanos / 1e6 / results.size(), predictionNanos == 0 ? 0 : texts * 1e9 / predictionNanos,
+				modelBytes / results.size());
+	}
+
+	/**
+	 * Measures the serialized size of the given model.
+	 */
+	private static <T> long size(T model, SnapshotCodec<T> codec) throws IOException {
+		CountingOutputStream counter = new CountingOutputStream();
+		try (DataOutputStream out = new DataOutputStream(counter)) {
+			codec.write(model, out);
+		}
+		return counter.count;
+	}
+
+	private void write(EvaluationReport report) {
+		if (StringUtils.hasText(evaluationConfig.getReportFile())) {
+			File file = new File(evaluationConfig.getReportFile());
+			try {
+				objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, report);
+				log.info("Wrote evaluation report to {}", file.getAbsolutePath());
+			}
+			catch (IOException e) {
+				log.warn("Could not write evaluation report to " + file.getAbsolutePath(), e);
+			}
+		}
+	}
+
+	/**
+	 * {@link TrainedModel} holds a model trained on a fold along with its
+	 * predictor and costs.
+	 */
+	private static final class TrainedModel<M> {
+
+		private final M model;
+		private final Predictor<ReviewType> predictor;
+		private final long trainingNanos;
+		private final long modelBytes;
+
+		private TrainedModel(M model, Predictor<ReviewType> predictor, long trainingNanos, long modelBytes) {
+			this.model = model;
+			this.predictor = predictor;
+			this.trainingNanos = trainingNanos;
+			this.modelBytes = modelBytes;
+		}
+
+	}
+
+	/**
+	 * {@link FoldResult} holds the confusion matrix and costs of a classifier
+	 * on a fold, with actual classes as rows and predicted classes as columns.
+	 */
+	static final class FoldResult {
+
+		private final long[][] confusion;
+		private final long trainingNanos;
+		private final long predictionNanos;
+		private final int texts;
+		private final long modelBytes;
+
+		FoldResult(long[][] confusion, long trainingNanos, long predictionNanos, int texts, long modelBytes) {
+			this.confusion = confusion;
+			this.trainingNanos = trainingNanos;
+			this.predictionNanos = predictionNanos;
+			this.texts = texts;
+			this.modelBytes = modelBytes;
+		}
+
+	}
+
+	/**
+	 * {@link CountingOutputStream} discards its output, counting the bytes.
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import ai.mrp.inf.SnapshotCodec;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.TokenDictionary;
+
+/**
+ * {@link DataModelCodec} stores the word counts of a {@link DataModel}.
+ *
+ * <p>The payload holds the class names, the dictionary as length-prefixed
+ * UTF-8 tokens in id order, the per-class totals and then one block of
+ * {@code int} counts per class.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class DataModelCodec<C extends Enum<C>> implements SnapshotCodec<DataModel<C>> {
+
+	private final Class<C> clazz;
+
+	public DataModelCodec(Class<C> clazz) {
+		this.clazz = clazz;
+	}
+
+	@Override
+	public void write(DataModel<C> dataModel, DataOutputStream out) throws IOException {
+		C[] classes = clazz.getEnumConstants();
+		out.writeInt(classes.length);
+		for (C type : classes) {
+			writeString(type.name(), out);
+		}
+
+		TokenDictionary dictionary = dataModel.getDictionary();
+		out.writeInt(dictionary.size());
+		for (int id = 0; id < dictionary.size(); id++) {
+			writeString(dictionary.token(id), out);
+		}
+		for (C type : classes) {
+			out.writeLong(dataModel.total(type));
+		}
+		for (C type : classes) {
+			for (int id = 0; id < dictionary.size(); id++) {
+				out.writeInt(dataModel.get(type, id));
+			}
+		}
+	}
+
+	@Override
+	public DataModel<C> read(ByteBuffer payload) throws IOException {
+		C[] classes = clazz.getEnumConstants();
+		if (payload.getInt() != classes.length) {
+			throw new IOException("Class count mismatch");
+		}
+		for (C type : classes) {
+			if (!type.name().equals(readString(payload))) {
+				throw new IOException("Class mismatch for " + type);
+			}
+		}
+
+		DataModel<C> dataModel = new DataModel<>(clazz);
+		TokenDictionary dictionary = dataModel.getDictionary();
+		int size = payload.getInt();
+		for (int id = 0; id < size; id++) {
+			if (dictionary.intern(readString(payload)) != id) {
+				throw new IOException("Duplicate token at id " + id);
+			}
+		}
+		long[] totals = new long[classes.length];
+		for (C type : classes) {
+			totals[type.ordinal()] = payload.getLong();
+		}
+		for (C type : classes) {
+			for (int id = 0; id < size; id++) {
+				int count = payload.getInt();
+				if (count != 0) {
+					dataModel.add(type, id, count);
+				}
+			}
+			if (dataModel.total(type) != totals[type.ordinal()]) {
+				throw new IOException("Corrupt counts for " + type);
+			}
+		}
+		return dataModel;
+	}
+
+	private static void writeString(String value, DataOutputStream out) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer payload) {
+		byte[] bytes = new byte[payload.getInt()];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
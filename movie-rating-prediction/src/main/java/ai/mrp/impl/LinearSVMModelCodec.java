@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import ai.mrp.inf.SnapshotCodec;
+import ai.mrp.model.LinearSVMModel;
+
+/**
+ * {@link LinearSVMModelCodec} stores a compiled {@link LinearSVMModel}. Unlike
+ * {@link SVMModelCodec}, it does not store the Weka classifier, and the terms
+ * and weights of the model read back stay in the payload, typically a
+ * memory-mapped snapshot shared by all processes mapping it.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class LinearSVMModelCodec implements SnapshotCodec<LinearSVMModel> {
+
+	@Override
+	public void write(LinearSVMModel model, DataOutputStream out) throws IOException {
+		model.write(out);
+	}
+
+	@Override
+	public LinearSVMModel read(ByteBuffer payload) throws IOException {
+		return LinearSVMModel.read(payload);
+	}
+
+}
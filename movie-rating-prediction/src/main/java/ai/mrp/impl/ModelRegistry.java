@@ -0,0 +1,330 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import ai.mrp.config.ModelConfig;
+import ai.mrp.inf.Reloadable;
+import ai.mrp.model.ClassifierReadiness;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.ModelReadiness;
+import ai.mrp.model.ModelState;
+import ai.mrp.model.ModelStatus;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ModelRegistry} initializes and reloads the models of all
+ * {@link Reloadable} classifiers in the background and keeps track of their
+ * version and readiness.
+ *
+ * <p>The first models are loaded in parallel, one thread per classifier, once
+ * the registry is created, so that the application context, and with it the
+ * HTTP and WebSocket endpoints, starts without waiting for them. Each
+ * classifier is ready as soon as its own model is loaded, so a Naive Bayes
+ * model mapped from its snapshot serves long before an SVM classifier that
+ * has to be trained. A classifier whose model fails to load is reported as
+ * failed, and the next successful reload brings it up. No reload starts
+ * before the initialization has completed.
+ *
+ * <p>A reload reads the corpus afresh and then prepares all new models, from
+ * their snapshots or by retraining them, and warms them up, while the current
+ * models keep serving predictions. The new models are then swapped in together.
+ * The corpus is dropped once the initialization or a reload has finished, so
+ * that it is not held between reloads.
+ * Reloads run on a schedule or on demand, as configured in {@link ModelConfig},
+ * one at a time.
+ *
+ * <p>The version is kept in a sequence which is odd while models are being
+ * swapped, like a sequence lock. Readers never block: they classify with the
+ * version returned by {@link #getVersion()} and check with
+ * {@link #isCurrent(long)} afterwards that no swap took place meanwhile, or
+ * else classify again.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+public class ModelRegistry implements InitializingBean, DisposableBean {
+
+	/** The texts new models classify before use. */
+	private static final List<String> WARM_UP_TEXTS = Collections.unmodifiableList(Arrays.asList(
+			"What a great movie, loved every minute of it",
+			"Worst film I have seen in years, total waste of money",
+			"the acting was fine but the plot made no sense",
+			"Cannot wait to watch it again this weekend!"));
+
+	@Autowired
+	private List<Reloadable> reloadables;
+
+	@Autowired
+	private CorpusLoader corpusLoader;
+
+	@Autowired
+	private SnapshotStore snapshotStore;
+
+	@Autowired
+	private ModelConfig modelConfig;
+
+	/** Twice the version, plus one while models are being swapped. */
+	private final AtomicLong sequence = new AtomicLong(2);
+
+	private final AtomicBoolean reloading = new AtomicBoolean();
+
+	private volatile Date loadedAt;
+
+	private volatile String lastError;
+
+	/** The readiness of each reloadable classifier. */
+	private final Map<ClassifierType, ClassifierReadiness> readiness = new ConcurrentHashMap<>();
+
+	/** The start time of the initialization, for the readiness of the classifiers still loading. */
+	private long initializationStart;
+
+	/** Completes once all first models are loaded or have failed to. */
+	private CompletableFuture<Void> initialization;
+
+	private ExecutorService initializer;
+
+	private ScheduledExecutorService executor;
+
+	/**
+	 * Starts loading the first models in the background, as well as the
+	 * background thread, scheduling reloads if so configured.
+	 */
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("model-registry-"));
+		this.initializer = Executors.newFixedThreadPool(Math.max(1, reloadables.size()),
+				new CustomizableThreadFactory("model-initializer-"));
+		this.initializationStart = System.nanoTime();
+		reloading.set(true);
+		List<CompletableFuture<Void>> initializations = new ArrayList<>();
+		for (Reloadable reloadable : reloadables) {
+			readiness.put(reloadable.getClassifierType(), new ClassifierReadiness(ModelState.LOADING, null, 0, null));
+			initializations.add(CompletableFuture.runAsync(() -> initialize(reloadable), initializer));
+		}
+		this.initialization = CompletableFuture.allOf(initializations.toArray(new CompletableFuture<?>[0]))
+				.whenComplete((result, e) -> {
+					corpusLoader.refresh();
+					loadedAt = new Date();
+					reloading.set(false);
+					log.info("Initialized models after {} ms", (System.nanoTime() - initializationStart) / 1_000_000);
+				});
+		initializer.shutdown();
+		long interval = modelConfig.getReloadInterval();
+		if (interval > 0) {
+			executor.scheduleWithFixedDelay(() -> requestReload(modelConfig.isRetrainOnSchedule()), interval,
+					interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		initializer.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Waits for the first models of all classifiers to be loaded, or to have
+	 * failed to load.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void awaitInitialization() throws InterruptedException {
+		try {
+			initialization.get();
+		}
+		catch (ExecutionException e) {
+			// failures are reported by the readiness of the classifiers
+		}
+	}
+
+	/**
+	 * Starts reloading the models in the background, unless a reload or the
+	 * initialization is in progress already.
+	 *
+	 * @param retrain whether to retrain the models rather than load their snapshots
+	 * @return whether a reload was started
+	 */
+	public boolean requestReload(boolean retrain) {
+		if (!reloading.compareAndSet(false, true)) {
+			return false;
+		}
+		executor.execute(() -> reload(retrain));
+		return true;
+	}
+
+	/**
+	 * Returns the version of the models in use, waiting for a swap in progress
+	 * to complete.
+	 *
+	 * @return the version
+	 */
+	public long getVersion() {
+		long sequence;
+		while (((sequence = this.sequence.get()) & 1) != 0) {
+			Thread.yield();
+		}
+		return sequence >>> 1;
+	}
+
+	/**
+	 * Returns whether the given version is still in use, that is whether models
+	 * have not been swapped since it was obtained.
+	 *
+	 * @param version the version from {@link #getVersion()}
+	 * @return whether the version is in use
+	 */
+	public boolean isCurrent(long version) {
+		return sequence.get() == version << 1;
+	}
+
+	/**
+	 * Returns the version of the models in use and the state of reloading.
+	 *
+	 * @return the status
+	 */
+	public ModelStatus getStatus() {
+		return new ModelStatus(getVersion(), loadedAt, reloading.get(), lastError);
+	}
+
+	/**
+	 * Returns the readiness of each classifier. The readiness of the cascade is
+	 * derived from those of the Naive Bayes and SVM classifiers it relies on.
+	 *
+	 * @return the readiness
+	 */
+	public ModelReadiness getReadiness() {
+		Map<ClassifierType, ClassifierReadiness> classifiers = new EnumMap<>(ClassifierType.class);
+		long elapsed = (System.nanoTime() - initializationStart) / 1_000_000;
+		readiness.forEach((type, classifier) -> classifiers.put(type, classifier.getState() == ModelState.LOADING
+				? new ClassifierReadiness(ModelState.LOADING, null, elapsed, null) : classifier));
+		ClassifierReadiness nb = classifiers.get(ClassifierType.NB);
+		ClassifierReadiness svm = classifiers.get(ClassifierType.SVM);
+		if (nb != null && svm != null) {
+			classifiers.put(ClassifierType.CASCADE, cascade(nb, svm));
+		}
+		boolean ready = true;
+		for (ClassifierReadiness classifier : classifiers.values()) {
+			ready &= classifier.getState() == ModelState.READY;
+		}
+		return new ModelReadiness(ready, classifiers);
+	}
+
+	/**
+	 * Loads the first model of the given classifier and records its readiness.
+	 */
+	private void initialize(Reloadable reloadable) {
+		ClassifierType type = reloadable.getClassifierType();
+		try {
+			reloadable.prepare(false, Collections.emptyList()).run();
+			long elapsed = (System.nanoTime() - initializationStart) / 1_000_000;
+			readiness.put(type, new ClassifierReadiness(ModelState.READY, new Date(), elapsed, null));
+			log.info("{} model ready after {} ms", type, elapsed);
+		}
+		catch (Exception e) {
+			long elapsed = (System.nanoTime() - initializationStart) / 1_000_000;
+			readiness.put(type, new ClassifierReadiness(ModelState.FAILED, null, elapsed, e.toString()));
+			log.error("Could not initialize the " + type + " model", e);
+		}
+	}
+
+	/**
+	 * Derives the readiness of the cascade from those of its classifiers: it is
+	 * ready once both are, and failed if either failed.
+	 */
+	private static ClassifierReadiness cascade(ClassifierReadiness nb, ClassifierReadiness svm) {
+		ClassifierReadiness last = nb.getInitializationMillis() >= svm.getInitializationMillis() ? nb : svm;
+		if (nb.getState() == ModelState.FAILED || svm.getState() == ModelState.FAILED) {
+			ClassifierReadiness failed = nb.getState() == ModelState.FAILED ? nb : svm;
+			return new ClassifierReadiness(ModelState.FAILED, null, last.getInitializationMillis(), failed.getError());
+		}
+		if (nb.getState() == ModelState.LOADING || svm.getState() == ModelState.LOADING) {
+			return new ClassifierReadiness(ModelState.LOADING, null, last.getInitializationMillis(), null);
+		}
+		return new ClassifierReadiness(ModelState.READY, last.getReadySince(), last.getInitializationMillis(), null);
+	}
+
+	/**
+	 * Prepares new models and swaps them in. Failures leave the current models
+	 * in use. Classifiers whose first model failed to load are ready afterwards.
+	 */
+	private void reload(boolean retrain) {
+		try {
+			long start = System.nanoTime();
+			corpusLoader.refresh();
+			snapshotStore.refresh();
+			List<String> warmUpTexts = new ArrayList<>();
+			for (int i = 0; i < modelConfig.getWarmUpRounds(); i++) {
+				warmUpTexts.addAll(WARM_UP_TEXTS);
+			}
+			List<Runnable> swaps = new ArrayList<>();
+			for (Reloadable reloadable : reloadables) {
+				swaps.add(reloadable.prepare(retrain, warmUpTexts));
+			}
+			sequence.incrementAndGet();
+			try {
+				swaps.forEach(Runnable::run);
+			}
+			finally {
+				sequence.incrementAndGet();
+			}
+			loadedAt = new Date();
+			lastError = null;
+			for (Reloadable reloadable : reloadables) {
+				readiness.computeIfPresent(reloadable.getClassifierType(),
+						(type, classifier) -> classifier.getState() == ModelState.READY ? classifier
+								: new ClassifierReadiness(ModelState.READY, loadedAt, classifier.getInitializationMillis(),
+										null));
+			}
+			log.info("Swapped in models of version {} after {} ms", getVersion(),
+					(System.nanoTime() - start) / 1_000_000);
+		}
+		catch (Exception e) {
+			lastError = e.toString();
+			log.warn("Could not reload models, keeping version " + getVersion(), e);
+		}
+		finally {
+			corpusLoader.refresh();
+			reloading.set(false);
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+
+import ai.mrp.inf.SnapshotCodec;
+import ai.mrp.model.MappedTokenIndex;
+import ai.mrp.model.NaiveBayesModel;
+import ai.mrp.model.TokenIndex;
+import ai.mrp.util.BufferUtils;
+
+/**
+ * {@link NaiveBayesModelCodec} stores a {@link NaiveBayesModel} in a layout
+ * which is read in place rather than copied to the heap.
+ *
+ * <p>The payload holds the class names and the per-class totals, then the
+ * dictionary as laid out by {@link MappedTokenIndex}, and then the
+ * {@code int} counts and {@code double} log-likelihoods, both indexed by
+ * {@code wordId * numClasses + ordinal}. The model read back refers to views of
+ * the payload, so when the payload is a memory-mapped snapshot, lookups go to
+ * the page cache, which is shared by all processes mapping the snapshot.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class NaiveBayesModelCodec<C extends Enum<C>> implements SnapshotCodec<NaiveBayesModel<C>> {
+
+	private final Class<C> clazz;
+
+	public NaiveBayesModelCodec(Class<C> clazz) {
+		this.clazz = clazz;
+	}
+
+	@Override
+	public void write(NaiveBayesModel<C> model, DataOutputStream out) throws IOException {
+		C[] classes = clazz.getEnumConstants();
+		out.writeInt(classes.length);
+		for (C type : classes) {
+			writeString(type.name(), out);
+		}
+		for (C type : classes) {
+			out.writeLong(model.total(type));
+		}
+
+		TokenIndex dictionary = model.getDictionary();
+		MappedTokenIndex.write(dictionary, out);
+		for (int id = 0; id < dictionary.size(); id++) {
+			for (C type : classes) {
+				out.writeInt(model.count(type, id));
+			}
+		}
+		for (int id = 0; id < dictionary.size(); id++) {
+			for (C type : classes) {
+				out.writeDouble(model.logLikelihood(type, id));
+			}
+		}
+	}
+
+	@Override
+	public NaiveBayesModel<C> read(ByteBuffer payload) throws IOException {
+		C[] classes = clazz.getEnumConstants();
+		if (payload.getInt() != classes.length) {
+			throw new IOException("Class count mismatch");
+		}
+		for (C type : classes) {
+			if (!type.name().equals(readString(payload))) {
+				throw new IOException("Class mismatch for " + type);
+			}
+		}
+		long[] totals = new long[classes.length];
+		for (C type : classes) {
+			totals[type.ordinal()] = payload.getLong();
+		}
+
+		MappedTokenIndex dictionary = MappedTokenIndex.read(payload);
+		long size = (long) dictionary.size() * classes.length;
+		IntBuffer counts = BufferUtils.slice(payload, 4 * size).asIntBuffer();
+		DoubleBuffer logLikelihoods = BufferUtils.slice(payload, 8 * size).asDoubleBuffer();
+		if (payload.hasRemaining()) {
+			throw new IOException("Unexpected trailing bytes");
+		}
+		return NaiveBayesModel.of(clazz, dictionary, totals, counts, logLikelihoods);
+	}
+
+	private static void writeString(String value, DataOutputStream out) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer payload) {
+		byte[] bytes = new byte[payload.getInt()];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -16,83 +16,272 @@
 
 package ai.mrp.impl;
 
-import org.springframework.beans.factory.InitializingBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import ai.mrp.config.ModelConfig;
+import ai.mrp.config.NaiveBayesConfig;
 import ai.mrp.inf.Predictor;
+import ai.mrp.inf.Reloadable;
 import ai.mrp.inf.Trainer;
+import ai.mrp.model.ClassifierType;
 import ai.mrp.model.DataModel;
+import ai.mrp.model.Feedback;
+import ai.mrp.model.LearningStats;
+import ai.mrp.model.NaiveBayesModel;
+import ai.mrp.model.OnlineNaiveBayesModel;
 import ai.mrp.model.ReviewType;
-import ai.mrp.util.ProfileUtils;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * An implementation of the Naive Bayes classification algorithm.
  *
+ * <p>The model keeps learning from labelled texts passed to
+ * {@link #learn(String, ReviewType)} while it classifies. Learned counts live
+ * in memory only; they are not part of the snapshot and are lost on restart.
+ * The most recent learned texts, up to the maximum configured in
+ * {@link NaiveBayesConfig}, are kept in a feedback log and learned again by
+ * each reloaded model, so feedback survives reloads; older texts are dropped
+ * from the log and counted as forgotten.
+ *
+ * <p>Unless disabled in {@link ModelConfig}, the trained dictionary, counts and
+ * log-likelihoods are read in place from a memory-mapped snapshot, which
+ * processes on the same host share.
+ *
+ * <p>The first model is loaded in the background by the {@link ModelRegistry}.
+ * Until then, the predictor is not ready and predicting or learning fails with
+ * an {@link IllegalStateException}.
+ *
  * @author Donnabell Dmello <ddmello@usc.edu>
  * @author Venil Noronha <vnoronha@usc.edu>
  */
 @Slf4j
 @Component
 @Qualifier("NaiveBayes")
-public class NaiveBayesPredictorImpl implements Predictor<ReviewType>, InitializingBean {
+public class NaiveBayesPredictorImpl implements Predictor<ReviewType>, Reloadable {
+
+	/** The snapshot name of the trained data model. */
+	private static final String SNAPSHOT = "naive-bayes";
+
+	/** The snapshot name of the inference model read in place. */
+	private static final String MAPPED_SNAPSHOT = "naive-bayes-mapped";
+
+	/** The training settings, which invalidate snapshots when changed. */
+	private static final String SETTINGS = "words=split-on-whitespace;lowercase";
 
 	@Autowired
 	@Qualifier("NaiveBayes")
 	private Trainer<DataModel<ReviewType>> trainer;
 
-	private DataModel<ReviewType> dataModel;
+	@Autowired
+	private CorpusLoader corpusLoader;
+
+	@Autowired
+	private SnapshotStore snapshotStore;
+
+	@Autowired
+	private NaiveBayesConfig naiveBayesConfig;
+
+	@Autowired
+	private ModelConfig modelConfig;
+
+	private final AtomicReference<OnlineNaiveBayesModel<ReviewType>> model = new AtomicReference<>();
+
+	/** The most recent learned texts, replayed into reloaded models, guarded by itself. */
+	private final Deque<Feedback> feedbackLog = new ArrayDeque<>();
+
+	/** The number of texts ever added to the feedback log, guarded by {@link #feedbackLog}. */
+	private long loggedTexts;
+
+	/** The number of texts dropped from the feedback log, guarded by {@link #feedbackLog}. */
+	private long forgottenTexts;
 
 	/**
-	 * Trains the Naive Bayes data model.
+	 * Loads or retrains a new model, learns the texts of the feedback log and
+	 * warms the model up, leaving the current model in use until the returned
+	 * action is run. The action learns the texts logged in the meantime before
+	 * it swaps the model in, so no feedback is lost in between.
 	 */
 	@Override
-	public void afterPropertiesSet() throws Exception {
-		this.dataModel = trainer.train();
-		// predict("i love this movie");
-		// predict("this movie is simply awesome");
-		// predict("its very bad");
-		// predict("Not that great");
+	public Runnable prepare(boolean retrain, List<String> warmUpTexts) throws Exception {
+		OnlineNaiveBayesModel<ReviewType> newModel = load(retrain);
+		List<Feedback> replayed;
+		long replayedTexts;
+		synchronized (feedbackLog) {
+			replayed = new ArrayList<>(feedbackLog);
+			replayedTexts = loggedTexts;
+		}
+		for (Feedback feedback : replayed) {
+			newModel.learn(feedback.getType(), feedback.getText());
+		}
+		for (String text : warmUpTexts) {
+			newModel.classify(text);
+		}
+		return () -> {
+			synchronized (feedbackLog) {
+				for (Feedback feedback : loggedSince(replayedTexts)) {
+					newModel.learn(feedback.getType(), feedback.getText());
+				}
+				this.model.set(newModel);
+			}
+			if (newModel.learnedTexts() > 0) {
+				log.info("Learned {} logged feedback texts again", newModel.learnedTexts());
+			}
+		};
 	}
 
-	@SneakyThrows
 	@Override
-	public ReviewType predict(String sentence) {
-		return ProfileUtils.profileExecution(() -> {
-			String text = sentence.toLowerCase();
-			double positiveScore = calcScore(text, ReviewType.POSITIVE);
-			double negativeScore = calcScore(text, ReviewType.NEGATIVE);
-			ReviewType predictedType = ReviewType.POSITIVE;
-			if (negativeScore > positiveScore) {
-				predictedType = ReviewType.NEGATIVE;
+	public ClassifierType getClassifierType() {
+		return ClassifierType.NB;
+	}
+
+	@Override
+	public boolean isReady() {
+		return model.get() != null;
+	}
+
+	/**
+	 * Maps the inference model from its snapshot if so configured. Otherwise
+	 * loads the Naive Bayes data model from its snapshot, or trains it if there
+	 * is no up-to-date snapshot or retraining is asked for, and builds the
+	 * inference model out of it, mapping it from a new snapshot if so
+	 * configured. Either way, the inference model is wrapped into an
+	 * {@link OnlineNaiveBayesModel}.
+	 *
+	 * @param retrain whether to train the model even if there is a snapshot
+	 * @return the inference model
+	 * @throws Exception if training fails
+	 */
+	private OnlineNaiveBayesModel<ReviewType> load(boolean retrain) throws Exception {
+		NaiveBayesModelCodec<ReviewType> mappedCodec = new NaiveBayesModelCodec<>(ReviewType.class);
+		NaiveBayesModel<ReviewType> frozen = null;
+		if (modelConfig.isMapped() && !retrain) {
+			frozen = snapshotStore.load(MAPPED_SNAPSHOT, SETTINGS, mappedCodec);
+		}
+		if (frozen == null) {
+			DataModelCodec<ReviewType> codec = new DataModelCodec<>(ReviewType.class);
+			DataModel<ReviewType> dataModel = retrain ? null : snapshotStore.load(SNAPSHOT, SETTINGS, codec);
+			if (dataModel == null) {
+				dataModel = trainer.train(corpusLoader.load());
+				snapshotStore.save(SNAPSHOT, SETTINGS, dataModel, codec);
+			}
+			frozen = NaiveBayesModel.of(dataModel);
+			if (modelConfig.isMapped()) {
+				frozen = snapshotStore.saveAndLoad(MAPPED_SNAPSHOT, SETTINGS, frozen, mappedCodec);
 			}
-			log.debug("Sentence: {}, positiveScore: {}, negativeScore: {}, predictedType: {}", text, positiveScore,
-					negativeScore, predictedType);
-			return predictedType;
-		});
+		}
+		return OnlineNaiveBayesModel.of(frozen, naiveBayesConfig.getMaximumLearnedWords());
+	}
+
+	@Override
+	public ReviewType predict(String sentence) {
+		OnlineNaiveBayesModel<ReviewType> model = model();
+		ReviewType predictedType = model.classify(sentence);
+		if (log.isDebugEnabled()) {
+			double[] scores = model.score(sentence);
+			log.debug("Sentence: {}, positiveScore: {}, negativeScore: {}, predictedType: {}", sentence,
+					scores[ReviewType.POSITIVE.ordinal()], scores[ReviewType.NEGATIVE.ordinal()], predictedType);
+		}
+		return predictedType;
+	}
+
+	/**
+	 * Predicts the class of the sentence only if the log-odds of the predicted
+	 * class over the runner-up are at least the given margin.
+	 *
+	 * @param sentence the sentence to classify
+	 * @param minMargin the minimum log-odds margin
+	 * @return the predicted class, or {@code null} if the model is not confident
+	 */
+	public ReviewType predict(String sentence, double minMargin) {
+		return model().classify(sentence, minMargin);
+	}
+
+	/**
+	 * Classifies the texts in one loop over the current model, without debug
+	 * logging per text.
+	 */
+	@Override
+	public List<ReviewType> predictBatch(List<String> sentences) {
+		OnlineNaiveBayesModel<ReviewType> model = model();
+		List<ReviewType> predictedTypes = new ArrayList<>(sentences.size());
+		for (String sentence : sentences) {
+			predictedTypes.add(model.classify(sentence));
+		}
+		log.debug("Predicted {} sentences", sentences.size());
+		return predictedTypes;
 	}
 
 	/**
-	 * Calculates the score of a given input text and its type.
+	 * Folds the sentence into the counts of the given class, so that it affects
+	 * subsequent predictions. Concurrent predictions are not blocked.
 	 *
-	 * @param text the input text for which the score is to be calculated
-	 * @param type the class type
-	 * @return the calculated score
+	 * @param sentence the sentence to learn
+	 * @param type the actual class of the sentence
 	 */
-	private double calcScore(String text, ReviewType type) {
-		int totalNumberOfWords = dataModel.total(ReviewType.POSITIVE) + dataModel.total(ReviewType.NEGATIVE);
-		double classProbability = (double) dataModel.total(type) / totalNumberOfWords;
-		double score = classProbability;
-		for (String word : text.split(" ")) {
-			int wordCount = dataModel.get(type, word);
-			if (wordCount > 0) {
-				score *= (double) wordCount / totalNumberOfWords;
+	public void learn(String sentence, ReviewType type) {
+		synchronized (feedbackLog) {
+			model().learn(type, sentence);
+			feedbackLog.addLast(new Feedback(sentence, type));
+			loggedTexts++;
+			while (feedbackLog.size() > naiveBayesConfig.getMaximumReplayedTexts()) {
+				feedbackLog.removeFirst();
+				forgottenTexts++;
 			}
 		}
-		return score;
+		log.debug("Learned sentence: {}, type: {}", sentence, type);
+	}
+
+	/**
+	 * Returns the number of texts and new words learned so far, and the number
+	 * of learned texts which a reload would lose.
+	 *
+	 * @return the learning statistics
+	 */
+	public LearningStats getLearningStats() {
+		OnlineNaiveBayesModel<ReviewType> model = model();
+		long forgottenTexts;
+		synchronized (feedbackLog) {
+			forgottenTexts = this.forgottenTexts;
+		}
+		return new LearningStats(model.learnedTexts(), model.newWords(), model.vocabularySize(), forgottenTexts);
+	}
+
+	/**
+	 * Returns the texts added to the feedback log after the given number of
+	 * texts, as far as they are still logged. Must be called holding the lock of
+	 * the log.
+	 */
+	private List<Feedback> loggedSince(long texts) {
+		long count = Math.min(loggedTexts - texts, feedbackLog.size());
+		List<Feedback> logged = new ArrayList<>();
+		for (Iterator<Feedback> iterator = feedbackLog.descendingIterator(); logged.size() < count; ) {
+			logged.add(iterator.next());
+		}
+		Collections.reverse(logged);
+		return logged;
+	}
+
+	/**
+	 * Returns the model in use.
+	 *
+	 * @throws IllegalStateException if the first model has not been loaded yet
+	 */
+	private OnlineNaiveBayesModel<ReviewType> model() {
+		OnlineNaiveBayesModel<ReviewType> model = this.model.get();
+		if (model == null) {
+			throw new IllegalStateException("The Naive Bayes model is not ready yet");
+		}
+		return model;
 	}
 
 }
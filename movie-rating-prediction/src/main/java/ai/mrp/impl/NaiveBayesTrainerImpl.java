@@ -16,69 +16,111 @@
 
 package ai.mrp.impl;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
-import ai.mrp.config.DataConfig;
 import ai.mrp.inf.Trainer;
+import ai.mrp.model.Corpus;
 import ai.mrp.model.DataModel;
 import ai.mrp.model.ReviewType;
-import ai.mrp.util.FileUtils;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * {@link NaiveBayesTrainerImpl} implements logic to train the Naive Bayes
  * classifier.
  *
+ * <p>Training is split across a {@link ForkJoinPool} with one worker per
+ * available processor. The corpus documents are split into one slice per
+ * worker, each of which is counted into its own {@link DataModel}, and the
+ * partial models are merged as the tasks join. As each partial model holds a
+ * table as large as the vocabulary, the number of slices is bounded by the
+ * parallelism rather than by the size of the corpus. All partial models share
+ * the dictionary of the corpus, so words are counted by id without being
+ * looked up again.
+ *
  * @author Donnabell Dmello <ddmello@usc.edu>
  * @author Venil Noronha <vnoronha@usc.edu>
  */
+@Slf4j
 @Component
 @Qualifier("NaiveBayes")
 public class NaiveBayesTrainerImpl implements Trainer<DataModel<ReviewType>> {
 
-	@Autowired
-	private ResourceLoader resourceLoader;
-
-	@Autowired
-	private DataConfig dataConfig;
+	/** The minimum number of documents of a slice. */
+	private static final int MINIMUM_DOCUMENTS_PER_SLICE = 256;
 
 	@Override
-	public DataModel<ReviewType> train() throws Exception {
-		DataModel<ReviewType> dataModel = new DataModel<>(ReviewType.class);
-		train(dataModel, ReviewType.POSITIVE,
-			FileUtils.loadFile(resourceLoader, dataConfig.getBaseDataDirectory() + dataConfig.getPositiveReviewsDirectory()));
-		train(dataModel, ReviewType.NEGATIVE,
-			FileUtils.loadFile(resourceLoader, dataConfig.getBaseDataDirectory() + dataConfig.getNegativeReviewsDirectory()));
-		return dataModel;
+	public DataModel<ReviewType> train(Corpus<ReviewType> corpus) throws Exception {
+		return train(corpus, Runtime.getRuntime().availableProcessors());
 	}
 
 	/**
-	 * Trains a given {@link DataModel} with the given class type, with the data
-	 * at the given directory.
+	 * Trains a model with the given number of workers.
 	 *
-	 * @param dataModel the {@link DataModel} to train
-	 * @param type the class type
-	 * @param directory the directory from which data is to be loaded
-	 * @throws IOException if data loading fails
+	 * @param corpus the corpus to train on
+	 * @param parallelism the number of workers
+	 * @return the trained model
 	 */
-	private void train(DataModel<ReviewType> dataModel, ReviewType type, File directory) throws IOException {
-		Files
-			.list(directory.toPath())
-			.map(FileUtils::readLines)
-			.map(lines -> lines.toString())
-			.map(lineStr -> lineStr.substring(1, lineStr.length() - 1).toLowerCase())
-			.map(lines -> lines.split(" "))
-			.forEach(words -> {
-				for (String word : words) {
-					dataModel.put(type, word);
+	DataModel<ReviewType> train(Corpus<ReviewType> corpus, int parallelism) {
+		long start = System.nanoTime();
+		int slices = Math.max(1, Math.min(parallelism, corpus.size() / MINIMUM_DOCUMENTS_PER_SLICE));
+		DataModel<ReviewType> dataModel;
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			dataModel = pool.invoke(new TrainingTask(corpus, 0, corpus.size(), slices));
+		}
+		finally {
+			pool.shutdown();
+		}
+		log.info("Trained Naive Bayes model on {} documents with {} distinct words in {} ms, footprint ~{} KB",
+				corpus.size(), dataModel.getDictionary().size(), (System.nanoTime() - start) / 1_000_000,
+				dataModel.footprint() / 1024);
+		return dataModel;
+	}
+
+	/**
+	 * {@link TrainingTask} trains a {@link DataModel} on a range of documents,
+	 * splitting the range into the given number of slices.
+	 */
+	private static final class TrainingTask extends RecursiveTask<DataModel<ReviewType>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Corpus<ReviewType> corpus;
+		private final int from;
+		private final int to;
+		private final int slices;
+
+		private TrainingTask(Corpus<ReviewType> corpus, int from, int to, int slices) {
+			this.corpus = corpus;
+			this.from = from;
+			this.to = to;
+			this.slices = slices;
+		}
+
+		@Override
+		protected DataModel<ReviewType> compute() {
+			if (slices == 1) {
+				DataModel<ReviewType> dataModel = new DataModel<>(ReviewType.class, corpus.getDictionary());
+				for (int i = from; i < to; i++) {
+					ReviewType type = corpus.label(i);
+					corpus.forEachToken(i, id -> dataModel.put(type, id));
 				}
-			});
+				return dataModel;
+			}
+			int leftSlices = slices / 2;
+			int middle = (int) (from + (long) (to - from) * leftSlices / slices);
+			TrainingTask left = new TrainingTask(corpus, from, middle, leftSlices);
+			left.fork();
+			DataModel<ReviewType> right = new TrainingTask(corpus, middle, to, slices - leftSlices).compute();
+			DataModel<ReviewType> dataModel = left.join();
+			dataModel.merge(right);
+			return dataModel;
+		}
+
 	}
 
 }
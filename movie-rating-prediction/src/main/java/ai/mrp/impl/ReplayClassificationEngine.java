@@ -0,0 +1,359 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import ai.mrp.config.ReplayConfig;
+import ai.mrp.inf.ClassificationEngine;
+import ai.mrp.model.PipelineStats;
+import ai.mrp.model.ReplayMode;
+import ai.mrp.model.ReplayReport;
+import ai.mrp.model.TagMatcher;
+import lombok.extern.slf4j.Slf4j;
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+/**
+ * Implementation of the {@link ClassificationEngine} which replays statuses
+ * recorded from the Twitter streaming API, so that the pipeline can be load
+ * tested without Twitter credentials or network access. It replaces the
+ * {@link StreamingTweetsClassificationEngine} with the {@code replay} profile.
+ *
+ * <p>The files configured in {@link ReplayConfig} hold one JSON status per
+ * line, as delivered by the streaming API. They are memory-mapped and read
+ * line by line, and each status is submitted to the same
+ * {@link ClassificationPipeline} as streamed statuses, at the configured
+ * rate. Retweets are skipped, as they are when streaming, and statuses are
+ * routed to the tracked tags they mention, if any.
+ *
+ * <p>The replay starts once the application is ready and the initialization
+ * of the models has completed, so that a run measures all classifiers from its
+ * first status. When it completes, and
+ * the pipeline has published every submitted status, the throughput and the
+ * latency percentiles of the run are logged, and remain available from
+ * {@link #getReport()}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+@Profile("replay")
+public class ReplayClassificationEngine implements ClassificationEngine {
+
+	/** The maximum number of bytes mapped at once. */
+	private static final long MAX_CHUNK = 256 * 1024 * 1024;
+
+	/** The key of the millisecond timestamp of a status in the streaming API. */
+	private static final String TIMESTAMP_KEY = "\"timestamp_ms\"";
+
+	@Autowired
+	private ReplayConfig replayConfig;
+
+	@Autowired
+	private ClassificationPipeline pipeline;
+
+	@Autowired
+	private ModelRegistry modelRegistry;
+
+	@Autowired
+	private ApplicationContext context;
+
+	/** The tags currently tracked. */
+	private final Set<String> tags = new TreeSet<>();
+
+	private volatile TagMatcher matcher = new TagMatcher(Collections.emptySet());
+
+	private Thread thread;
+
+	private final LongAdder read = new LongAdder();
+	private final LongAdder skipped = new LongAdder();
+
+	private volatile long startNanos;
+	private volatile long endNanos;
+	private volatile PipelineStats baseline;
+
+	/** The buffer holding the bytes of the current line. */
+	private byte[] line = new byte[8192];
+
+	/** The number of statuses submitted so far. */
+	private long submitted;
+
+	/** The time and recorded timestamp pacing is relative to, per file. */
+	private long originNanos;
+	private long originTimestamp;
+
+	/**
+	 * Starts replaying on a thread of its own once the application is ready.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void start() {
+		thread = new Thread(this::replay, "replay");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Routes statuses to the given tag only.
+	 *
+	 * @param tag the tag to track
+	 * @return the tags no longer tracked
+	 */
+	@Override
+	public synchronized Set<String> update(String tag) {
+		Set<String> dropped = new TreeSet<>(tags);
+		dropped.remove(tag);
+		tags.clear();
+		tags.add(tag);
+		matcher = new TagMatcher(tags);
+		return dropped;
+	}
+
+	@Override
+	public synchronized void track(String tag) {
+		if (tags.add(tag)) {
+			matcher = new TagMatcher(tags);
+		}
+	}
+
+	@Override
+	public synchronized void untrack(String tag) {
+		if (tags.remove(tag)) {
+			matcher = new TagMatcher(tags);
+		}
+	}
+
+	@Override
+	public synchronized Set<String> getTracked() {
+		return new TreeSet<>(tags);
+	}
+
+	/**
+	 * Stops replaying.
+	 */
+	@Override
+	public synchronized void stop() {
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	/**
+	 * Returns the report of the current run, which is final once completed.
+	 *
+	 * @return the replay report
+	 */
+	public ReplayReport getReport() {
+		PipelineStats start = baseline;
+		PipelineStats stats = pipeline.getStats();
+		boolean completed = endNanos != 0;
+		long elapsed = start == null ? 0 : (completed ? endNanos : System.nanoTime()) - startNanos;
+		double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+		long published = stats.getPublished() - (start == null ? 0 : start.getPublished());
+		return new ReplayReport(completed, replayConfig.getMode(), read.sum(), skipped.sum(), seconds,
+				seconds == 0 ? 0 : published / seconds, stats, pipeline.getLatencyReport());
+	}
+
+	/**
+	 * Waits for the models to be initialized, replays the configured files,
+	 * waits for the pipeline to publish all statuses, and reports on the run.
+	 */
+	private void replay() {
+		try {
+			modelRegistry.awaitInitialization();
+			baseline = pipeline.getStats();
+			startNanos = System.nanoTime();
+			log.info("Replaying {} {} time(s) in {} mode", replayConfig.getFiles(), replayConfig.getRepeat(),
+					replayConfig.getMode());
+			for (int round = 0; round < replayConfig.getRepeat(); round++) {
+				for (String file : replayConfig.getFiles()) {
+					replay(Paths.get(file));
+				}
+			}
+			while (!isDrained(pipeline.getStats())) {
+				Thread.sleep(10);
+			}
+		}
+		catch (InterruptedException e) {
+			log.info("Replay interrupted");
+			return;
+		}
+		catch (IOException e) {
+			log.error("Replay failed", e);
+			return;
+		}
+		endNanos = System.nanoTime();
+		log.info("Replay completed: {}", getReport());
+		if (replayConfig.isExitOnCompletion()) {
+			System.exit(SpringApplication.exit(context));
+		}
+	}
+
+	/**
+	 * Replays the given file, mapping it a chunk at a time. Chunks end at a line
+	 * break, so that lines never span two chunks.
+	 */
+	private void replay(Path path) throws IOException, InterruptedException {
+		originNanos = System.nanoTime();
+		originTimestamp = -1;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long position = 0; position < size; ) {
+				long length = Math.min(size - position, MAX_CHUNK);
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int end = (int) length;
+				if (position + length < size) {
+					while (end > 0 && chunk.get(end - 1) != '\n') {
+						end--;
+					}
+					if (end == 0) {
+						throw new IOException("Line longer than " + MAX_CHUNK + " bytes at " + position + " in " + path);
+					}
+				}
+				int lineStart = 0;
+				for (int i = 0; i < end; i++) {
+					if (chunk.get(i) == '\n') {
+						replay(chunk, lineStart, i);
+						lineStart = i + 1;
+					}
+				}
+				if (lineStart < end) {
+					replay(chunk, lineStart, end);
+				}
+				position += end;
+			}
+		}
+	}
+
+	/**
+	 * Parses the status held by the given range of bytes and submits it once
+	 * it is due.
+	 */
+	private void replay(MappedByteBuffer chunk, int start, int end) throws InterruptedException {
+		if (end > start && chunk.get(end - 1) == '\r') {
+			end--;
+		}
+		int length = end - start;
+		if (length == 0) {
+			return;
+		}
+		if (length > line.length) {
+			line = Arrays.copyOf(line, Integer.highestOneBit(length) * 2);
+		}
+		for (int i = 0; i < length; i++) {
+			line[i] = chunk.get(start + i);
+		}
+		String json = new String(line, 0, length, StandardCharsets.UTF_8);
+		Status status;
+		try {
+			status = TwitterObjectFactory.createStatus(json);
+		}
+		catch (TwitterException e) {
+			skipped.increment();
+			return;
+		}
+		read.increment();
+		if (status.isRetweet() || status.getText() == null) {
+			skipped.increment();
+			return;
+		}
+		pace(json, status);
+		pipeline.submit(status, matcher.match(status.getText()));
+		submitted++;
+	}
+
+	/**
+	 * Waits until the next status is due in the configured mode.
+	 */
+	private void pace(String json, Status status) throws InterruptedException {
+		long due;
+		switch (replayConfig.getMode()) {
+		case FIXED:
+			due = startNanos + (long) (submitted * TimeUnit.SECONDS.toNanos(1) / replayConfig.getRate());
+			break;
+		case RECORDED:
+			long timestamp = timestamp(json, status);
+			if (originTimestamp < 0) {
+				originTimestamp = timestamp;
+			}
+			due = originNanos + (long) (TimeUnit.MILLISECONDS.toNanos(timestamp - originTimestamp)
+					/ replayConfig.getSpeedup());
+			break;
+		default:
+			return;
+		}
+		long delay = due - System.nanoTime();
+		if (delay > 0) {
+			TimeUnit.NANOSECONDS.sleep(delay);
+		}
+	}
+
+	/**
+	 * Returns the time in milliseconds at which the given status was recorded,
+	 * preferring the millisecond timestamp of the streaming API over the
+	 * creation date, which only has a resolution of seconds.
+	 */
+	private static long timestamp(String json, Status status) {
+		int index = json.indexOf(TIMESTAMP_KEY);
+		if (index >= 0) {
+			long timestamp = 0;
+			int digits = 0;
+			for (int i = index + TIMESTAMP_KEY.length(); i < json.length(); i++) {
+				char c = json.charAt(i);
+				if (c >= '0' && c <= '9') {
+					timestamp = timestamp * 10 + (c - '0');
+					digits++;
+				}
+				else if (digits > 0 || !(c == ':' || c == '"' || Character.isWhitespace(c))) {
+					break;
+				}
+			}
+			if (digits > 0) {
+				return timestamp;
+			}
+		}
+		return status.getCreatedAt() == null ? 0 : status.getCreatedAt().getTime();
+	}
+
+	private boolean isDrained(PipelineStats stats) {
+		return stats.getQueueDepth() == 0
+				&& stats.getPublished() + stats.getDropped() + stats.getFailed() >= stats.getReceived();
+	}
+
+}
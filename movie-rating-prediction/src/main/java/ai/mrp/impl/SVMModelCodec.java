@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+import ai.mrp.inf.SnapshotCodec;
+import ai.mrp.model.SVMModel;
+import ai.mrp.util.ByteBufferInputStream;
+
+/**
+ * {@link SVMModelCodec} stores an {@link SVMModel} using Java serialization,
+ * which Weka classifiers and filters support. This covers the LibSVM model as
+ * well as the dictionary of the {@code StringToWordVector} filter.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class SVMModelCodec implements SnapshotCodec<SVMModel> {
+
+	@Override
+	public void write(SVMModel model, DataOutputStream out) throws IOException {
+		ObjectOutputStream objectOut = new ObjectOutputStream(out);
+		objectOut.writeObject(model);
+		objectOut.flush();
+	}
+
+	@Override
+	public SVMModel read(ByteBuffer payload) throws IOException {
+		try (ObjectInputStream objectIn = new ObjectInputStream(new ByteBufferInputStream(payload))) {
+			return (SVMModel) objectIn.readObject();
+		}
+		catch (ClassNotFoundException e) {
+			throw new IOException("Incompatible SVM snapshot", e);
+		}
+	}
+
+}
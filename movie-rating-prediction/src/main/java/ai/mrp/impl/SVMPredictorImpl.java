@@ -16,135 +16,523 @@
 
 package ai.mrp.impl;
 
-import org.springframework.beans.factory.InitializingBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import ai.mrp.config.DataConfig;
+import ai.mrp.config.ModelConfig;
+import ai.mrp.config.SVMConfig;
 import ai.mrp.inf.Predictor;
+import ai.mrp.inf.Reloadable;
 import ai.mrp.inf.Trainer;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.HashingSVMClassifier;
+import ai.mrp.model.LinearSVMModel;
 import ai.mrp.model.ReviewType;
-import ai.mrp.util.FileUtils;
-import ai.mrp.util.ProfileUtils;
+import ai.mrp.model.SVMModel;
+import ai.mrp.model.StopWordList;
+import ai.mrp.model.Vectorizer;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import weka.classifiers.Classifier;
+import weka.classifiers.AbstractClassifier;
 import weka.classifiers.functions.LibSVM;
 import weka.classifiers.meta.FilteredClassifier;
 import weka.core.DenseInstance;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.SelectedTag;
-import weka.core.stopwords.WordsFromFile;
+import weka.core.Utils;
 import weka.core.tokenizers.NGramTokenizer;
 import weka.core.tokenizers.Tokenizer;
+import weka.filters.Filter;
 import weka.filters.unsupervised.attribute.StringToWordVector;
 
 /**
+ * An implementation of the SVM classification algorithm.
+ *
+ * <p>The first classifier is loaded or trained in the background by the
+ * {@link ModelRegistry}. Until then, the predictor is not ready and predicting
+ * fails with an {@link IllegalStateException}.
+ *
  * @author Donnabell Dmello <ddmello@usc.edu>
  * @author Venil Noronha <vnoronha@usc.edu>
  */
 @Slf4j
 @Component
 @Qualifier("SVM")
-public class SVMPredictorImpl implements Predictor<ReviewType>, InitializingBean {
+public class SVMPredictorImpl implements Predictor<ReviewType>, Reloadable {
 
 	@Autowired
 	@Qualifier("SVM")
 	private Trainer<Instances> svmTrainer;
 
 	@Autowired
-	private ResourceLoader resourceLoader;
+	private DataConfig dataConfig;
 
 	@Autowired
-	private DataConfig dataConfig;
+	private SVMConfig svmConfig;
+
+	@Autowired
+	private ModelConfig modelConfig;
+
+	@Autowired
+	private CorpusLoader corpusLoader;
+
+	@Autowired
+	private CorpusReader corpusReader;
+
+	@Autowired
+	private SnapshotStore snapshotStore;
+
+	/** The snapshot name of the trained classifier. */
+	private static final String SNAPSHOT = "svm";
 
-	private Instances trainingData;
+	/** The snapshot name of the trained hashing classifier. */
+	private static final String HASHING_SNAPSHOT = "svm-hashing";
 
-	private Classifier classifier;
+	/** The snapshot name of the compiled classifier read in place. */
+	private static final String MAPPED_SNAPSHOT = "svm-mapped";
 
 	/**
-	 * Loads the training data as configured in {@link #dataConfig} and trains a
-	 * 3-gram SVM classifier.
+	 * The training settings, which invalidate snapshots when changed. The version
+	 * is to be bumped whenever {@link SVMTrainerImpl} changes the training text.
 	 */
+	private static final String SETTINGS = "text=lower-case-tokens-joined-by-space;version=2";
+
+	private final AtomicReference<Generation> generation = new AtomicReference<>();
+
+	/**
+	 * Loads or retrains a new classifier and warms it up, leaving the current
+	 * classifier in use until the returned action is run.
+	 */
+	@Override
+	public Runnable prepare(boolean retrain, List<String> warmUpTexts) throws Exception {
+		Generation newGeneration = load(retrain);
+		newGeneration.predictBatch(warmUpTexts);
+		return () -> this.generation.set(newGeneration);
+	}
+
 	@Override
-	public void afterPropertiesSet() throws Exception {
-		this.trainingData = svmTrainer.train();
-		StringToWordVector stwvFilter = createFilter(this.trainingData);
-		// Instances filterdInstances = Filter.useFilter(data, stwv);
+	public ClassifierType getClassifierType() {
+		return ClassifierType.SVM;
+	}
+
+	@Override
+	public boolean isReady() {
+		return generation.get() != null;
+	}
+
+	/**
+	 * Loads the 3-gram SVM classifier of the configured vectorizer from its
+	 * snapshot. If there is no up-to-date snapshot or retraining is asked for,
+	 * loads the training data as configured in {@link #dataConfig} and trains
+	 * the classifier.
+	 *
+	 * <p>If the classifier is to be compiled and mapped models are enabled in
+	 * {@link ModelConfig}, the compiled model is read in place from a
+	 * memory-mapped snapshot of its own, which processes on the same host share,
+	 * and the Weka classifier is only loaded to create that snapshot. Hashing
+	 * classifiers are always held on the heap, as their size does not grow with
+	 * the vocabulary.
+	 *
+	 * @param retrain whether to train the classifier even if there is a snapshot
+	 * @return the classifier, compiled if so configured
+	 * @throws Exception if training fails
+	 */
+	private Generation load(boolean retrain) throws Exception {
+		String snapshot = svmConfig.getVectorizer() == Vectorizer.HASHING ? HASHING_SNAPSHOT : SNAPSHOT;
+		List<String> stopWords = readStopWords();
+		String settings = settings(createClassifier(stopWords), stopWords);
+		boolean mapped = modelConfig.isMapped() && svmConfig.isCompiled()
+				&& svmConfig.getVectorizer() == Vectorizer.DICTIONARY;
+		LinearSVMModelCodec mappedCodec = new LinearSVMModelCodec();
+		if (mapped && !retrain) {
+			LinearSVMModel linearModel = snapshotStore.load(MAPPED_SNAPSHOT, settings, mappedCodec);
+			if (linearModel != null) {
+				return generation(linearModel);
+			}
+		}
+
+		SVMModelCodec codec = new SVMModelCodec();
+		SVMModel model = retrain ? null : snapshotStore.load(snapshot, settings, codec);
+		if (model == null) {
+			model = train(corpusLoader.load());
+			snapshotStore.save(snapshot, settings, model, codec);
+		}
+		if (mapped) {
+			try {
+				LinearSVMModel linearModel = LinearSVMModel.of((FilteredClassifier) model.getClassifier(),
+						model.getHeader());
+				return generation(snapshotStore.saveAndLoad(MAPPED_SNAPSHOT, settings, linearModel, mappedCodec));
+			}
+			catch (IllegalArgumentException e) {
+				log.warn("Could not compile SVM classifier, predicting through Weka instead", e);
+			}
+		}
+		return generation(model);
+	}
+
+	/**
+	 * Trains a new classifier on the given corpus, independently of the one in
+	 * use. Snapshots are neither read nor written.
+	 *
+	 * @param corpus the training corpus
+	 * @return the trained model
+	 * @throws Exception if training fails
+	 */
+	public SVMModel train(Corpus<ReviewType> corpus) throws Exception {
+		AbstractClassifier classifier = createClassifier(readStopWords());
+		Instances trainingData = svmTrainer.train(corpus);
+		classifier.buildClassifier(trainingData);
+		return new SVMModel(classifier, trainingData.stringFreeStructure());
+	}
+
+	/**
+	 * Creates a predictor for the given model, configured like this predictor
+	 * but independent of the model in use.
+	 *
+	 * @param model the trained model
+	 * @return the predictor
+	 */
+	public Predictor<ReviewType> predictor(SVMModel model) {
+		return generation(model);
+	}
 
+	/**
+	 * Wraps the given model into a generation, compiling it if so configured.
+	 * Hashing classifiers predict directly, as they need no compiling.
+	 */
+	private Generation generation(SVMModel model) {
+		Instances header = model.getHeader();
+		if (model.getClassifier() instanceof HashingSVMClassifier) {
+			HashingSVMClassifier hashingClassifier = (HashingSVMClassifier) model.getClassifier();
+			log.info("Using hashing SVM classifier over {} features", hashingClassifier.dimension());
+			return new Generation(header, null, hashingClassifier::classify, types(header), 0);
+		}
+		FilteredClassifier classifier = (FilteredClassifier) model.getClassifier();
+		ToIntFunction<String> compiledModel = null;
+		if (svmConfig.isCompiled()) {
+			try {
+				LinearSVMModel linearModel = LinearSVMModel.of(classifier, header);
+				log.info("Compiled SVM classifier into a linear model over {} terms",
+						linearModel.vocabularySize());
+				compiledModel = linearModel::classify;
+			}
+			catch (IllegalArgumentException e) {
+				log.warn("Could not compile SVM classifier, predicting through Weka instead", e);
+			}
+		}
+		return new Generation(header, classifier, compiledModel, types(header), svmConfig.getMaximumReplicas());
+	}
+
+	/**
+	 * Wraps the given compiled model into a generation which predicts with it
+	 * alone, without the Weka classifier to fall back on.
+	 */
+	private Generation generation(LinearSVMModel linearModel) {
+		log.info("Using compiled SVM classifier over {} terms", linearModel.vocabularySize());
+		ReviewType[] types = new ReviewType[linearModel.numClasses()];
+		for (int c = 0; c < types.length; c++) {
+			types[c] = ReviewType.valueOf(linearModel.className(c));
+		}
+		return new Generation(null, null, linearModel::classify, types, 0);
+	}
+
+	/**
+	 * Maps the class indexes of the given header to review types.
+	 */
+	private static ReviewType[] types(Instances header) {
+		ReviewType[] types = new ReviewType[header.numClasses()];
+		for (int c = 0; c < types.length; c++) {
+			types[c] = ReviewType.valueOf(header.classAttribute().value(c));
+		}
+		return types;
+	}
+
+	/**
+	 * Describes the settings of the given classifier for snapshot fingerprints,
+	 * out of {@link #SETTINGS}, the options of the classifier and the stop words.
+	 */
+	private static String settings(AbstractClassifier classifier, List<String> stopWords) {
+		return SETTINGS + ";options=" + Utils.joinOptions(classifier.getOptions())
+				+ ";stop-words=" + String.join(" ", stopWords);
+	}
+
+	/**
+	 * Creates an untrained SVM classifier for the configured vectorizer.
+	 *
+	 * @param stopWords the stop words to skip
+	 * @return the classifier
+	 * @throws Exception if classifier creation fails
+	 */
+	private AbstractClassifier createClassifier(List<String> stopWords) throws Exception {
+		if (svmConfig.getVectorizer() == Vectorizer.HASHING) {
+			return createHashingClassifier(stopWords);
+		}
+		return createFilteredClassifier(stopWords);
+	}
+
+	/**
+	 * Reads the stop words through the {@link CorpusReader}, so that they are
+	 * found wherever the training corpus is, including inside the packaged jar.
+	 *
+	 * @return the lower-cased stop words
+	 * @throws Exception if the stop words cannot be read
+	 */
+	private List<String> readStopWords() throws Exception {
+		List<String> stopWords = new ArrayList<>();
+		for (Resource document : corpusReader.list(dataConfig.getStopWordsDirectory())) {
+			corpusReader.tokenize(document, (chars, start, end) -> stopWords.add(new String(chars, start, end - start)));
+		}
+		return stopWords;
+	}
+
+	/**
+	 * Creates an untrained SVM classifier which hashes the n-grams of its input
+	 * into the configured number of features.
+	 *
+	 * @param stopWords the stop words to skip
+	 * @return the classifier
+	 */
+	private HashingSVMClassifier createHashingClassifier(List<String> stopWords) {
+		HashingSVMClassifier classifier = new HashingSVMClassifier();
+		classifier.setHashBits(svmConfig.getHashBits());
+		classifier.setStopWords(stopWords);
+		return classifier;
+	}
+
+	/**
+	 * Creates an untrained SVM classifier which vectorizes its input with the
+	 * filter from {@link #createFilter(List)}.
+	 *
+	 * @param stopWords the stop words to skip
+	 * @return the classifier
+	 * @throws Exception if classifier creation fails
+	 */
+	private FilteredClassifier createFilteredClassifier(List<String> stopWords) throws Exception {
 		LibSVM svm = new LibSVM();
 		svm.setKernelType(new SelectedTag(0, LibSVM.TAGS_KERNELTYPE));
 		svm.setSVMType(new SelectedTag(0, LibSVM.TAGS_SVMTYPE));
 		svm.setProbabilityEstimates(true);
-		// svm.buildClassifier(filterdInstances);
 
 		FilteredClassifier filteredClassifier = new FilteredClassifier();
-		filteredClassifier.setFilter(stwvFilter);
+		filteredClassifier.setFilter(createFilter(stopWords));
 		filteredClassifier.setClassifier(svm);
-		filteredClassifier.buildClassifier(this.trainingData);
-		this.classifier = filteredClassifier;
-
-		// predict("nice cool amazing awesome beautiful");
-		// predict("this movie is simply awesome");
-		// predict("its very bad");
-		// predict("Not that great");
+		return filteredClassifier;
 	}
 
 	/**
 	 * Creates a {@link StringToWordVector} filter with a 3-gram {@link Tokenizer}
 	 * and stop word handling.
 	 *
-	 * @param instances the model which is to be filtered
+	 * @param stopWords the stop words to skip
 	 * @return the filter
-	 * @throws Exception if filter creation fails
 	 */
-	private StringToWordVector createFilter(Instances instances) throws Exception {
+	private StringToWordVector createFilter(List<String> stopWords) {
 		NGramTokenizer tokenizer = new NGramTokenizer();
 		tokenizer.setNGramMaxSize(3);
 
-		WordsFromFile stopwordsHandler = new WordsFromFile();
-		stopwordsHandler.setStopwords(FileUtils.loadFile(resourceLoader,
-				dataConfig.getBaseDataDirectory() + dataConfig.getStopWordsDirectory()));
-
 		StringToWordVector stwv = new StringToWordVector();
 		stwv.setTokenizer(tokenizer);
 		stwv.setTFTransform(true);
 		stwv.setIDFTransform(true);
-		stwv.setStopwordsHandler(stopwordsHandler);
+		stwv.setStopwordsHandler(new StopWordList(stopWords));
 		stwv.setLowerCaseTokens(true);
-		stwv.setInputFormat(instances);
 		return stwv;
 	}
 
-	@SneakyThrows
 	@Override
 	public ReviewType predict(String sentence) {
-		return ProfileUtils.profileExecution(() -> {
-			Instance newInstance = new DenseInstance(2);
-			newInstance.setDataset(this.trainingData);
-			newInstance.setValue(0, sentence.toLowerCase());
-			newInstance.setClassValue(1);
-			double result = this.classifier.classifyInstance(newInstance);
-			String typeStr = this.trainingData.classAttribute().value((int) result);
-			ReviewType predictedType = ReviewType.valueOf(typeStr);
-			log.debug("Sentence: {}, predictedType: {}", sentence, predictedType);
-			return predictedType;
-		});
-
-		// StopWatch sw = new StopWatch();
-		// sw.start();
-		// Instances clone = new Instances(data);
-		// Instance testInstance = createInstance(clone, createClasses(), ReviewType.POSITIVE,
-		//     "nice cool amazing awesome beautiful");
-		// clone.add(testInstance);
-		// Instances filterdTestInstances = Filter.useFilter(clone, stwv);
-		// double result = svm.classifyInstance(filterdTestInstances.lastInstance());
-		// System.out.println("\n\n\n" + filterdTestInstances.classAttribute().value((int) result) + "\n\n\n");
-		// sw.stop();
-		// System.out.println(sw.prettyPrint());
+		return generation().predict(sentence);
+	}
+
+	@Override
+	public List<ReviewType> predictBatch(List<String> sentences) {
+		return generation().predictBatch(sentences);
+	}
+
+	/**
+	 * Returns the generation in use.
+	 *
+	 * @throws IllegalStateException if the first classifier has not been loaded yet
+	 */
+	private Generation generation() {
+		Generation generation = this.generation.get();
+		if (generation == null) {
+			throw new IllegalStateException("The SVM classifier is not ready yet");
+		}
+		return generation;
+	}
+
+	/**
+	 * {@link Generation} is a trained classifier along with the means to predict
+	 * with it. A generation is never modified once in use, so it is replaced as a
+	 * whole when the classifier is reloaded.
+	 */
+	private static final class Generation implements Predictor<ReviewType> {
+
+		/** The header of the training data, or {@code null} if there is no Weka classifier. */
+		private final Instances header;
+
+		private final FilteredClassifier classifier;
+
+		/** The idle replicas of {@link #classifier}, which is itself never used to predict. */
+		private final Queue<Replica> replicas = new ConcurrentLinkedQueue<>();
+
+		/** The permits to borrow a replica, which bound the number of replicas. */
+		private final Semaphore permits;
+
+		/**
+		 * The compiled model, mapping lower-cased sentences to class indexes, or
+		 * {@code null} to predict through Weka.
+		 */
+		private final ToIntFunction<String> compiledModel;
+
+		/** The review types indexed by class index. */
+		private final ReviewType[] types;
+
+		private Generation(Instances header, FilteredClassifier classifier, ToIntFunction<String> compiledModel,
+				ReviewType[] types, int maximumReplicas) {
+			this.header = header;
+			this.classifier = classifier;
+			this.compiledModel = compiledModel;
+			this.types = types;
+			this.permits = new Semaphore(Math.max(1, maximumReplicas));
+		}
+
+		/**
+		 * Classifies the sentence with the compiled model if there is one, or else
+		 * with a {@link Replica} of the trained classifier borrowed from the pool.
+		 */
+		@Override
+		@SneakyThrows
+		public ReviewType predict(String sentence) {
+			if (this.compiledModel != null) {
+				int result = this.compiledModel.applyAsInt(sentence.toLowerCase());
+				ReviewType predictedType = this.types[result];
+				log.debug("Sentence: {}, predictedType: {}", sentence, predictedType);
+				return predictedType;
+			}
+			Replica replica = borrow();
+			try {
+				// Replaces rather than appends the string, so the header holds just one
+				replica.header.attribute(0).setStringValue(sentence.toLowerCase());
+				double result = replica.classifier.classifyInstance(replica.instance);
+				ReviewType predictedType = this.types[(int) result];
+				log.debug("Sentence: {}, predictedType: {}", sentence, predictedType);
+				return predictedType;
+			}
+			finally {
+				release(replica);
+			}
+		}
+
+		/**
+		 * Classifies the sentences with the compiled model if there is one. If
+		 * not, vectorizes all sentences in a single pass of the filter of a
+		 * borrowed {@link Replica} and then classifies the vectors with its bare
+		 * SVM. The sentences are added to a string-free copy of the header, so the
+		 * strings of a batch are released with it.
+		 */
+		@Override
+		@SneakyThrows
+		public List<ReviewType> predictBatch(List<String> sentences) {
+			if (this.compiledModel != null) {
+				List<ReviewType> predictedTypes = new ArrayList<>(sentences.size());
+				for (String sentence : sentences) {
+					int result = this.compiledModel.applyAsInt(sentence.toLowerCase());
+					predictedTypes.add(this.types[result]);
+				}
+				return predictedTypes;
+			}
+			Instances batch = this.header.stringFreeStructure();
+			for (String sentence : sentences) {
+				double[] values = new double[2];
+				values[0] = batch.attribute(0).addStringValue(sentence.toLowerCase());
+				values[1] = 1;
+				batch.add(new DenseInstance(1, values));
+			}
+			List<ReviewType> predictedTypes = new ArrayList<>(sentences.size());
+			Replica replica = borrow();
+			try {
+				Instances vectors = Filter.useFilter(batch, replica.classifier.getFilter());
+				for (int i = 0; i < vectors.numInstances(); i++) {
+					double result = replica.classifier.getClassifier().classifyInstance(vectors.instance(i));
+					predictedTypes.add(this.types[(int) result]);
+				}
+			}
+			finally {
+				release(replica);
+			}
+			log.debug("Predicted {} sentences", sentences.size());
+			return predictedTypes;
+		}
+
+		/**
+		 * Takes an idle replica from the pool, or creates one if all replicas are
+		 * in use. Once the configured maximum of replicas is in use, waits for one
+		 * to be released, so the pool grows to at most that maximum.
+		 */
+		private Replica borrow() throws Exception {
+			this.permits.acquire();
+			try {
+				Replica replica = this.replicas.poll();
+				if (replica == null) {
+					replica = new Replica(this.classifier, this.header);
+					log.debug("Created SVM classifier replica");
+				}
+				return replica;
+			}
+			catch (Exception e) {
+				this.permits.release();
+				throw e;
+			}
+		}
+
+		private void release(Replica replica) {
+			this.replicas.offer(replica);
+			this.permits.release();
+		}
+
+	}
+
+	/**
+	 * {@link Replica} is a private copy of the trained classifier for use by one
+	 * thread at a time. The filters of a {@link FilteredClassifier} keep state
+	 * between input and output, and Weka appends every classified string to the
+	 * string attribute of the instance's header, so neither the classifier nor
+	 * the header can be shared between concurrent predictions.
+	 */
+	private static final class Replica {
+
+		private final FilteredClassifier classifier;
+
+		/** A string-free copy of the training header, holding the current sentence. */
+		private final Instances header;
+
+		/** The reusable instance referring to the current sentence. */
+		private final Instance instance;
+
+		private Replica(FilteredClassifier classifier, Instances header) throws Exception {
+			this.classifier = (FilteredClassifier) AbstractClassifier.makeCopy(classifier);
+			this.header = header.stringFreeStructure();
+			this.instance = new DenseInstance(2);
+			this.instance.setDataset(this.header);
+			this.instance.setValue(0, 0);
+			this.instance.setClassValue(1);
+		}
+
 	}
 
 }
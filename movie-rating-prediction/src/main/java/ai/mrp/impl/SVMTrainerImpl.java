@@ -16,20 +16,14 @@
 
 package ai.mrp.impl;
 
-import java.io.File;
-import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
-import ai.mrp.config.DataConfig;
 import ai.mrp.inf.Trainer;
+import ai.mrp.model.Corpus;
 import ai.mrp.model.ReviewType;
-import ai.mrp.util.FileUtils;
 import weka.core.Attribute;
 import weka.core.DenseInstance;
 import weka.core.Instances;
@@ -53,50 +47,31 @@ public class SVMTrainerImpl implements Trainer<Instances> {
 		CLASSES.add(ReviewType.NEGATIVE.name());
 	}
 
-	@Autowired
-	private ResourceLoader resourceLoader;
-
-	@Autowired
-	private DataConfig dataConfig;
-
-	@Override
-	public Instances train() throws Exception {
-		Instances instances = createInstances();
-		loadData(instances, FileUtils.loadFile(resourceLoader,
-			dataConfig.getBaseDataDirectory() + dataConfig.getPositiveReviewsDirectory()), ReviewType.POSITIVE);
-		loadData(instances, FileUtils.loadFile(resourceLoader,
-			dataConfig.getBaseDataDirectory() + dataConfig.getNegativeReviewsDirectory()), ReviewType.NEGATIVE);
-		return instances;
-	}
-
 	/**
-	 * Loads the training data into the model.
-	 *
-	 * @param instances the model into which the training data is to be loaded
-	 * @param dir the directory from which the training data is to be loaded
-	 * @param reviewType the class type of the training data to be loaded
-	 * @throws IOException if loading fails
+	 * Creates one instance per corpus document, holding the normalized text of
+	 * the document. Changes to the text are to be matched by a new settings
+	 * version in {@link SVMPredictorImpl}, so that stale snapshots are retrained.
 	 */
-	private void loadData(Instances instances, File dir, ReviewType reviewType) throws IOException {
-		Files
-		.list(dir.toPath())
-		.map(FileUtils::readLines)
-		.map(lines -> lines.toString())
-		.map(linesStr -> linesStr.substring(1, linesStr.length() - 1).toLowerCase())
-		.map(text -> createInstance(instances, reviewType, text))
-		.forEach(instances::add);
+	@Override
+	public Instances train(Corpus<ReviewType> corpus) throws Exception {
+		Instances instances = createInstances(corpus.size());
+		for (int i = 0; i < corpus.size(); i++) {
+			instances.add(createInstance(instances, corpus.label(i), corpus.text(i)));
+		}
+		return instances;
 	}
 
 	/**
 	 * Creates a basic model.
 	 *
+	 * @param capacity the expected number of instances
 	 * @return the model
 	 */
-	private Instances createInstances() {
+	private Instances createInstances(int capacity) {
 		ArrayList<Attribute> attributes = new ArrayList<>();
 		attributes.add(new Attribute("text", (ArrayList<String>) null));
 		attributes.add(new Attribute("@@class@@", CLASSES));
-		Instances instances = new Instances("instances", attributes, 0);
+		Instances instances = new Instances("instances", attributes, capacity);
 		instances.setClassIndex(instances.numAttributes() - 1);
 		return instances;
 	}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import ai.mrp.config.StreamConfig;
+import ai.mrp.model.ClassifierRating;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.MovieRating;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.RollingSentiment;
+import ai.mrp.model.SentimentCounts;
+import ai.mrp.model.Window;
+
+/**
+ * {@link SentimentAggregator} keeps the sentiment of the published statuses of
+ * each movie over the last minute, hour and day, so that the predicted rating
+ * of a movie can be queried without replaying the stream.
+ *
+ * <p>Statuses are counted in a {@link RollingSentiment} per movie tag, which
+ * makes both recording and querying constant time.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Component
+public class SentimentAggregator {
+
+	@Autowired
+	private StreamConfig streamConfig;
+
+	private final Map<String, RollingSentiment> movies = new ConcurrentHashMap<>();
+
+	/**
+	 * Records the sentiment predicted for a status about the given movie.
+	 *
+	 * @param tag the tag of the movie
+	 * @param sentiment the predicted class of each classifier
+	 */
+	public void record(String tag, Map<ClassifierType, ReviewType> sentiment) {
+		long now = System.currentTimeMillis();
+		movies.computeIfAbsent(tag, key -> new RollingSentiment(now)).record(sentiment, now);
+	}
+
+	/**
+	 * Forgets the sentiment recorded for the given movie.
+	 *
+	 * @param tag the tag of the movie
+	 */
+	public void remove(String tag) {
+		movies.remove(tag);
+	}
+
+	/**
+	 * Returns the rating of the given movie predicted by each published
+	 * classifier, from the statuses of the last day, along with its trend.
+	 *
+	 * @param tag the tag of the movie
+	 * @return the predicted rating
+	 */
+	public MovieRating getRating(String tag) {
+		long now = System.currentTimeMillis();
+		RollingSentiment sentiment = movies.get(tag);
+		Map<ClassifierType, ClassifierRating> classifiers = new EnumMap<>(ClassifierType.class);
+		for (String name : streamConfig.getClassifiers()) {
+			ClassifierType type = ClassifierType.valueOf(name);
+			Map<Window, SentimentCounts> windows = new EnumMap<>(Window.class);
+			for (Window window : Window.values()) {
+				long[] counts = sentiment == null ? new long[ReviewType.values().length]
+						: sentiment.counts(window, type, now);
+				long positive = counts[ReviewType.POSITIVE.ordinal()];
+				long negative = counts[ReviewType.NEGATIVE.ordinal()];
+				windows.put(window, new SentimentCounts(positive, negative, rating(positive, negative)));
+			}
+			Double rating = windows.get(Window.DAY).getRating();
+			Double hourly = windows.get(Window.HOUR).getRating();
+			Double trend = rating == null || hourly == null ? null : hourly - rating;
+			classifiers.put(type, new ClassifierRating(rating, trend, windows));
+		}
+		return new MovieRating(tag, classifiers);
+	}
+
+	private static Double rating(long positive, long negative) {
+		long total = positive + negative;
+		return total == 0 ? null : 10.0 * positive / total;
+	}
+
+}
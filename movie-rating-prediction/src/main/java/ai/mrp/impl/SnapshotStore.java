@@ -0,0 +1,247 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import ai.mrp.config.DataConfig;
+import ai.mrp.inf.SnapshotCodec;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link SnapshotStore} persists trained models as versioned binary snapshots,
+ * so that they do not have to be retrained each time the application starts.
+ *
+ * <p>A snapshot consists of a header followed by the payload written by a
+ * {@link SnapshotCodec}. The header carries a format version and a fingerprint
+ * of the training corpus, the {@link DataConfig} settings and the model
+ * settings. A snapshot whose header does not match is considered stale and is
+ * ignored. Snapshots are read through memory-mapped I/O.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+public class SnapshotStore {
+
+	/** The magic number identifying snapshot files, "MRPS". */
+	private static final int MAGIC = 0x4D525053;
+
+	/** The version of the snapshot format, to be bumped on incompatible changes. */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String SUFFIX = ".snapshot";
+
+	@Autowired
+	private CorpusReader corpusReader;
+
+	@Autowired
+	private DataConfig dataConfig;
+
+	private byte[] corpusDigest;
+
+	/**
+	 * Loads the snapshot with the given name.
+	 *
+	 * @param name the name of the snapshot
+	 * @param settings the settings of the model, which are part of the fingerprint
+	 * @param codec the codec to read the payload with
+	 * @return the model, or {@code null} if snapshots are disabled or the snapshot
+	 *         is missing, stale or unreadable
+	 */
+	public <T> T load(String name, String settings, SnapshotCodec<T> codec) {
+		if (!isEnabled()) {
+			return null;
+		}
+		Path path = path(name);
+		if (!Files.isRegularFile(path)) {
+			log.info("No snapshot found for {} at {}", name, path);
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+				log.info("Ignoring snapshot {} with an unsupported format", path);
+				return null;
+			}
+			byte[] storedFingerprint = new byte[buffer.getInt()];
+			buffer.get(storedFingerprint);
+			if (!Arrays.equals(storedFingerprint, fingerprint(name, settings))) {
+				log.info("Ignoring stale snapshot {}", path);
+				return null;
+			}
+			long payloadLength = buffer.getLong();
+			if (payloadLength != buffer.remaining()) {
+				log.warn("Ignoring truncated snapshot {}", path);
+				return null;
+			}
+			T model = codec.read(buffer.slice());
+			log.info("Loaded {} snapshot from {}", name, path);
+			return model;
+		}
+		catch (Exception e) {
+			log.warn("Could not load snapshot " + path, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Saves a snapshot of the given model. The payload is streamed to a
+	 * temporary file, which then replaces the snapshot by an atomic move, so the
+	 * model is never copied to the heap. Failures are logged and otherwise
+	 * ignored, as a missing snapshot only means that the model is retrained.
+	 *
+	 * @param name the name of the snapshot
+	 * @param settings the settings of the model, which are part of the fingerprint
+	 * @param model the model to save
+	 * @param codec the codec to write the payload with
+	 */
+	public <T> void save(String name, String settings, T model, SnapshotCodec<T> codec) {
+		if (!isEnabled()) {
+			return;
+		}
+		Path path = path(name);
+		Path tempPath = null;
+		try {
+			byte[] fingerprint = fingerprint(name, settings);
+			Files.createDirectories(path.getParent());
+			tempPath = Files.createTempFile(path.getParent(), name, SUFFIX);
+			try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeInt(fingerprint.length);
+				out.write(fingerprint);
+				long lengthPosition = out.size();
+				out.writeLong(0);
+				codec.write(model, out);
+				out.flush();
+
+				// the payload is streamed to the file, so its length is only known now
+				ByteBuffer length = ByteBuffer.allocate(8);
+				length.putLong(0, channel.size() - lengthPosition - 8);
+				while (length.hasRemaining()) {
+					channel.write(length, lengthPosition + length.position());
+				}
+			}
+			Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Saved {} snapshot to {}", name, path);
+		}
+		catch (Exception e) {
+			log.warn("Could not save snapshot " + path, e);
+			if (tempPath != null) {
+				try {
+					Files.deleteIfExists(tempPath);
+				}
+				catch (IOException deleteFailure) {
+					log.debug("Could not delete " + tempPath, deleteFailure);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves a snapshot of the given model and loads it back, so that the model
+	 * in use is read from the snapshot, typically in place. Other processes
+	 * which still map a replaced snapshot keep reading the old file until they
+	 * load it again, as snapshots are replaced by an atomic move.
+	 *
+	 * @param name the name of the snapshot
+	 * @param settings the settings of the model, which are part of the fingerprint
+	 * @param model the model to save
+	 * @param codec the codec to write and read the payload with
+	 * @return the model read back, or the given model if snapshots are disabled
+	 *         or the snapshot could not be saved or loaded
+	 */
+	public <T> T saveAndLoad(String name, String settings, T model, SnapshotCodec<T> codec) {
+		save(name, settings, model, codec);
+		T loaded = load(name, settings, codec);
+		return loaded != null ? loaded : model;
+	}
+
+	/**
+	 * Drops the digest of the training corpus, so that changes to the corpus are
+	 * taken into account by subsequent loads and saves.
+	 */
+	public synchronized void refresh() {
+		corpusDigest = null;
+	}
+
+	private boolean isEnabled() {
+		return StringUtils.hasText(dataConfig.getSnapshotDirectory());
+	}
+
+	private Path path(String name) {
+		return Paths.get(dataConfig.getSnapshotDirectory(), name + SUFFIX).toAbsolutePath();
+	}
+
+	/**
+	 * Computes the fingerprint of a snapshot out of its name and settings, the
+	 * {@link DataConfig} settings and the contents of the training corpus.
+	 */
+	private byte[] fingerprint(String name, String settings) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		for (String value : Arrays.asList(name, settings, dataConfig.getBaseDataDirectory(),
+				dataConfig.getPositiveReviewsDirectory(), dataConfig.getNegativeReviewsDirectory(),
+				dataConfig.getStopWordsDirectory())) {
+			digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		digest.update(corpusDigest());
+		return digest.digest();
+	}
+
+	/**
+	 * Digests the names and contents of all corpus files. The digest is computed
+	 * once and shared by all snapshots.
+	 */
+	private synchronized byte[] corpusDigest() throws Exception {
+		if (corpusDigest == null) {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String directory : Arrays.asList(dataConfig.getPositiveReviewsDirectory(),
+					dataConfig.getNegativeReviewsDirectory(), dataConfig.getStopWordsDirectory())) {
+				for (Resource document : corpusReader.list(directory)) {
+					digest.update((directory + document.getFilename()).getBytes(StandardCharsets.UTF_8));
+					digest.update(corpusReader.bytes(document));
+				}
+			}
+			corpusDigest = digest.digest();
+		}
+		return corpusDigest;
+	}
+
+}
@@ -16,20 +16,18 @@
 
 package ai.mrp.impl;
 
-import java.util.EnumMap;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import ai.mrp.config.TwitterConfig;
 import ai.mrp.inf.ClassificationEngine;
-import ai.mrp.inf.Predictor;
-import ai.mrp.model.ClassifierType;
-import ai.mrp.model.ReviewType;
-import ai.mrp.model.Verbatim;
+import ai.mrp.model.TagMatcher;
 import lombok.extern.slf4j.Slf4j;
 import twitter4j.FilterQuery;
 import twitter4j.Status;
@@ -42,31 +40,39 @@ import twitter4j.conf.ConfigurationBuilder;
 
 /**
  * Implementation of the {@link ClassificationEngine} which connects to Twitter
- * and classifies data that is streamed.
+ * and classifies data that is streamed. Statuses are handed off to the
+ * {@link ClassificationPipeline}, so that classification does not hold up the
+ * stream. Streaming starts as soon as a tag is tracked, even while the models
+ * are still being initialized; statuses are then published with the sentiment
+ * of the classifiers which are ready. It is replaced by the
+ * {@link ReplayClassificationEngine} with the {@code replay} profile.
+ *
+ * <p>Any number of tags may be tracked at once. Each status is routed to the
+ * tags it mentions by a {@link TagMatcher}, which is rebuilt whenever the
+ * tracked tags change, so that routing costs a single pass over the text of
+ * the status however many tags are tracked.
  *
  * @author Donnabell Dmello <ddmello@usc.edu>
  * @author Venil Noronha <vnoronha@usc.edu>
  */
 @Slf4j
 @Component
+@Profile("!replay")
 public class StreamingTweetsClassificationEngine implements ClassificationEngine, InitializingBean {
 
 	@Autowired
-	@Qualifier("NaiveBayes")
-	private Predictor<ReviewType> nbPredictor;
+	private TwitterConfig twitterConf;
 
 	@Autowired
-	@Qualifier("SVM")
-	private Predictor<ReviewType> svmPredictor;
-
-	@Autowired
-	private TwitterConfig twitterConf;
+	private ClassificationPipeline pipeline;
 
 	private TwitterStream streamInstance;
 
-    @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-    
+	/** The tags currently tracked. */
+	private final Set<String> tags = new TreeSet<>();
+
+	private volatile TagMatcher matcher = new TagMatcher(Collections.emptySet());
+
 	/**
 	 * Creates the stream instance and configures the stream listeners.
 	 */
@@ -82,25 +88,12 @@ public class StreamingTweetsClassificationEngine implements ClassificationEngine
 	    streamInstance.addListener(new StatusAdapter() {
 	    	@Override public void onStatus(Status status) {
 	    		if (!status.isRetweet()) {
-		    		ReviewType reviewTypeNB = nbPredictor.predict(status.getText());
-		    		log.info("NB -- {}: {}", reviewTypeNB, status.getText());
-
-		    		ReviewType reviewTypeSVM = svmPredictor.predict(status.getText());
-		    		log.info("SVM -- {}: {}", reviewTypeSVM, status.getText());
-		    		
-		    		EnumMap<ClassifierType, ReviewType> sentiment = new EnumMap<>(ClassifierType.class);
-		    		sentiment.put(ClassifierType.NB, reviewTypeNB);
-		    		sentiment.put(ClassifierType.SVM, reviewTypeSVM);
-
-		    		//Creating Verbatim to publish
-		    		Verbatim verbatim = new Verbatim("TWITTER", 
-		    				status.getText(), 
-		    				status.getUser().getName(), 
-		    				status.getUser().getScreenName(),
-		    				status.getUser().getProfileImageURL(),
-		    				status.getCreatedAt(),
-		    				sentiment);
-			        messagingTemplate.convertAndSend("/stream/verbatim", verbatim);
+	    			try {
+	    				pipeline.submit(status, matcher.match(status.getText()));
+	    			}
+	    			catch (InterruptedException e) {
+	    				Thread.currentThread().interrupt();
+	    			}
 	    		}
 	    	}
 	    });
@@ -108,20 +101,65 @@ public class StreamingTweetsClassificationEngine implements ClassificationEngine
 	}
 
 	/**
-	 * Starts streaming data from Twitter.
+	 * Starts streaming data from Twitter for the given tag only.
+	 *
+	 * @param tag the tag to track
+	 * @return the tags no longer tracked
+	 */
+	@Override
+	public synchronized Set<String> update(String tag) {
+		Set<String> dropped = new TreeSet<>(tags);
+		dropped.remove(tag);
+		tags.clear();
+		tags.add(tag);
+		refilter();
+		return dropped;
+	}
+
+	/**
+	 * Starts streaming data from Twitter for the given tag, along with the tags
+	 * tracked so far.
 	 *
 	 * @param tag the tag to track
 	 */
 	@Override
-	public void update(String tag) {
-		log.info("Initializing stream for tag: {}", tag);
-//		try {
-//			streamInstance.cleanUp();
-//		}
-//		catch (Exception e) {
-//			log.warn("Could not to shut down stream.", e);
-//		}
-	    streamInstance.filter(new FilterQuery(tag));
+	public synchronized void track(String tag) {
+		if (tags.add(tag)) {
+			refilter();
+		}
+	}
+
+	/**
+	 * Stops streaming data from Twitter for the given tag.
+	 *
+	 * @param tag the tag to stop tracking
+	 */
+	@Override
+	public synchronized void untrack(String tag) {
+		if (tags.remove(tag)) {
+			refilter();
+		}
+	}
+
+	@Override
+	public synchronized Set<String> getTracked() {
+		return new TreeSet<>(tags);
+	}
+
+	/**
+	 * Restarts the stream with the tracked tags, or stops it if there are none.
+	 * The matcher is swapped first, so that statuses of new tags are routed as
+	 * soon as they arrive.
+	 */
+	private void refilter() {
+		matcher = new TagMatcher(tags);
+		if (tags.isEmpty()) {
+			log.info("Stopping stream, no tags tracked");
+			streamInstance.cleanUp();
+			return;
+		}
+		log.info("Initializing stream for tags: {}", tags);
+		streamInstance.filter(new FilterQuery(tags.toArray(new String[tags.size()])));
 	}
 
 	/**
@@ -0,0 +1,284 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.mrp.config.PublishConfig;
+import ai.mrp.model.LatencyHistogram;
+import ai.mrp.model.LatencyStats;
+import ai.mrp.model.PublishStats;
+import ai.mrp.model.Stage;
+import ai.mrp.model.Verbatim;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link VerbatimPublisher} sends verbatims to websocket subscribers.
+ *
+ * <p>Each verbatim is sent as a frame of its own to {@link #VERBATIM}, and
+ * coalesced with other verbatims into a JSON array sent to {@link #BATCH}.
+ * Batches are sent every {@link PublishConfig#getBatchInterval()} milliseconds,
+ * or as soon as {@link PublishConfig#getBatchSize()} verbatims are pending.
+ * A batch is serialized once, however many clients subscribe to it, and costs
+ * one frame per subscriber instead of one per verbatim. At most
+ * {@link PublishConfig#getMaximumPending()} verbatims wait for a batch; the
+ * oldest are dropped beyond that.
+ *
+ * <p>The {@link Stage#END_TO_END} latency of a verbatim is recorded once it is
+ * sent, which for a batched verbatim is when its batch is sent.
+ *
+ * <p>Subscriptions are tracked from the session events of the broker, so that
+ * nothing is serialized or queued for a destination nobody subscribes to.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Slf4j
+@Component
+public class VerbatimPublisher implements InitializingBean, DisposableBean {
+
+	/** The destination receiving each verbatim in a frame of its own. */
+	public static final String VERBATIM = "/stream/verbatim";
+
+	/** The destination receiving batches of verbatims. */
+	public static final String BATCH = "/stream/verbatims";
+
+	@Autowired
+	private SimpMessagingTemplate messagingTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PublishConfig publishConfig;
+
+	private ScheduledExecutorService flusher;
+
+	private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger pendingCount = new AtomicInteger();
+
+	/** The destination of each subscription, by session and subscription id. */
+	private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+
+	/** The number of subscriptions by destination. */
+	private final Map<String, Integer> subscriptions = new ConcurrentHashMap<>();
+
+	private final LongAdder verbatimsSent = new LongAdder();
+	private final LongAdder batchesSent = new LongAdder();
+	private final LongAdder batchedVerbatims = new LongAdder();
+	private final LongAdder droppedVerbatims = new LongAdder();
+
+	private final LatencyHistogram endToEndLatency = new LatencyHistogram();
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("verbatim-publisher-"));
+		flusher.scheduleWithFixedDelay(this::flush, publishConfig.getBatchInterval(),
+				publishConfig.getBatchInterval(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops sending batches, discarding the verbatims which are still pending.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		flusher.shutdownNow();
+	}
+
+	/**
+	 * Publishes the given verbatim to the subscribers of either destination.
+	 *
+	 * @param verbatim the verbatim to publish
+	 * @param receivedAt the {@link System#nanoTime()} its status was received at
+	 */
+	public void publish(Verbatim verbatim, long receivedAt) {
+		if (hasSubscribers(VERBATIM)) {
+			messagingTemplate.convertAndSend(VERBATIM, verbatim);
+			verbatimsSent.increment();
+		}
+		if (hasSubscribers(BATCH)) {
+			pending.add(new Pending(verbatim, receivedAt));
+			int count = pendingCount.incrementAndGet();
+			if (count == publishConfig.getBatchSize()) {
+				flusher.execute(this::flush);
+			}
+			if (count > publishConfig.getMaximumPending() && pending.poll() != null) {
+				pendingCount.decrementAndGet();
+				droppedVerbatims.increment();
+			}
+		}
+		else {
+			endToEndLatency.record(System.nanoTime() - receivedAt);
+		}
+	}
+
+	/**
+	 * Returns the current statistics of this publisher.
+	 *
+	 * @return the statistics
+	 */
+	public PublishStats getStats() {
+		return new PublishStats(verbatimsSent.sum(), batchesSent.sum(), batchedVerbatims.sum(), pendingCount.get(),
+				droppedVerbatims.sum(), new TreeMap<>(subscriptions));
+	}
+
+	/**
+	 * Returns the latency percentiles from the receipt of a status until its
+	 * verbatim is sent.
+	 *
+	 * @return the latency statistics
+	 */
+	public LatencyStats getEndToEndLatency() {
+		return endToEndLatency.getStats();
+	}
+
+	@EventListener
+	public void onSubscribe(SessionSubscribeEvent event) {
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+		String destination = headers.getDestination();
+		if (destination == null) {
+			return;
+		}
+		String previous = sessions.computeIfAbsent(headers.getSessionId(), id -> new ConcurrentHashMap<>())
+				.put(headers.getSubscriptionId(), destination);
+		if (previous != null) {
+			unsubscribed(previous);
+		}
+		subscriptions.merge(destination, 1, Integer::sum);
+	}
+
+	@EventListener
+	public void onUnsubscribe(SessionUnsubscribeEvent event) {
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(event.getMessage());
+		Map<String, String> session = sessions.get(headers.getSessionId());
+		String destination = session == null ? null : session.remove(headers.getSubscriptionId());
+		if (destination != null) {
+			unsubscribed(destination);
+		}
+	}
+
+	@EventListener
+	public void onDisconnect(SessionDisconnectEvent event) {
+		Map<String, String> session = sessions.remove(SimpMessageHeaderAccessor.wrap(event.getMessage()).getSessionId());
+		if (session != null) {
+			session.values().forEach(this::unsubscribed);
+		}
+	}
+
+	private void unsubscribed(String destination) {
+		subscriptions.computeIfPresent(destination, (key, count) -> count == 1 ? null : count - 1);
+	}
+
+	private boolean hasSubscribers(String destination) {
+		return subscriptions.containsKey(destination);
+	}
+
+	/**
+	 * Sends the pending verbatims in batches of at most the configured size.
+	 * Only ever runs on the flusher thread.
+	 */
+	private void flush() {
+		int batchSize = publishConfig.getBatchSize();
+		List<Pending> batch = new ArrayList<>(batchSize);
+		try {
+			for (Pending next; (next = pending.poll()) != null; ) {
+				pendingCount.decrementAndGet();
+				batch.add(next);
+				if (batch.size() == batchSize) {
+					send(batch);
+					batch.clear();
+				}
+			}
+			if (!batch.isEmpty()) {
+				send(batch);
+			}
+		}
+		catch (Exception e) {
+			log.warn("Could not publish a batch of " + batch.size() + " verbatims", e);
+		}
+	}
+
+	/**
+	 * Serializes the given verbatims once and sends them as a single message.
+	 */
+	private void send(List<Pending> batch) throws Exception {
+		List<Verbatim> verbatims = new ArrayList<>(batch.size());
+		for (Pending next : batch) {
+			verbatims.add(next.verbatim);
+		}
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+		headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+		headers.setLeaveMutable(true);
+		Message<byte[]> message = MessageBuilder.createMessage(objectMapper.writeValueAsBytes(verbatims),
+				headers.getMessageHeaders());
+		messagingTemplate.send(BATCH, message);
+		batchesSent.increment();
+		batchedVerbatims.add(batch.size());
+		long now = System.nanoTime();
+		for (Pending next : batch) {
+			endToEndLatency.record(now - next.receivedAt);
+		}
+	}
+
+	/**
+	 * A verbatim waiting for a batch, along with the time its status was
+	 * received at.
+	 */
+	private static class Pending {
+
+		private final Verbatim verbatim;
+
+		private final long receivedAt;
+
+		private Pending(Verbatim verbatim, long receivedAt) {
+			this.verbatim = verbatim;
+			this.receivedAt = receivedAt;
+		}
+
+	}
+
+}
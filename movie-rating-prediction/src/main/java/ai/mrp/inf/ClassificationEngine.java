@@ -16,6 +16,8 @@
 
 package ai.mrp.inf;
 
+import java.util.Set;
+
 /**
  * Implementation of the {@link ClassificationEngine} connects to a data source
  * and classifies the data.
@@ -26,11 +28,34 @@ package ai.mrp.inf;
 public interface ClassificationEngine {
 
 	/**
-	 * Updates the classification engine with the given keyword.
+	 * Updates the classification engine with the given keyword, replacing the
+	 * keywords tracked so far.
 	 *
 	 * @param keyword the keyword to fetch data for
+	 * @return the keywords which are no longer tracked
+	 */
+	public Set<String> update(String keyword);
+
+	/**
+	 * Starts tracking the given keyword along with those tracked so far.
+	 *
+	 * @param keyword the keyword to fetch data for
+	 */
+	public void track(String keyword);
+
+	/**
+	 * Stops tracking the given keyword.
+	 *
+	 * @param keyword the keyword to stop fetching data for
+	 */
+	public void untrack(String keyword);
+
+	/**
+	 * Returns the keywords currently tracked.
+	 *
+	 * @return the keywords
 	 */
-	public void update(String keyword);
+	public Set<String> getTracked();
 
 	/**
 	 * Stops the classification engine.
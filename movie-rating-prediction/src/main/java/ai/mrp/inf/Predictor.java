@@ -16,6 +16,9 @@
 
 package ai.mrp.inf;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Implementations of {@link Predictor} predict classes given an input text.
  *
@@ -32,4 +35,30 @@ public interface Predictor<C extends Enum<C>> {
 	 */
 	public C predict(String text);
 
+	/**
+	 * Predicts the classes of a batch of input texts. Implementations should
+	 * override this to amortize their per-call overhead over the batch.
+	 *
+	 * @param texts the texts for which the classes are to be predicted
+	 * @return the predicted classes, in the order of the texts
+	 */
+	public default List<C> predictBatch(List<String> texts) {
+		List<C> predictions = new ArrayList<>(texts.size());
+		for (String text : texts) {
+			predictions.add(predict(text));
+		}
+		return predictions;
+	}
+
+	/**
+	 * Returns whether this predictor has a model to predict with. Predictors
+	 * whose model is loaded in the background are not ready until it is loaded,
+	 * and fail to predict meanwhile.
+	 *
+	 * @return whether the predictor is ready
+	 */
+	public default boolean isReady() {
+		return true;
+	}
+
 }
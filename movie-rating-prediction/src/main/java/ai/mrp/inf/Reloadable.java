@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.inf;
+
+import java.util.List;
+
+import ai.mrp.model.ClassifierType;
+
+/**
+ * Implementation of the {@link Reloadable} can replace its model while it is
+ * being used. Its first model is also loaded through {@link #prepare(boolean, List)},
+ * in the background, so it has no model until then.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public interface Reloadable {
+
+	/**
+	 * Prepares a new model, either from its snapshot or by retraining it, and
+	 * warms it up by classifying the given texts. The current model keeps
+	 * serving predictions meanwhile.
+	 *
+	 * @param retrain whether to retrain the model rather than load its snapshot
+	 * @param warmUpTexts the texts to classify with the new model before use
+	 * @return the action which swaps the new model in
+	 * @throws Exception if the model cannot be prepared
+	 */
+	public Runnable prepare(boolean retrain, List<String> warmUpTexts) throws Exception;
+
+	/**
+	 * Returns the type of the classifier whose model this reloads.
+	 *
+	 * @return the classifier type
+	 */
+	public ClassifierType getClassifierType();
+
+}
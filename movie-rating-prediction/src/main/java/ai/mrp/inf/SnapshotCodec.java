@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.inf;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Implementations of {@link SnapshotCodec} convert a trained model to and from
+ * the payload of an on-disk snapshot.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ *
+ * @param <T> the type of model
+ */
+public interface SnapshotCodec<T> {
+
+	/**
+	 * Writes the given model.
+	 *
+	 * @param model the model to write
+	 * @param out the stream to write the model to
+	 * @throws IOException if writing fails
+	 */
+	public void write(T model, DataOutputStream out) throws IOException;
+
+	/**
+	 * Reads a model.
+	 *
+	 * @param payload the buffer, typically memory-mapped, to read the model from
+	 * @return the model
+	 * @throws IOException if reading fails
+	 */
+	public T read(ByteBuffer payload) throws IOException;
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.inf;
+
+/**
+ * Implementations of {@link TokenConsumer} receive the tokens of a document as
+ * ranges of a shared character buffer.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@FunctionalInterface
+public interface TokenConsumer {
+
+	/**
+	 * Consumes a single token. The buffer is reused for subsequent tokens, so
+	 * its contents must be copied if they are to be retained.
+	 *
+	 * @param chars the buffer holding the token
+	 * @param start the start index of the token, inclusive
+	 * @param end the end index of the token, exclusive
+	 */
+	public void accept(char[] chars, int start, int end);
+
+}
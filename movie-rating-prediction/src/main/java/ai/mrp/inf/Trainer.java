@@ -16,6 +16,9 @@
 
 package ai.mrp.inf;
 
+import ai.mrp.model.Corpus;
+import ai.mrp.model.ReviewType;
+
 /**
  * Implementations of {@link Trainer} provide methods for training and creating
  * data sets.
@@ -28,11 +31,12 @@ package ai.mrp.inf;
 public interface Trainer<T> {
 
 	/**
-	 * Trains and creates a data set.
+	 * Trains and creates a data set out of the given corpus.
 	 * 
+	 * @param corpus the training corpus, which is shared and must not be modified
 	 * @return the data set
 	 * @throws Exception if training fails
 	 */
-	public T train() throws Exception;
+	public T train(Corpus<ReviewType> corpus) throws Exception;
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Prediction cache statistics data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class CacheStats {
+
+	/** The number of cached predictions. */
+	private long size;
+
+	/** The number of predictions served from the cache. */
+	private long hits;
+
+	/** The number of predictions which had to be computed. */
+	private long misses;
+
+	/** The number of predictions evicted for lack of room or expiry. */
+	private long evictions;
+
+}
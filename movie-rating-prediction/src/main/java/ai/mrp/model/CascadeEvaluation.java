@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cascading classifier evaluation data transfer object. Accuracies are measured
+ * against the labels of the training corpus, so they overstate the accuracy on
+ * unseen texts, as {@link #getMeasuredOn()} states; the agreement with the SVM
+ * classifier is the figure to watch when tuning the margin threshold.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class CascadeEvaluation {
+
+	/** The value of {@link #getMeasuredOn()} for evaluations on the training corpus. */
+	public static final String TRAINING_CORPUS = "training corpus, see /models/evaluation for held-out accuracies";
+
+	/** The log-odds margin below which texts were escalated. */
+	private double marginThreshold;
+
+	/** The version of the evaluated models. */
+	private long modelVersion;
+
+	/** The documents the accuracies were measured on. */
+	private String measuredOn;
+
+	/** The number of documents classified. */
+	private int documents;
+
+	/** The fraction of documents escalated to the SVM classifier. */
+	private double escalationRate;
+
+	/** The fraction of documents on which the cascade agrees with the SVM classifier. */
+	private double svmAgreement;
+
+	/** The fraction of documents the Naive Bayes classifier labels correctly. */
+	private double naiveBayesAccuracy;
+
+	/** The fraction of documents the SVM classifier labels correctly. */
+	private double svmAccuracy;
+
+	/** The fraction of documents the cascade labels correctly. */
+	private double cascadeAccuracy;
+
+	/** The time in milliseconds the SVM classifier took for all documents. */
+	private long svmMillis;
+
+	/** The time in milliseconds the cascade took for all documents. */
+	private long cascadeMillis;
+
+}
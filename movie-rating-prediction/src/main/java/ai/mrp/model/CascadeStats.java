@@ -0,0 +1,44 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cascading classifier statistics data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class CascadeStats {
+
+	/** The log-odds margin below which texts are escalated. */
+	private double marginThreshold;
+
+	/** The number of texts classified. */
+	private long predicted;
+
+	/** The number of texts escalated to the SVM classifier. */
+	private long escalated;
+
+	/** The fraction of texts escalated to the SVM classifier. */
+	private double escalationRate;
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cross-validated classifier evaluation data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class ClassifierEvaluation {
+
+	/** The mean fraction of test documents labelled correctly across folds. */
+	private double accuracy;
+
+	/** The standard deviation of the accuracy across folds. */
+	private double accuracyStdDev;
+
+	/** The macro-averaged F1 score over the pooled predictions of all folds. */
+	private double f1;
+
+	/** The F1 score of each class over the pooled predictions of all folds. */
+	private Map<ReviewType, Double> classF1;
+
+	/** The mean time in milliseconds taken to train on a fold. */
+	private double trainingMillis;
+
+	/** The number of texts classified per second, one at a time. */
+	private double throughput;
+
+	/** The mean size in bytes of the serialized model of a fold. */
+	private long modelBytes;
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Rating of a movie predicted by a single classifier data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class ClassifierRating {
+
+	/** This is the rating out of 10 over the last day, or {@code null} if unknown. */
+	private Double rating;
+
+	/**
+	 * This is the rating over the last hour less the rating over the last day,
+	 * or {@code null} if unknown.
+	 */
+	private Double trend;
+
+	/** This is the sentiment counts of each time window. */
+	private Map<Window, SentimentCounts> windows;
+
+}
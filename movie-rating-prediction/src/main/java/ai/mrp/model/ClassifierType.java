@@ -24,6 +24,6 @@ package ai.mrp.model;
  */
 public enum ClassifierType {
 
-	NB, SVM;
+	NB, SVM, CASCADE;
 
 }
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * {@link Corpus} is a compact, read-only view of a labelled training corpus.
+ *
+ * <p>The tokens of all documents are interned into one {@link TokenDictionary}
+ * and stored back to back as ids in a single {@code int[]}, with the start of
+ * each document kept in an offsets array. A corpus may be narrowed down to a
+ * selection of its documents with {@link #select(int[])}, which shares the
+ * underlying arrays instead of copying them.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class Corpus<C extends Enum<C>> {
+
+	private final Class<C> clazz;
+	private final TokenDictionary dictionary;
+
+	/** The token ids of all documents, back to back. */
+	private final int[] tokens;
+
+	/** The offset of the first token of each document, followed by the total. */
+	private final int[] offsets;
+
+	/** The class ordinal of each document. */
+	private final byte[] labels;
+
+	/** The documents of this view, or {@code null} for all documents. */
+	private final int[] documents;
+
+	private Corpus(Class<C> clazz, TokenDictionary dictionary, int[] tokens, int[] offsets, byte[] labels,
+			int[] documents) {
+		this.clazz = clazz;
+		this.dictionary = dictionary;
+		this.tokens = tokens;
+		this.offsets = offsets;
+		this.labels = labels;
+		this.documents = documents;
+	}
+
+	public Class<C> getType() {
+		return clazz;
+	}
+
+	public TokenDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the number of documents in this view.
+	 *
+	 * @return the number of documents
+	 */
+	public int size() {
+		return documents == null ? labels.length : documents.length;
+	}
+
+	/**
+	 * Returns the class of the given document.
+	 *
+	 * @param document the index of the document in this view
+	 * @return the class of the document
+	 */
+	public C label(int document) {
+		return clazz.getEnumConstants()[labels[index(document)]];
+	}
+
+	/**
+	 * Returns the number of tokens of the given document.
+	 *
+	 * @param document the index of the document in this view
+	 * @return the number of tokens
+	 */
+	public int length(int document) {
+		int index = index(document);
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/**
+	 * Passes the token ids of the given document, in order, to the given consumer.
+	 *
+	 * @param document the index of the document in this view
+	 * @param consumer the consumer of the token ids
+	 */
+	public void forEachToken(int document, IntConsumer consumer) {
+		int index = index(document);
+		for (int i = offsets[index], end = offsets[index + 1]; i < end; i++) {
+			consumer.accept(tokens[i]);
+		}
+	}
+
+	/**
+	 * Rebuilds the normalized text of the given document by joining its tokens
+	 * with single spaces.
+	 *
+	 * @param document the index of the document in this view
+	 * @return the text of the document
+	 */
+	public String text(int document) {
+		int index = index(document);
+		StringBuilder text = new StringBuilder();
+		for (int i = offsets[index], end = offsets[index + 1]; i < end; i++) {
+			if (text.length() > 0) {
+				text.append(' ');
+			}
+			text.append(dictionary.token(tokens[i]));
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Creates a view of the given documents of this view, sharing the data of
+	 * this corpus.
+	 *
+	 * @param selection the indexes of the documents in this view
+	 * @return the narrowed view
+	 */
+	public Corpus<C> select(int[] selection) {
+		int[] selected = new int[selection.length];
+		for (int i = 0; i < selection.length; i++) {
+			selected[i] = index(selection[i]);
+		}
+		return new Corpus<>(clazz, dictionary, tokens, offsets, labels, selected);
+	}
+
+	/**
+	 * Copies the documents of this view into a standalone corpus whose
+	 * dictionary only holds the tokens of these documents. Unlike a view from
+	 * {@link #select(int[])}, the copy does not leak the vocabulary of the other
+	 * documents into models trained on it.
+	 *
+	 * @return the compacted corpus
+	 */
+	public Corpus<C> compact() {
+		int numDocuments = size();
+		TokenDictionary compactDictionary = new TokenDictionary(dictionary.size());
+		int[] remapped = new int[dictionary.size()];
+		int[] compactOffsets = new int[numDocuments + 1];
+		byte[] compactLabels = new byte[numDocuments];
+		int numTokens = 0;
+		for (int document = 0; document < numDocuments; document++) {
+			numTokens += length(document);
+		}
+		int[] compactTokens = new int[numTokens];
+		numTokens = 0;
+		for (int document = 0; document < numDocuments; document++) {
+			int index = index(document);
+			compactOffsets[document] = numTokens;
+			compactLabels[document] = labels[index];
+			for (int i = offsets[index], end = offsets[index + 1]; i < end; i++) {
+				int id = tokens[i];
+				if (remapped[id] == 0) {
+					remapped[id] = compactDictionary.intern(dictionary.token(id)) + 1;
+				}
+				compactTokens[numTokens++] = remapped[id] - 1;
+			}
+		}
+		compactOffsets[numDocuments] = numTokens;
+		return new Corpus<>(clazz, compactDictionary, compactTokens, compactOffsets, compactLabels, null);
+	}
+
+	/**
+	 * Estimates the number of heap bytes retained by this corpus.
+	 *
+	 * @return the estimated footprint in bytes
+	 */
+	public long footprint() {
+		return dictionary.footprint() + 4L * tokens.length + 4L * offsets.length + labels.length
+				+ (documents == null ? 0 : 4L * documents.length);
+	}
+
+	private int index(int document) {
+		if (document < 0 || document >= size()) {
+			throw new IndexOutOfBoundsException("Document " + document + " of " + size());
+		}
+		return documents == null ? document : documents[document];
+	}
+
+	/**
+	 * {@link Builder} builds a {@link Corpus} one document at a time. It is not
+	 * thread-safe.
+	 */
+	public static class Builder<C extends Enum<C>> {
+
+		private final Class<C> clazz;
+		private final TokenDictionary dictionary = new TokenDictionary();
+		private int[] tokens = new int[1024];
+		private int numTokens;
+		private int[] offsets = new int[16];
+		private byte[] labels = new byte[16];
+		private int numDocuments;
+
+		public Builder(Class<C> clazz) {
+			if (clazz.getEnumConstants().length > Byte.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many classes in " + clazz.getName());
+			}
+			this.clazz = clazz;
+		}
+
+		/**
+		 * Starts a new document; subsequently added tokens belong to it.
+		 *
+		 * @param label the class of the document
+		 * @return this builder
+		 */
+		public Builder<C> startDocument(C label) {
+			if (numDocuments == labels.length) {
+				labels = Arrays.copyOf(labels, numDocuments * 2);
+				offsets = Arrays.copyOf(offsets, numDocuments * 2);
+			}
+			labels[numDocuments] = (byte) label.ordinal();
+			offsets[numDocuments] = numTokens;
+			numDocuments++;
+			return this;
+		}
+
+		/**
+		 * Adds the token held by the given range of characters to the current
+		 * document.
+		 *
+		 * @param chars the characters holding the token
+		 * @param start the start index of the token, inclusive
+		 * @param end the end index of the token, exclusive
+		 * @return this builder
+		 */
+		public Builder<C> addToken(char[] chars, int start, int end) {
+			if (numDocuments == 0) {
+				throw new IllegalStateException("No document started");
+			}
+			if (numTokens == tokens.length) {
+				tokens = Arrays.copyOf(tokens, numTokens * 2);
+			}
+			tokens[numTokens++] = dictionary.intern(chars, start, end);
+			return this;
+		}
+
+		/**
+		 * Builds the corpus, trimming the backing arrays to size. The builder must
+		 * not be used afterwards, since the corpus shares its dictionary.
+		 *
+		 * @return the corpus
+		 */
+		public Corpus<C> build() {
+			int[] documentOffsets = Arrays.copyOf(offsets, numDocuments + 1);
+			documentOffsets[numDocuments] = numTokens;
+			return new Corpus<>(clazz, dictionary, Arrays.copyOf(tokens, numTokens), documentOffsets,
+					Arrays.copyOf(labels, numDocuments), null);
+		}
+
+	}
+
+}
@@ -16,77 +16,129 @@
 
 package ai.mrp.model;
 
-import java.util.EnumMap;
-import java.util.HashMap;
-import java.util.Map;
-
-import lombok.Data;
+import java.util.Arrays;
 
 /**
  * {@link DataModel} is a concrete model for storing trained data sets.
  *
+ * <p>Words are interned into a {@link TokenDictionary} and their counts are kept
+ * in one flat {@code int[]} per class, indexed by the word id, so the model
+ * holds a handful of primitive arrays rather than boxed map entries.
+ *
  * @author Donnabell Dmello <ddmello@usc.edu>
  * @author Venil Noronha <vnoronha@usc.edu>
  */
 public class DataModel<C extends Enum<C>> {
 
-	private EnumMap<C, ClassDataModel> classData;
-	private EnumMap<C, Integer> numWords;
+	private final Class<C> clazz;
+	private final TokenDictionary dictionary;
+	private final int[][] counts;
+	private final long[] numWords;
 
 	public DataModel(Class<C> clazz) {
-		this.classData = new EnumMap<>(clazz);
-		this.numWords = new EnumMap<>(clazz);
+		this(clazz, new TokenDictionary());
 	}
 
-	public int total(C type) {
-		Integer classWords = numWords.get(type);
-		if (classWords == null) {
-			classWords = 0;
-		}
-		return classWords;
+	public DataModel(Class<C> clazz, TokenDictionary dictionary) {
+		this.clazz = clazz;
+		this.dictionary = dictionary;
+		int numClasses = clazz.getEnumConstants().length;
+		this.counts = new int[numClasses][dictionary.size()];
+		this.numWords = new long[numClasses];
+	}
+
+	public Class<C> getType() {
+		return clazz;
+	}
+
+	public TokenDictionary getDictionary() {
+		return dictionary;
+	}
+
+	public long total(C type) {
+		return numWords[type.ordinal()];
 	}
 
 	public int get(C type, String word) {
-		ClassDataModel classDataModel = getOrCreate(type);
-		Integer count = classDataModel.counts.get(word);
-		if (count == null) {
-			count = 0;
+		int id = dictionary.id(word);
+		if (id < 0) {
+			return 0;
 		}
-		return count;
+		return get(type, id);
 	}
 
-	public void put(C type, String word) {
-		Integer count = get(type, word);
-		count++;
-		ClassDataModel classDataModel = getOrCreate(type);
-		classDataModel.counts.put(word, count);
-
-		Integer classWords = numWords.get(type);
-		if (classWords == null) {
-			classWords = 0;
+	public int get(C type, int id) {
+		int[] classCounts = counts[type.ordinal()];
+		if (id >= classCounts.length) {
+			return 0;
 		}
-		classWords++;
-		numWords.put(type, classWords);
+		return classCounts[id];
 	}
 
-	private ClassDataModel getOrCreate(C type) {
-		ClassDataModel classDataModel = classData.get(type);
-		if (classDataModel == null) {
-			classDataModel = new ClassDataModel();
-			classData.put(type, classDataModel);
-		}
-		return classDataModel;
+	public void put(C type, String word) {
+		put(type, dictionary.intern(word));
 	}
 
-	@Data
-	private static final class ClassDataModel {
+	public void put(C type, int id) {
+		add(type, id, 1);
+	}
+
+	public void add(C type, int id, int count) {
+		int[] classCounts = ensureCapacity(type.ordinal(), id);
+		classCounts[id] += count;
+		numWords[type.ordinal()] += count;
+	}
 
-		private Map<String, Integer> counts;
+	/**
+	 * Adds all counts of the given model to this model. Models sharing the same
+	 * dictionary are merged id by id, without looking up the words.
+	 *
+	 * @param other the model to merge into this one
+	 */
+	public void merge(DataModel<C> other) {
+		TokenDictionary otherDictionary = other.getDictionary();
+		if (otherDictionary == dictionary) {
+			for (C type : clazz.getEnumConstants()) {
+				int[] otherCounts = other.counts[type.ordinal()];
+				int[] classCounts = ensureCapacity(type.ordinal(), otherCounts.length - 1);
+				for (int id = 0; id < otherCounts.length; id++) {
+					classCounts[id] += otherCounts[id];
+				}
+				numWords[type.ordinal()] += other.numWords[type.ordinal()];
+			}
+			return;
+		}
+		for (int otherId = 0; otherId < otherDictionary.size(); otherId++) {
+			int id = dictionary.intern(otherDictionary.token(otherId));
+			for (C type : clazz.getEnumConstants()) {
+				int count = other.get(type, otherId);
+				if (count != 0) {
+					add(type, id, count);
+				}
+			}
+		}
+	}
 
-		private ClassDataModel() {
-			this.counts = new HashMap<>();
+	/**
+	 * Estimates the number of heap bytes retained by this model.
+	 *
+	 * @return the estimated footprint in bytes
+	 */
+	public long footprint() {
+		long bytes = dictionary.footprint() + 8L * numWords.length;
+		for (int[] classCounts : counts) {
+			bytes += 4L * classCounts.length;
 		}
+		return bytes;
+	}
 
+	private int[] ensureCapacity(int type, int id) {
+		int[] classCounts = counts[type];
+		if (id >= classCounts.length) {
+			classCounts = Arrays.copyOf(classCounts, Math.max(id + 1, Math.max(16, classCounts.length * 2)));
+			counts[type] = classCounts;
+		}
+		return classCounts;
 	}
 
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Cross-validation report data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class EvaluationReport {
+
+	/** The number of folds the corpus was split into. */
+	private int folds;
+
+	/** The number of documents in the corpus. */
+	private int documents;
+
+	/** The seed of the shuffle assigning documents to folds. */
+	private long seed;
+
+	/** The number of threads which trained and scored folds. */
+	private int parallelism;
+
+	/** The time in milliseconds the evaluation took. */
+	private long elapsedMillis;
+
+	/** The evaluation of each classifier. */
+	private Map<ClassifierType, ClassifierEvaluation> classifiers;
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * {@link FeatureHasher} turns texts into sparse feature vectors with the
+ * hashing trick.
+ *
+ * <p>Texts are split into words at the delimiters of Weka's
+ * {@code NGramTokenizer}, and every n-gram up to the maximum size is hashed
+ * straight to one of {@code 2^bits} features instead of being looked up in a
+ * dictionary, so the number of features does not grow with the corpus. Each
+ * word is hashed once and the hashes of the words are chained into those of the
+ * n-grams starting at it. One more bit of the n-gram hash gives it a sign, so
+ * that colliding n-grams tend to cancel out rather than add up. Unigrams that
+ * are stop words are skipped.
+ *
+ * <p>The value of a feature is the sublinear term frequency
+ * {@code log(1 + |count|)} of its signed count; IDF weights are left to the
+ * caller. The hasher is immutable and may be shared between threads, each
+ * vectorizing into its own {@link Features}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class FeatureHasher implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The largest number of hash bits, so that a feature and its sign fit in an {@code int}. */
+	public static final int MAX_BITS = 28;
+
+	/** The word delimiters, as those of Weka's {@code NGramTokenizer}. */
+	private static final String DELIMITERS = " \r\n\t.,;:'\"()?!";
+
+	private static final int FNV_OFFSET = 0x811C9DC5;
+	private static final int FNV_PRIME = 0x01000193;
+
+	private final int bits;
+	private final int maxN;
+	private final String[] stopWords;
+
+	/** The lower-cased stop words, rebuilt from {@link #stopWords} after deserialization. */
+	private transient TokenDictionary stopWordIds;
+
+	/**
+	 * Creates a hasher.
+	 *
+	 * @param bits the base two logarithm of the number of features
+	 * @param maxN the maximum number of words per n-gram
+	 * @param stopWords the words whose unigrams are skipped
+	 */
+	public FeatureHasher(int bits, int maxN, Collection<String> stopWords) {
+		if (bits < 1 || bits > MAX_BITS) {
+			throw new IllegalArgumentException("Hash bits must be between 1 and " + MAX_BITS + ": " + bits);
+		}
+		if (maxN < 1) {
+			throw new IllegalArgumentException("Invalid maximum n-gram size: " + maxN);
+		}
+		this.bits = bits;
+		this.maxN = maxN;
+		this.stopWords = stopWords.toArray(new String[stopWords.size()]);
+		this.stopWordIds = dictionary(this.stopWords);
+	}
+
+	/**
+	 * Returns the number of features, {@code 2^bits}.
+	 *
+	 * @return the number of features
+	 */
+	public int dimension() {
+		return 1 << bits;
+	}
+
+	/**
+	 * Hashes the n-grams of the given text into the given features, replacing
+	 * their previous contents. Features are ordered by index.
+	 *
+	 * @param text the text to vectorize
+	 * @param features the features to fill in
+	 */
+	public void vectorize(CharSequence text, Features features) {
+		int numWords = split(text, features);
+		int mask = dimension() - 1;
+		int numEntries = 0;
+		for (int position = 0; position < numWords; position++) {
+			int hash = FNV_OFFSET;
+			for (int n = 1; n <= maxN && position + n <= numWords; n++) {
+				hash = (hash ^ features.wordHashes[position + n - 1]) * FNV_PRIME;
+				if (n == 1 && stopWordIds.lookupLowerCase(text, features.starts[position], features.ends[position]) >= 0) {
+					continue;
+				}
+				int mixed = mix(hash);
+				if (numEntries == features.entries.length) {
+					features.entries = Arrays.copyOf(features.entries, numEntries * 2);
+				}
+				// the feature in the upper bits and the sign in the lowest one
+				features.entries[numEntries++] = (mixed & mask) << 1 | mixed >>> 31;
+			}
+		}
+
+		// sort the entries so that the occurrences of each feature are adjacent
+		int[] entries = features.entries;
+		Arrays.sort(entries, 0, numEntries);
+		features.ensureCapacity(numEntries);
+		int size = 0;
+		for (int i = 0; i < numEntries; ) {
+			int feature = entries[i] >>> 1;
+			int count = 0;
+			for (; i < numEntries && entries[i] >>> 1 == feature; i++) {
+				count += (entries[i] & 1) == 0 ? 1 : -1;
+			}
+			if (count != 0) {
+				features.indexes[size] = feature;
+				features.values[size] = Math.signum(count) * Math.log(1 + Math.abs(count));
+				size++;
+			}
+		}
+		features.size = size;
+	}
+
+	/**
+	 * Splits the text into words at the delimiters, recording their bounds and
+	 * the hashes of their lower-cased characters in the given features.
+	 */
+	private static int split(CharSequence text, Features features) {
+		int numWords = 0;
+		int start = -1;
+		int hash = FNV_OFFSET;
+		int length = text.length();
+		for (int i = 0; i <= length; i++) {
+			char c = i < length ? text.charAt(i) : ' ';
+			if (DELIMITERS.indexOf(c) < 0) {
+				if (start < 0) {
+					start = i;
+					hash = FNV_OFFSET;
+				}
+				hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+				continue;
+			}
+			if (start >= 0) {
+				if (numWords == features.starts.length) {
+					features.starts = Arrays.copyOf(features.starts, numWords * 2);
+					features.ends = Arrays.copyOf(features.ends, numWords * 2);
+					features.wordHashes = Arrays.copyOf(features.wordHashes, numWords * 2);
+				}
+				features.starts[numWords] = start;
+				features.ends[numWords] = i;
+				features.wordHashes[numWords] = hash;
+				numWords++;
+				start = -1;
+			}
+		}
+		return numWords;
+	}
+
+	/**
+	 * Finalizes a hash by spreading the entropy of all bits over all bits, as
+	 * in MurmurHash3.
+	 */
+	private static int mix(int hash) {
+		hash ^= hash >>> 16;
+		hash *= 0x85EBCA6B;
+		hash ^= hash >>> 13;
+		hash *= 0xC2B2AE35;
+		hash ^= hash >>> 16;
+		return hash;
+	}
+
+	private static TokenDictionary dictionary(String[] words) {
+		TokenDictionary dictionary = new TokenDictionary(words.length);
+		for (String word : words) {
+			dictionary.intern(word.trim().toLowerCase());
+		}
+		return dictionary;
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.stopWordIds = dictionary(this.stopWords);
+	}
+
+	/**
+	 * {@link Features} holds a sparse feature vector along with the buffers
+	 * used to compute it. It is reused from text to text and is not
+	 * thread-safe.
+	 */
+	public static final class Features {
+
+		private int[] starts = new int[64];
+		private int[] ends = new int[64];
+		private int[] wordHashes = new int[64];
+		private int[] entries = new int[256];
+
+		private int[] indexes = new int[256];
+		private double[] values = new double[256];
+		private int size;
+
+		/**
+		 * Returns the number of non-zero features.
+		 *
+		 * @return the number of features
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * Returns the index of the given non-zero feature.
+		 *
+		 * @param i the position of the feature, in index order
+		 * @return the index of the feature
+		 */
+		public int index(int i) {
+			return indexes[i];
+		}
+
+		/**
+		 * Returns the value of the given non-zero feature.
+		 *
+		 * @param i the position of the feature, in index order
+		 * @return the value of the feature
+		 */
+		public double value(int i) {
+			return values[i];
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity > indexes.length) {
+				indexes = new int[capacity];
+				values = new double[capacity];
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import weka.classifiers.AbstractClassifier;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+/**
+ * {@link HashingSVMClassifier} is a linear SVM over TF-IDF weighted n-gram
+ * features from a {@link FeatureHasher}, as a bounded-memory alternative to
+ * LibSVM behind a {@code StringToWordVector} filter.
+ *
+ * <p>The classifier takes the same string instances as the filtered one, so it
+ * plugs into the same training data and snapshots. Training hashes each text
+ * once into primitive arrays, along with the document frequencies and IDF
+ * weights of the features, and drops features occurring in fewer than the
+ * minimum number of documents, as they cannot generalize. It then solves the
+ * same hinge-loss problem as a linear-kernel C-SVC, with the dual coordinate
+ * descent method of LIBLINEAR (Hsieh et al., 2008). Unlike LibSVM, which
+ * evaluates the kernel between pairs of documents, this updates the weight
+ * vector directly, so a pass over the corpus is linear in its size. The IDF
+ * weights are folded into the weight vector, so that the model only holds
+ * {@code 2^bits + 1} weights however large the corpus is, and classifying a
+ * text takes one hash per n-gram and a sparse dot product.
+ *
+ * <p>The class is decided on the sign of the decision value; unlike the
+ * filtered classifier, no Platt-scaled probability estimates are trained.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class HashingSVMClassifier extends AbstractClassifier {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The maximum number of words per n-gram, as in the filtered classifier. */
+	private static final int MAX_N = 3;
+
+	/** The cost of misclassification, as the default of Weka's {@code LibSVM}. */
+	private static final double COST = 1.0;
+
+	/** The tolerance of the stopping criterion, as the default of LIBLINEAR. */
+	private static final double EPSILON = 0.1;
+
+	/** The maximum number of passes over the corpus. */
+	private static final int MAX_ITERATIONS = 1000;
+
+	/**
+	 * The bytes training takes per feature, for its document frequencies, IDF
+	 * weights, and weights before and after folding.
+	 */
+	private static final int TRAINING_BYTES_PER_FEATURE = Integer.BYTES + 3 * Double.BYTES;
+
+	private int hashBits = 18;
+
+	private int minDocumentFrequency = 2;
+
+	private List<String> stopWords = Collections.emptyList();
+
+	private FeatureHasher hasher;
+
+	/** The folded weight of each feature, indexed by feature. */
+	private double[] weights;
+
+	/** The offset of the decision function. */
+	private double bias;
+
+	private int numClasses;
+
+	/** Per-thread feature buffers, so that classification does not allocate. */
+	private transient ThreadLocal<FeatureHasher.Features> features =
+			ThreadLocal.withInitial(FeatureHasher.Features::new);
+
+	public int getHashBits() {
+		return hashBits;
+	}
+
+	public void setHashBits(int hashBits) {
+		this.hashBits = hashBits;
+	}
+
+	public int getMinDocumentFrequency() {
+		return minDocumentFrequency;
+	}
+
+	public void setMinDocumentFrequency(int minDocumentFrequency) {
+		this.minDocumentFrequency = minDocumentFrequency;
+	}
+
+	public List<String> getStopWords() {
+		return stopWords;
+	}
+
+	public void setStopWords(List<String> stopWords) {
+		this.stopWords = new ArrayList<>(stopWords);
+	}
+
+	@Override
+	public String[] getOptions() {
+		List<String> options = new ArrayList<>();
+		options.add("-B");
+		options.add(String.valueOf(hashBits));
+		options.add("-M");
+		options.add(String.valueOf(minDocumentFrequency));
+		Collections.addAll(options, super.getOptions());
+		return options.toArray(new String[options.size()]);
+	}
+
+	@Override
+	public void setOptions(String[] options) throws Exception {
+		String bits = Utils.getOption('B', options);
+		if (!bits.isEmpty()) {
+			setHashBits(Integer.parseInt(bits));
+		}
+		String minDocumentFrequency = Utils.getOption('M', options);
+		if (!minDocumentFrequency.isEmpty()) {
+			setMinDocumentFrequency(Integer.parseInt(minDocumentFrequency));
+		}
+		super.setOptions(options);
+	}
+
+	/**
+	 * Trains the classifier on the texts held by the first attribute of the
+	 * given instances. The first class is the positive side of the decision
+	 * function.
+	 */
+	@Override
+	public void buildClassifier(Instances data) throws Exception {
+		if (data.numClasses() != 2) {
+			throw new IllegalArgumentException("Only binary classification is supported");
+		}
+		FeatureHasher hasher = new FeatureHasher(hashBits, MAX_N, stopWords);
+		int dimension = hasher.dimension();
+		int numDocuments = data.numInstances();
+
+		// hash all texts once into compressed rows, counting the documents each feature occurs in
+		FeatureHasher.Features features = new FeatureHasher.Features();
+		int[] documentFrequencies = new int[dimension];
+		int[] offsets = new int[numDocuments + 1];
+		int[] indexes = new int[1024];
+		double[] values = new double[1024];
+		double[] targets = new double[numDocuments];
+		int numValues = 0;
+		for (int i = 0; i < numDocuments; i++) {
+			Instance instance = data.instance(i);
+			hasher.vectorize(instance.stringValue(0), features);
+			if (numValues + features.size() > indexes.length) {
+				int capacity = Math.max(indexes.length * 2, numValues + features.size());
+				indexes = Arrays.copyOf(indexes, capacity);
+				values = Arrays.copyOf(values, capacity);
+			}
+			for (int f = 0; f < features.size(); f++) {
+				indexes[numValues] = features.index(f);
+				values[numValues] = features.value(f);
+				documentFrequencies[features.index(f)]++;
+				numValues++;
+			}
+			offsets[i + 1] = numValues;
+			targets[i] = instance.classValue() == 0 ? 1 : -1;
+		}
+
+		// rare features get no weight, which leaves them out of training
+		double[] idf = new double[dimension];
+		for (int feature = 0; feature < dimension; feature++) {
+			if (documentFrequencies[feature] >= Math.max(1, minDocumentFrequency)) {
+				idf[feature] = Math.log((double) numDocuments / documentFrequencies[feature]);
+			}
+		}
+		for (int v = 0; v < numValues; v++) {
+			values[v] *= idf[indexes[v]];
+		}
+
+		// the last weight is the bias, as a feature of constant value one
+		double[] w = train(offsets, indexes, values, targets, dimension);
+		for (int feature = 0; feature < dimension; feature++) {
+			w[feature] *= idf[feature];
+		}
+
+		this.hasher = hasher;
+		this.bias = w[dimension];
+		this.weights = Arrays.copyOf(w, dimension);
+		this.numClasses = data.numClasses();
+	}
+
+	/**
+	 * Solves the dual of the L1-loss linear SVM by coordinate descent, visiting
+	 * the documents in a random order on each pass until the projected
+	 * gradients are within the tolerance.
+	 */
+	private static double[] train(int[] offsets, int[] indexes, double[] values, double[] targets, int dimension) {
+		int numDocuments = targets.length;
+		double[] w = new double[dimension + 1];
+		double[] alpha = new double[numDocuments];
+		double[] squaredNorms = new double[numDocuments];
+		int[] order = new int[numDocuments];
+		for (int i = 0; i < numDocuments; i++) {
+			double squaredNorm = 1;
+			for (int v = offsets[i]; v < offsets[i + 1]; v++) {
+				squaredNorm += values[v] * values[v];
+			}
+			squaredNorms[i] = squaredNorm;
+			order[i] = i;
+		}
+		Random random = new Random(0);
+		for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+			for (int i = numDocuments - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int swap = order[i];
+				order[i] = order[j];
+				order[j] = swap;
+			}
+			double maxGradient = Double.NEGATIVE_INFINITY;
+			double minGradient = Double.POSITIVE_INFINITY;
+			for (int i : order) {
+				double y = targets[i];
+				double margin = w[dimension];
+				for (int v = offsets[i]; v < offsets[i + 1]; v++) {
+					margin += w[indexes[v]] * values[v];
+				}
+				double gradient = y * margin - 1;
+				double projectedGradient = gradient;
+				if (alpha[i] == 0) {
+					projectedGradient = Math.min(gradient, 0);
+				}
+				else if (alpha[i] == COST) {
+					projectedGradient = Math.max(gradient, 0);
+				}
+				maxGradient = Math.max(maxGradient, projectedGradient);
+				minGradient = Math.min(minGradient, projectedGradient);
+				if (projectedGradient != 0) {
+					double previous = alpha[i];
+					alpha[i] = Math.min(Math.max(previous - gradient / squaredNorms[i], 0), COST);
+					double step = (alpha[i] - previous) * y;
+					for (int v = offsets[i]; v < offsets[i + 1]; v++) {
+						w[indexes[v]] += step * values[v];
+					}
+					w[dimension] += step;
+				}
+			}
+			if (maxGradient - minGradient <= EPSILON) {
+				break;
+			}
+		}
+		return w;
+	}
+
+	/**
+	 * Predicts the class of the given text.
+	 *
+	 * @param text the text to classify
+	 * @return the index of the predicted class
+	 */
+	public int classify(String text) {
+		return decisionValue(text) > 0 ? 0 : 1;
+	}
+
+	@Override
+	public double[] distributionForInstance(Instance instance) {
+		double[] distribution = new double[numClasses];
+		distribution[classify(instance.stringValue(0))] = 1;
+		return distribution;
+	}
+
+	/**
+	 * Computes the decision value of the given text, which is positive for the
+	 * first class.
+	 *
+	 * @param text the text to score
+	 * @return the decision value
+	 */
+	public double decisionValue(String text) {
+		if (hasher == null) {
+			throw new IllegalStateException("The classifier has not been trained");
+		}
+		FeatureHasher.Features features = this.features.get();
+		hasher.vectorize(text, features);
+		double sum = bias;
+		for (int f = 0; f < features.size(); f++) {
+			sum += features.value(f) * weights[features.index(f)];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the number of features of this classifier.
+	 *
+	 * @return the number of features
+	 */
+	public int dimension() {
+		return 1 << hashBits;
+	}
+
+	/**
+	 * Returns the bytes of the dense per-feature arrays training allocates for
+	 * the given number of hash bits, not counting the hashed corpus itself.
+	 *
+	 * @param hashBits the base two logarithm of the number of features
+	 * @return the bytes taken
+	 */
+	public static long trainingBytes(int hashBits) {
+		return (long) TRAINING_BYTES_PER_FEATURE << hashBits;
+	}
+
+	@Override
+	public String toString() {
+		return "HashingSVMClassifier over " + dimension() + " features" + (hasher == null ? ", untrained" : "");
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.features = ThreadLocal.withInitial(FeatureHasher.Features::new);
+	}
+
+}
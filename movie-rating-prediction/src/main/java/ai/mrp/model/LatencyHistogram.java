@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link LatencyHistogram} records latencies into log-linear buckets, so that
+ * percentiles can be read at any time.
+ *
+ * <p>Each power of two of nanoseconds is split into 32 buckets, so recorded
+ * values are accurate to about 3%, up to 2<sup>40</sup> ns (some 18 minutes);
+ * longer latencies are recorded as the maximum. The buckets are a fixed
+ * {@link AtomicLongArray}, so recording takes a few atomic increments and
+ * never allocates or blocks. Reading a snapshot is linear in the number of
+ * buckets and meant for monitoring rather than the hot path.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class LatencyHistogram {
+
+	/** The number of bits of precision, that is of buckets per power of two. */
+	private static final int SUB_BUCKET_BITS = 5;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/** The number of bits of the highest trackable value. */
+	private static final int MAX_BITS = 40;
+
+	private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray((MAX_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+
+	private final LongAdder items = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	private final long startNanos = System.nanoTime();
+
+	/**
+	 * Records a latency.
+	 *
+	 * @param nanos the latency in nanoseconds
+	 */
+	public void record(long nanos) {
+		record(nanos, 1);
+	}
+
+	/**
+	 * Records the latency of an operation which processed the given number of
+	 * items, such as a batch of texts. The items count towards the throughput.
+	 *
+	 * @param nanos the latency in nanoseconds
+	 * @param items the number of items processed
+	 */
+	public void record(long nanos, int items) {
+		long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+		counts.incrementAndGet(index(value));
+		this.items.add(items);
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Reads the current percentiles, mean and throughput.
+	 *
+	 * @return the statistics, with latencies in microseconds
+	 */
+	public LatencyStats getStats() {
+		long[] snapshot = new long[counts.length()];
+		long count = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		double seconds = (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+		long max = this.max.get();
+		return new LatencyStats(count,
+				items.sum() / seconds,
+				count == 0 ? 0 : micros(total.sum() / count),
+				micros(Math.min(max, percentile(snapshot, count, 0.5))),
+				micros(Math.min(max, percentile(snapshot, count, 0.99))),
+				micros(Math.min(max, percentile(snapshot, count, 0.999))),
+				micros(max));
+	}
+
+	/**
+	 * Returns the upper bound of the bucket holding the given quantile.
+	 */
+	private static long percentile(long[] snapshot, long count, double quantile) {
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(quantile * count));
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return upperBound(i);
+			}
+		}
+		return MAX_VALUE;
+	}
+
+	/**
+	 * Returns the bucket of the given value. Values below the number of
+	 * sub-buckets have a bucket each; beyond, each power of two is split into
+	 * as many buckets as there are sub-buckets.
+	 */
+	static int index(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * Returns the highest value of the given bucket.
+	 */
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = index / SUB_BUCKETS - 1;
+		return ((long) (SUB_BUCKETS + index % SUB_BUCKETS + 1) << shift) - 1;
+	}
+
+	private static double micros(long nanos) {
+		return nanos / 1000.0;
+	}
+
+}
@@ -14,33 +14,27 @@
  * limitations under the License.
  */
 
-package ai.mrp.util;
+package ai.mrp.model;
 
-import java.util.concurrent.Callable;
+import java.util.Map;
 
-import org.springframework.util.StopWatch;
-
-import lombok.extern.slf4j.Slf4j;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 
 /**
+ * Latency report data transfer object.
+ *
  * @author Donnabell Dmello <ddmello@usc.edu>
  * @author Venil Noronha <vnoronha@usc.edu>
  */
-@Slf4j
-public class ProfileUtils {
+@Data
+@AllArgsConstructor
+public class LatencyReport {
 
-	private ProfileUtils() { }
+	/** The latencies of classifying a batch, per classifier type. */
+	private Map<ClassifierType, LatencyStats> classifiers;
 
-	public static <T> T profileExecution(Callable<T> callable) throws Exception {
-		StopWatch stopWatch = new StopWatch();
-		stopWatch.start();
-		try {
-			return callable.call();
-		}
-		finally {
-			stopWatch.stop();
-			log.debug(stopWatch.prettyPrint());
-		}
-	}
+	/** The latencies of each stage of the pipeline. */
+	private Map<Stage, LatencyStats> stages;
 
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Latency statistics data transfer object. Latencies are in microseconds.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class LatencyStats {
+
+	/** The number of recorded latencies. */
+	private long count;
+
+	/** The number of items processed per second since startup. */
+	private double throughput;
+
+	/** The mean latency. */
+	private double mean;
+
+	/** The median latency. */
+	private double p50;
+
+	/** The 99th percentile latency. */
+	private double p99;
+
+	/** The 99.9th percentile latency. */
+	private double p999;
+
+	/** The highest latency. */
+	private double max;
+
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LearnedWords} holds the per-class counts of the words an
+ * {@link OnlineNaiveBayesModel} has learned, for just the words learned so far.
+ * A word is either known to the trained dictionary and keyed by its id, or new
+ * and keyed by its lower-cased characters.
+ *
+ * <p>Entries are numbered in the order they are added, and their counts live in
+ * fixed-size chunks of an {@link AtomicLongArray} which are never moved, so
+ * counts are incremented without locking. The key tables are open-addressing
+ * tables whose slots are published through an {@link AtomicIntegerArray} after
+ * the entry they refer to is complete, so lookups neither lock nor allocate.
+ * Entries are added under a lock; when the tables are full they are copied into
+ * larger ones, which replace them as a whole.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+final class LearnedWords {
+
+	/** The base two logarithm of the number of entries per count chunk. */
+	private static final int CHUNK_BITS = 10;
+
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+	private final int numClasses;
+
+	/** The maximum number of new words to add. */
+	private final int maximumNewWords;
+
+	private volatile Tables tables;
+
+	/** The number of entries, guarded by {@code this}. */
+	private int size;
+
+	/** The number of new words. */
+	private volatile int newWords;
+
+	LearnedWords(int numClasses, int maximumNewWords) {
+		this.numClasses = numClasses;
+		this.maximumNewWords = maximumNewWords;
+		this.tables = new Tables(CHUNK_SIZE, numClasses, null);
+	}
+
+	/**
+	 * Returns the number of new words.
+	 *
+	 * @return the number of new words
+	 */
+	int newWords() {
+		return newWords;
+	}
+
+	/**
+	 * Returns the entry of the given trained word.
+	 *
+	 * @param id the id of the word in the trained dictionary
+	 * @return the entry, or {@code -1} if nothing has been learned for the word
+	 */
+	int find(int id) {
+		return find(tables, id);
+	}
+
+	/**
+	 * Returns the entry of the new word held by the lower-cased form of the given
+	 * range of characters.
+	 *
+	 * @param text the characters holding the word
+	 * @param start the start index of the word, inclusive
+	 * @param end the end index of the word, exclusive
+	 * @return the entry, or {@code -1} if the word has not been learned
+	 */
+	int find(CharSequence text, int start, int end) {
+		return find(tables, text, start, end, hashLowerCase(text, start, end));
+	}
+
+	/**
+	 * Returns the entry of the given trained word, adding it if needed.
+	 *
+	 * @param id the id of the word in the trained dictionary
+	 * @return the entry
+	 */
+	int add(int id) {
+		int entry = find(id);
+		if (entry >= 0) {
+			return entry;
+		}
+		synchronized (this) {
+			Tables tables = this.tables;
+			entry = find(tables, id);
+			if (entry < 0) {
+				tables = reserve();
+				entry = size++;
+				tables.ids[entry] = id;
+				insert(tables.idSlots, mix(id), entry);
+			}
+			return entry;
+		}
+	}
+
+	/**
+	 * Returns the entry of the new word held by the lower-cased form of the given
+	 * range of characters, adding it if the maximum number of new words has not
+	 * been reached.
+	 *
+	 * @param text the characters holding the word
+	 * @param start the start index of the word, inclusive
+	 * @param end the end index of the word, exclusive
+	 * @return the entry, or {@code -1} if the word is not known and may not be added
+	 */
+	int add(CharSequence text, int start, int end) {
+		int hash = hashLowerCase(text, start, end);
+		int entry = find(tables, text, start, end, hash);
+		if (entry >= 0 || newWords >= maximumNewWords) {
+			return entry;
+		}
+		synchronized (this) {
+			Tables tables = this.tables;
+			entry = find(tables, text, start, end, hash);
+			if (entry < 0 && newWords < maximumNewWords) {
+				char[] chars = new char[end - start];
+				for (int i = start; i < end; i++) {
+					chars[i - start] = Character.toLowerCase(text.charAt(i));
+				}
+				tables = reserve();
+				entry = size++;
+				tables.ids[entry] = -1;
+				tables.words[entry] = new String(chars);
+				tables.hashes[entry] = hash;
+				insert(tables.wordSlots, hash, entry);
+				newWords++;
+			}
+			return entry;
+		}
+	}
+
+	/**
+	 * Returns the learned count of the given entry in the given class.
+	 *
+	 * @param entry the entry
+	 * @param ordinal the class ordinal
+	 * @return the count
+	 */
+	long count(int entry, int ordinal) {
+		return tables.counts[entry >>> CHUNK_BITS].get((entry & (CHUNK_SIZE - 1)) * numClasses + ordinal);
+	}
+
+	/**
+	 * Increments the learned count of the given entry in the given class.
+	 *
+	 * @param entry the entry
+	 * @param ordinal the class ordinal
+	 */
+	void increment(int entry, int ordinal) {
+		tables.counts[entry >>> CHUNK_BITS].incrementAndGet((entry & (CHUNK_SIZE - 1)) * numClasses + ordinal);
+	}
+
+	private static int find(Tables tables, int id) {
+		AtomicIntegerArray slots = tables.idSlots;
+		int mask = slots.length() - 1;
+		for (int slot = mix(id) & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots.get(slot);
+			if (entry == 0) {
+				return -1;
+			}
+			if (tables.ids[entry - 1] == id) {
+				return entry - 1;
+			}
+		}
+	}
+
+	private static int find(Tables tables, CharSequence text, int start, int end, int hash) {
+		AtomicIntegerArray slots = tables.wordSlots;
+		int mask = slots.length() - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots.get(slot);
+			if (entry == 0) {
+				return -1;
+			}
+			if (tables.hashes[entry - 1] == hash && matchesLowerCase(tables.words[entry - 1], text, start, end)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Makes room for one more entry, replacing the tables with larger ones if
+	 * they are full. Must be called holding the lock.
+	 */
+	private Tables reserve() {
+		Tables tables = this.tables;
+		if (size == tables.ids.length) {
+			tables = new Tables(size * 2, numClasses, tables);
+			for (int entry = 0; entry < size; entry++) {
+				if (tables.ids[entry] >= 0) {
+					insert(tables.idSlots, mix(tables.ids[entry]), entry);
+				}
+				else {
+					insert(tables.wordSlots, tables.hashes[entry], entry);
+				}
+			}
+			this.tables = tables;
+		}
+		return tables;
+	}
+
+	private static void insert(AtomicIntegerArray slots, int hash, int entry) {
+		int mask = slots.length() - 1;
+		int slot = hash & mask;
+		while (slots.get(slot) != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots.set(slot, entry + 1);
+	}
+
+	private static boolean matchesLowerCase(String word, CharSequence text, int start, int end) {
+		if (word.length() != end - start) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			if (word.charAt(i - start) != Character.toLowerCase(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hashes the lower-cased form of the given range of characters, as
+	 * {@link TokenDictionary} does.
+	 */
+	private static int hashLowerCase(CharSequence text, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + Character.toLowerCase(text.charAt(i));
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Spreads the bits of a word id, as consecutive ids would otherwise fill
+	 * consecutive slots.
+	 */
+	private static int mix(int id) {
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * {@link Tables} holds the entries and key tables for a given capacity. The
+	 * count chunks are carried over from the tables they replace.
+	 */
+	private static final class Tables {
+
+		/** The trained word id of each entry, or {@code -1} for new words. */
+		private final int[] ids;
+
+		/** The new word of each entry, or {@code null} for trained words. */
+		private final String[] words;
+
+		/** The hash code of the new word of each entry. */
+		private final int[] hashes;
+
+		/** The counts of each chunk of entries, indexed by {@code entry * numClasses + ordinal}. */
+		private final AtomicLongArray[] counts;
+
+		/** The slots keyed by trained word id, holding {@code entry + 1}, or {@code 0} if empty. */
+		private final AtomicIntegerArray idSlots;
+
+		/** The slots keyed by new word, holding {@code entry + 1}, or {@code 0} if empty. */
+		private final AtomicIntegerArray wordSlots;
+
+		private Tables(int capacity, int numClasses, Tables previous) {
+			int tableSize = TokenDictionary.tableSizeFor(capacity);
+			this.idSlots = new AtomicIntegerArray(tableSize);
+			this.wordSlots = new AtomicIntegerArray(tableSize);
+			int numChunks = capacity >>> CHUNK_BITS;
+			if (previous == null) {
+				this.ids = new int[capacity];
+				this.words = new String[capacity];
+				this.hashes = new int[capacity];
+				this.counts = new AtomicLongArray[numChunks];
+			}
+			else {
+				this.ids = Arrays.copyOf(previous.ids, capacity);
+				this.words = Arrays.copyOf(previous.words, capacity);
+				this.hashes = Arrays.copyOf(previous.hashes, capacity);
+				this.counts = Arrays.copyOf(previous.counts, numChunks);
+			}
+			for (int chunk = previous == null ? 0 : previous.counts.length; chunk < numChunks; chunk++) {
+				counts[chunk] = new AtomicLongArray(CHUNK_SIZE * numClasses);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Online learning statistics data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class LearningStats {
+
+	/** The number of texts the model in use has learned, including logged texts learned again on reload. */
+	private long texts;
+
+	/** The number of learned words which are unknown to the trained model. */
+	private int newWords;
+
+	/** The number of distinct words known to the model. */
+	private int vocabularySize;
+
+	/**
+	 * The number of learned texts which are no longer kept to be learned again,
+	 * and so were or will be lost when the model is reloaded.
+	 */
+	private long forgottenTexts;
+
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.springframework.util.ReflectionUtils;
+
+import ai.mrp.util.BufferUtils;
+import ai.mrp.util.ByteBufferInputStream;
+import libsvm.svm_model;
+import libsvm.svm_node;
+import libsvm.svm_parameter;
+import weka.classifiers.functions.LibSVM;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.DictionaryBuilder;
+import weka.core.Instances;
+import weka.core.stemmers.NullStemmer;
+import weka.core.tokenizers.NGramTokenizer;
+import weka.filters.unsupervised.attribute.StringToWordVector;
+
+/**
+ * {@link LinearSVMModel} is an immutable inference model compiled from a
+ * trained linear-kernel {@link LibSVM} classifier behind a
+ * {@link StringToWordVector} filter.
+ *
+ * <p>With a linear kernel the decision value is a dot product with each
+ * support vector, so the support vectors and their coefficients are folded into
+ * a single weight per dictionary term, along with the IDF factor of the term.
+ * Classifying a text then takes one pass over its n-grams which sums the
+ * weights of the known ones, instead of vectorizing the text through the filter
+ * and evaluating the kernel against every support vector. Tokenization, term
+ * weighting and the probability estimates replicate those of the Weka path, so
+ * predictions are the same.
+ *
+ * <p>A compiled model can be written with {@link #write(DataOutputStream)} and
+ * read back in place with {@link #read(ByteBuffer)}, in which case its terms and
+ * weights stay in the buffer rather than being copied to the heap.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class LinearSVMModel {
+
+	/** The smallest probability estimate, as clamped by LibSVM. */
+	private static final double MIN_PROBABILITY = 1e-7;
+
+	private final TokenIndex terms;
+
+	/** The folded weight of each term, indexed by term id. */
+	private final DoubleBuffer weights;
+
+	/** The negated offset of the decision function. */
+	private final double bias;
+
+	private final boolean outputCounts;
+	private final boolean tfTransform;
+	private final boolean lowerCaseTokens;
+
+	private final String delimiters;
+	private final int minN;
+	private final int maxN;
+
+	/** The names of the classes, indexed by class index. */
+	private final String[] classNames;
+
+	/** The class indexes of the first and second LibSVM labels. */
+	private final int[] labels;
+
+	/** Whether the class is decided on Platt-scaled probability estimates. */
+	private final boolean probabilityEstimates;
+	private final double probA;
+	private final double probB;
+
+	/** Per-thread token buffers, so that classification does not allocate. */
+	private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+	private LinearSVMModel(TokenIndex terms, DoubleBuffer weights, double bias, boolean outputCounts,
+			boolean tfTransform, boolean lowerCaseTokens, String delimiters, int minN, int maxN, String[] classNames,
+			int[] labels, boolean probabilityEstimates, double probA, double probB) {
+		this.terms = terms;
+		this.weights = weights;
+		this.bias = bias;
+		this.outputCounts = outputCounts;
+		this.tfTransform = tfTransform;
+		this.lowerCaseTokens = lowerCaseTokens;
+		this.delimiters = delimiters;
+		this.minN = minN;
+		this.maxN = maxN;
+		this.classNames = classNames;
+		this.labels = labels;
+		this.probabilityEstimates = probabilityEstimates;
+		this.probA = probA;
+		this.probB = probB;
+	}
+
+	/**
+	 * Compiles the given trained classifier.
+	 *
+	 * @param classifier the trained classifier
+	 * @param header the header of the training data
+	 * @return the compiled model
+	 * @throws IllegalArgumentException if the classifier is not a binary
+	 *         linear-kernel LibSVM behind an n-gram, non-normalizing
+	 *         {@link StringToWordVector}
+	 */
+	public static LinearSVMModel of(FilteredClassifier classifier, Instances header) {
+		if (!(classifier.getFilter() instanceof StringToWordVector) || !(classifier.getClassifier() instanceof LibSVM)) {
+			throw new IllegalArgumentException("Not a LibSVM classifier behind a StringToWordVector filter");
+		}
+		StringToWordVector filter = (StringToWordVector) classifier.getFilter();
+		LibSVM libSVM = (LibSVM) classifier.getClassifier();
+		if (!(filter.getTokenizer() instanceof NGramTokenizer) || !(filter.getStemmer() instanceof NullStemmer)
+				|| filter.getNormalizeDocLength().getSelectedTag().getID() != StringToWordVector.FILTER_NONE
+				|| libSVM.getNormalize()) {
+			throw new IllegalArgumentException("Unsupported filter or classifier settings");
+		}
+		svm_model model = getField(LibSVM.class, "m_Model", libSVM);
+		if (model.param.kernel_type != svm_parameter.LINEAR || model.nr_class != 2
+				|| (model.param.svm_type != svm_parameter.C_SVC && model.param.svm_type != svm_parameter.NU_SVC)) {
+			throw new IllegalArgumentException("Not a binary linear-kernel classification SVM");
+		}
+		DictionaryBuilder dictionaryBuilder = getField(StringToWordVector.class, "m_dictionaryBuilder", filter);
+		Map<String, int[]> dictionary = getField(DictionaryBuilder.class, "m_consolidatedDict", dictionaryBuilder);
+		int numDocuments = getField(DictionaryBuilder.class, "m_count", dictionaryBuilder);
+
+		Instances format;
+		try {
+			format = dictionaryBuilder.getVectorizedFormat();
+		}
+		catch (Exception e) {
+			throw new IllegalArgumentException("The filter has not been trained", e);
+		}
+
+		// LibSVM feature indexes are attribute indexes plus one
+		double[] featureWeights = new double[format.numAttributes() + 1];
+		double[] coefficients = model.sv_coef[0];
+		for (int i = 0; i < model.l; i++) {
+			for (svm_node node : model.SV[i]) {
+				featureWeights[node.index] += coefficients[i] * node.value;
+			}
+		}
+
+		TokenDictionary terms = new TokenDictionary(dictionary.size());
+		double[] weights = new double[dictionary.size()];
+		for (Map.Entry<String, int[]> entry : dictionary.entrySet()) {
+			int id = terms.intern(entry.getKey());
+			int attribute = format.attribute(filter.getAttributeNamePrefix() + entry.getKey()).index();
+			double weight = featureWeights[attribute + 1];
+			if (filter.getIDFTransform()) {
+				weight *= Math.log((double) numDocuments / entry.getValue()[1]);
+			}
+			weights[id] = weight;
+		}
+
+		String[] classNames = new String[header.numClasses()];
+		for (int c = 0; c < classNames.length; c++) {
+			classNames[c] = header.classAttribute().value(c);
+		}
+
+		boolean probabilityEstimates = libSVM.getProbabilityEstimates() && model.probA != null && model.probB != null;
+		NGramTokenizer tokenizer = (NGramTokenizer) filter.getTokenizer();
+		return new LinearSVMModel(terms, DoubleBuffer.wrap(weights), -model.rho[0], filter.getOutputWordCounts(),
+				filter.getTFTransform(), filter.getLowerCaseTokens(), tokenizer.getDelimiters(),
+				tokenizer.getNGramMinSize(), tokenizer.getNGramMaxSize(), classNames, model.label.clone(),
+				probabilityEstimates, probabilityEstimates ? model.probA[0] : 0, probabilityEstimates ? model.probB[0] : 0);
+	}
+
+	/**
+	 * Writes this model in the layout read by {@link #read(ByteBuffer)}: the
+	 * class names and settings, then the terms as laid out by
+	 * {@link MappedTokenIndex}, then the {@code double} weights in term id order.
+	 *
+	 * @param out the stream to write the model to
+	 * @throws IOException if writing fails
+	 */
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(classNames.length);
+		for (String className : classNames) {
+			out.writeUTF(className);
+		}
+		out.writeInt(labels[0]);
+		out.writeInt(labels[1]);
+		out.writeBoolean(outputCounts);
+		out.writeBoolean(tfTransform);
+		out.writeBoolean(lowerCaseTokens);
+		out.writeUTF(delimiters);
+		out.writeInt(minN);
+		out.writeInt(maxN);
+		out.writeDouble(bias);
+		out.writeBoolean(probabilityEstimates);
+		out.writeDouble(probA);
+		out.writeDouble(probB);
+		MappedTokenIndex.write(terms, out);
+		for (int id = 0; id < terms.size(); id++) {
+			out.writeDouble(weights.get(id));
+		}
+	}
+
+	/**
+	 * Reads a model written by {@link #write(DataOutputStream)}. The terms and
+	 * weights of the model refer to the contents of the buffer rather than
+	 * copying them.
+	 *
+	 * @param payload the buffer to read the model from
+	 * @return the model
+	 * @throws IOException if the buffer does not hold a valid model
+	 */
+	public static LinearSVMModel read(ByteBuffer payload) throws IOException {
+		// reads the settings straight from the buffer, leaving it positioned at the terms
+		DataInputStream in = new DataInputStream(new ByteBufferInputStream(payload));
+		String[] classNames = new String[in.readInt()];
+		for (int c = 0; c < classNames.length; c++) {
+			classNames[c] = in.readUTF();
+		}
+		int[] labels = { in.readInt(), in.readInt() };
+		if (labels[0] < 0 || labels[0] >= classNames.length || labels[1] < 0 || labels[1] >= classNames.length) {
+			throw new IOException("Corrupt class labels");
+		}
+		boolean outputCounts = in.readBoolean();
+		boolean tfTransform = in.readBoolean();
+		boolean lowerCaseTokens = in.readBoolean();
+		String delimiters = in.readUTF();
+		int minN = in.readInt();
+		int maxN = in.readInt();
+		double bias = in.readDouble();
+		boolean probabilityEstimates = in.readBoolean();
+		double probA = in.readDouble();
+		double probB = in.readDouble();
+
+		MappedTokenIndex terms = MappedTokenIndex.read(payload);
+		DoubleBuffer weights = BufferUtils.slice(payload, 8L * terms.size()).asDoubleBuffer();
+		if (payload.hasRemaining()) {
+			throw new IOException("Unexpected trailing bytes");
+		}
+		return new LinearSVMModel(terms, weights, bias, outputCounts, tfTransform, lowerCaseTokens, delimiters, minN,
+				maxN, classNames, labels, probabilityEstimates, probA, probB);
+	}
+
+	/**
+	 * Predicts the class of the given text, as prepared for the filter.
+	 *
+	 * @param text the text to classify
+	 * @return the index of the predicted class
+	 */
+	public int classify(String text) {
+		double decisionValue = decisionValue(text);
+		double[] distribution = new double[classNames.length];
+		if (probabilityEstimates) {
+			double fApB = decisionValue * probA + probB;
+			double probability = fApB >= 0 ? Math.exp(-fApB) / (1.0 + Math.exp(-fApB)) : 1.0 / (1.0 + Math.exp(fApB));
+			probability = Math.min(Math.max(probability, MIN_PROBABILITY), 1 - MIN_PROBABILITY);
+			distribution[labels[0]] = probability;
+			distribution[labels[1]] = 1 - probability;
+		}
+		else {
+			distribution[decisionValue > 0 ? labels[0] : labels[1]] = 1;
+		}
+		int best = 0;
+		for (int c = 1; c < classNames.length; c++) {
+			if (distribution[c] > distribution[best]) {
+				best = c;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Computes the decision value of the given text, which is positive for the
+	 * first LibSVM label.
+	 *
+	 * @param text the text to score
+	 * @return the decision value
+	 */
+	public double decisionValue(String text) {
+		Scratch scratch = this.scratch.get();
+		int numWords = split(text, scratch);
+		int numIds = 0;
+		for (int n = Math.min(maxN, numWords); n >= minN; n--) {
+			for (int position = 0; position + n <= numWords; position++) {
+				int length = gram(text, scratch, position, n);
+				int id = terms.id(scratch.gram, 0, length);
+				if (id >= 0) {
+					if (numIds == scratch.ids.length) {
+						scratch.ids = Arrays.copyOf(scratch.ids, numIds * 2);
+					}
+					scratch.ids[numIds++] = id;
+				}
+			}
+		}
+
+		// sort the ids so that the occurrences of each term are adjacent
+		int[] ids = scratch.ids;
+		Arrays.sort(ids, 0, numIds);
+		double sum = 0;
+		for (int i = 0; i < numIds; ) {
+			int id = ids[i];
+			int count = 0;
+			for (; i < numIds && ids[i] == id; i++) {
+				count++;
+			}
+			double value = outputCounts ? count : 1;
+			if (tfTransform) {
+				value = Math.log(value + 1);
+			}
+			sum += value * weights.get(id);
+		}
+		return sum + bias;
+	}
+
+	/**
+	 * Returns the number of classes.
+	 *
+	 * @return the number of classes
+	 */
+	public int numClasses() {
+		return classNames.length;
+	}
+
+	/**
+	 * Returns the name of the class with the given index.
+	 *
+	 * @param index the class index
+	 * @return the class name
+	 */
+	public String className(int index) {
+		return classNames[index];
+	}
+
+	/**
+	 * Returns the number of terms known to this model.
+	 *
+	 * @return the number of terms
+	 */
+	public int vocabularySize() {
+		return terms.size();
+	}
+
+	/**
+	 * Splits the text into words at the delimiters, recording their bounds in
+	 * the scratch buffers.
+	 */
+	private int split(String text, Scratch scratch) {
+		int numWords = 0;
+		int start = -1;
+		int length = text.length();
+		for (int i = 0; i <= length; i++) {
+			if (i < length && delimiters.indexOf(text.charAt(i)) < 0) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				if (numWords == scratch.starts.length) {
+					scratch.starts = Arrays.copyOf(scratch.starts, numWords * 2);
+					scratch.ends = Arrays.copyOf(scratch.ends, numWords * 2);
+				}
+				scratch.starts[numWords] = start;
+				scratch.ends[numWords] = i;
+				numWords++;
+				start = -1;
+			}
+		}
+		return numWords;
+	}
+
+	/**
+	 * Writes the n-gram of the given words, joined by single spaces, into the
+	 * scratch gram buffer.
+	 */
+	private int gram(String text, Scratch scratch, int position, int n) {
+		int length = n - 1;
+		for (int w = position; w < position + n; w++) {
+			length += scratch.ends[w] - scratch.starts[w];
+		}
+		if (length > scratch.gram.length) {
+			scratch.gram = new char[Math.max(length, scratch.gram.length * 2)];
+		}
+		char[] gram = scratch.gram;
+		int offset = 0;
+		for (int w = position; w < position + n; w++) {
+			if (w > position) {
+				gram[offset++] = ' ';
+			}
+			for (int i = scratch.starts[w]; i < scratch.ends[w]; i++) {
+				char c = text.charAt(i);
+				gram[offset++] = lowerCaseTokens ? Character.toLowerCase(c) : c;
+			}
+		}
+		return length;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T getField(Class<?> type, String name, Object target) {
+		Field field = ReflectionUtils.findField(type, name);
+		if (field == null) {
+			throw new IllegalArgumentException("No field " + name + " in " + type.getName());
+		}
+		ReflectionUtils.makeAccessible(field);
+		return (T) ReflectionUtils.getField(field, target);
+	}
+
+	/**
+	 * {@link Scratch} holds the reusable buffers of a classifying thread.
+	 */
+	private static final class Scratch {
+
+		private int[] starts = new int[64];
+		private int[] ends = new int[64];
+		private int[] ids = new int[256];
+		private char[] gram = new char[256];
+
+	}
+
+}
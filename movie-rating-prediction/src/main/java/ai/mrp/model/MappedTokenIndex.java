@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+
+import ai.mrp.util.BufferUtils;
+
+/**
+ * {@link MappedTokenIndex} is a read-only {@link TokenIndex} whose hash table
+ * and tokens live in a {@link ByteBuffer}, typically a memory-mapped snapshot,
+ * rather than on the heap.
+ *
+ * <p>The buffer holds the number of tokens, the hash table size and the total
+ * number of token characters, followed by the hash table slots holding
+ * {@code id + 1} or {@code 0} if empty, the hash code of each token, the offset
+ * of each token in the character block plus the total, and the character block
+ * itself. The table uses the hashing and linear probing of
+ * {@link TokenDictionary}, so lookups are done in place against the buffer and
+ * only {@link #token(int)} creates strings. Since a mapped buffer is backed by
+ * the page cache, processes mapping the same file share one copy of the index.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class MappedTokenIndex implements TokenIndex {
+
+	private final int size;
+
+	/** The hash table slots holding {@code id + 1}, or {@code 0} if empty. */
+	private final IntBuffer slots;
+
+	/** The hash codes of the tokens indexed by id. */
+	private final IntBuffer hashes;
+
+	/** The offset of each token in {@link #chars}, followed by the total. */
+	private final IntBuffer offsets;
+
+	/** The characters of all tokens, back to back in id order. */
+	private final CharBuffer chars;
+
+	private final int mask;
+
+	private MappedTokenIndex(int size, IntBuffer slots, IntBuffer hashes, IntBuffer offsets, CharBuffer chars) {
+		this.size = size;
+		this.slots = slots;
+		this.hashes = hashes;
+		this.offsets = offsets;
+		this.chars = chars;
+		this.mask = slots.limit() - 1;
+	}
+
+	/**
+	 * Writes the given index in the layout read by {@link #read(ByteBuffer)}.
+	 *
+	 * @param index the index to write
+	 * @param out the stream to write the index to
+	 * @throws IOException if writing fails
+	 */
+	public static void write(TokenIndex index, DataOutputStream out) throws IOException {
+		int size = index.size();
+		int[] slots = new int[TokenDictionary.tableSizeFor(size)];
+		int[] hashes = new int[size];
+		int[] offsets = new int[size + 1];
+		int mask = slots.length - 1;
+		int numChars = 0;
+		for (int id = 0; id < size; id++) {
+			String token = index.token(id);
+			int hash = TokenDictionary.hash(token, 0, token.length());
+			int slot = hash & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = id + 1;
+			hashes[id] = hash;
+			offsets[id] = numChars;
+			numChars = Math.addExact(numChars, token.length());
+		}
+		offsets[size] = numChars;
+
+		out.writeInt(size);
+		out.writeInt(slots.length);
+		out.writeInt(numChars);
+		for (int entry : slots) {
+			out.writeInt(entry);
+		}
+		for (int hash : hashes) {
+			out.writeInt(hash);
+		}
+		for (int offset : offsets) {
+			out.writeInt(offset);
+		}
+		for (int id = 0; id < size; id++) {
+			out.writeChars(index.token(id));
+		}
+	}
+
+	/**
+	 * Reads an index from the current position of the given buffer, which is
+	 * advanced past it. The index refers to the contents of the buffer rather
+	 * than copying them.
+	 *
+	 * @param payload the buffer to read the index from
+	 * @return the index
+	 * @throws IOException if the buffer does not hold a valid index
+	 */
+	public static MappedTokenIndex read(ByteBuffer payload) throws IOException {
+		int size = payload.getInt();
+		int tableSize = payload.getInt();
+		int numChars = payload.getInt();
+		if (size < 0 || numChars < 0 || Integer.bitCount(tableSize) != 1 || tableSize <= size) {
+			throw new IOException("Corrupt token index");
+		}
+		IntBuffer slots = BufferUtils.slice(payload, 4L * tableSize).asIntBuffer();
+		IntBuffer hashes = BufferUtils.slice(payload, 4L * size).asIntBuffer();
+		IntBuffer offsets = BufferUtils.slice(payload, 4L * (size + 1)).asIntBuffer();
+		CharBuffer chars = BufferUtils.slice(payload, 2L * numChars).asCharBuffer();
+		if (offsets.get(size) != numChars) {
+			throw new IOException("Corrupt token index");
+		}
+		return new MappedTokenIndex(size, slots, hashes, offsets, chars);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String token(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("Unknown token id: " + id);
+		}
+		int offset = offsets.get(id);
+		char[] token = new char[offsets.get(id + 1) - offset];
+		for (int i = 0; i < token.length; i++) {
+			token[i] = chars.get(offset + i);
+		}
+		return new String(token);
+	}
+
+	@Override
+	public int id(char[] chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + chars[i];
+		}
+		int hash = h ^ (h >>> 16);
+		int length = end - start;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots.get(slot);
+			if (entry == 0) {
+				return -1;
+			}
+			if (hashes.get(entry - 1) == hash && matches(entry - 1, chars, start, length)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	@Override
+	public int lookupLowerCase(CharSequence chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + Character.toLowerCase(chars.charAt(i));
+		}
+		int hash = h ^ (h >>> 16);
+		int length = end - start;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots.get(slot);
+			if (entry == 0) {
+				return -1;
+			}
+			if (hashes.get(entry - 1) == hash && matchesLowerCase(entry - 1, chars, start, length)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	private boolean matches(int id, char[] chars, int start, int length) {
+		int offset = offsets.get(id);
+		if (offsets.get(id + 1) - offset != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (this.chars.get(offset + i) != chars[start + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean matchesLowerCase(int id, CharSequence chars, int start, int length) {
+		int offset = offsets.get(id);
+		if (offsets.get(id + 1) - offset != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (this.chars.get(offset + i) != Character.toLowerCase(chars.charAt(start + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
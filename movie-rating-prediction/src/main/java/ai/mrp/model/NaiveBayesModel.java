@@ -0,0 +1,279 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * {@link NaiveBayesModel} is an immutable inference model built from a trained
+ * {@link DataModel}.
+ *
+ * <p>The per-word log-likelihoods of all classes are stored side by side in a
+ * single buffer, so scoring a text is one pass over its words that accumulates
+ * the scores of every class at once. Likelihoods use add-one smoothing and are
+ * summed in log space, which keeps long texts from underflowing. The raw word
+ * counts are kept alongside, in the same layout, for models which keep
+ * learning on top of this one.
+ *
+ * <p>The dictionary, counts and log-likelihoods are held behind
+ * {@link TokenIndex} and NIO buffer views, so a model is either backed by heap
+ * arrays or read in place from a memory-mapped snapshot.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class NaiveBayesModel<C extends Enum<C>> {
+
+	private final Class<C> clazz;
+	private final C[] classes;
+	private final TokenIndex dictionary;
+
+	/** The number of trained words of each class, indexed by class ordinal. */
+	private final long[] totals;
+
+	/** The log prior of each class, indexed by class ordinal. */
+	private final double[] logPriors;
+
+	/** The trained word counts, indexed by {@code wordId * classes.length + ordinal}. */
+	private final IntBuffer counts;
+
+	/** The log-likelihoods, indexed by {@code wordId * classes.length + ordinal}. */
+	private final DoubleBuffer logLikelihoods;
+
+	/** Per-thread score accumulators, so that scoring does not allocate. */
+	private final ThreadLocal<double[]> scratch;
+
+	private NaiveBayesModel(Class<C> clazz, TokenIndex dictionary, long[] totals, IntBuffer counts,
+			DoubleBuffer logLikelihoods) {
+		this.clazz = clazz;
+		this.classes = clazz.getEnumConstants();
+		this.dictionary = dictionary;
+		this.totals = totals;
+		this.counts = counts;
+		this.logLikelihoods = logLikelihoods;
+
+		long totalWords = 0;
+		for (long total : totals) {
+			totalWords += total;
+		}
+		this.logPriors = new double[classes.length];
+		for (int c = 0; c < classes.length; c++) {
+			logPriors[c] = Math.log((double) totals[c] / totalWords);
+		}
+		this.scratch = ThreadLocal.withInitial(() -> new double[classes.length]);
+	}
+
+	/**
+	 * Builds an inference model out of the given trained {@link DataModel}. The
+	 * data model must not be modified afterwards, since its dictionary is shared.
+	 *
+	 * @param dataModel the trained data model
+	 * @return the inference model
+	 */
+	public static <C extends Enum<C>> NaiveBayesModel<C> of(DataModel<C> dataModel) {
+		C[] classes = dataModel.getType().getEnumConstants();
+		TokenDictionary dictionary = dataModel.getDictionary();
+		int numClasses = classes.length;
+		int vocabularySize = dictionary.size();
+
+		long[] totals = new long[numClasses];
+		double[] logNormalizers = new double[numClasses];
+		for (C type : classes) {
+			totals[type.ordinal()] = dataModel.total(type);
+			logNormalizers[type.ordinal()] = Math.log((double) dataModel.total(type) + vocabularySize);
+		}
+
+		int[] counts = new int[vocabularySize * numClasses];
+		double[] logLikelihoods = new double[vocabularySize * numClasses];
+		for (int id = 0; id < vocabularySize; id++) {
+			for (C type : classes) {
+				int count = dataModel.get(type, id);
+				counts[id * numClasses + type.ordinal()] = count;
+				logLikelihoods[id * numClasses + type.ordinal()] =
+						Math.log(count + 1.0) - logNormalizers[type.ordinal()];
+			}
+		}
+		return new NaiveBayesModel<>(dataModel.getType(), dictionary, totals, IntBuffer.wrap(counts),
+				DoubleBuffer.wrap(logLikelihoods));
+	}
+
+	/**
+	 * Creates an inference model over the given dictionary and buffers, which
+	 * are read in place and must not be modified afterwards.
+	 *
+	 * @param clazz the class type
+	 * @param dictionary the dictionary of the trained words
+	 * @param totals the number of trained words of each class, indexed by class
+	 *        ordinal
+	 * @param counts the trained word counts, indexed by
+	 *        {@code wordId * numClasses + ordinal}
+	 * @param logLikelihoods the log-likelihoods, indexed like the counts
+	 * @return the inference model
+	 * @throws IllegalArgumentException if the sizes do not match
+	 */
+	public static <C extends Enum<C>> NaiveBayesModel<C> of(Class<C> clazz, TokenIndex dictionary, long[] totals,
+			IntBuffer counts, DoubleBuffer logLikelihoods) {
+		int numClasses = clazz.getEnumConstants().length;
+		long size = (long) dictionary.size() * numClasses;
+		if (totals.length != numClasses || counts.limit() != size || logLikelihoods.limit() != size) {
+			throw new IllegalArgumentException("Mismatching model sizes");
+		}
+		return new NaiveBayesModel<>(clazz, dictionary, totals.clone(), counts, logLikelihoods);
+	}
+
+	public Class<C> getType() {
+		return clazz;
+	}
+
+	public TokenIndex getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * Returns the trained count of the given word in the given class.
+	 *
+	 * @param type the class type
+	 * @param id the word id
+	 * @return the count
+	 */
+	public int count(C type, int id) {
+		return counts.get(id * classes.length + type.ordinal());
+	}
+
+	/**
+	 * Returns the log-likelihood of the given word in the given class.
+	 *
+	 * @param type the class type
+	 * @param id the word id
+	 * @return the log-likelihood
+	 */
+	public double logLikelihood(C type, int id) {
+		return logLikelihoods.get(id * classes.length + type.ordinal());
+	}
+
+	/**
+	 * Returns the number of trained words of the given class.
+	 *
+	 * @param type the class type
+	 * @return the number of words
+	 */
+	public long total(C type) {
+		return totals[type.ordinal()];
+	}
+
+	/**
+	 * Predicts the class of the given text. Words are separated by white space
+	 * and matched case-insensitively; unknown words are ignored. Ties go to the
+	 * class with the lowest ordinal.
+	 *
+	 * @param text the text to classify
+	 * @return the predicted class
+	 */
+	public C classify(CharSequence text) {
+		return classes[best(score(text))];
+	}
+
+	/**
+	 * Predicts the class of the given text if the model is confident about it,
+	 * that is if the log-odds of the best class over the runner-up are at least
+	 * the given margin.
+	 *
+	 * @param text the text to classify
+	 * @param minMargin the minimum log-odds margin
+	 * @return the predicted class, or {@code null} if the margin is smaller
+	 */
+	public C classify(CharSequence text, double minMargin) {
+		double[] scores = score(text);
+		int best = best(scores);
+		return margin(scores, best) >= minMargin ? classes[best] : null;
+	}
+
+	/**
+	 * Computes the log-space score of each class for the given text.
+	 *
+	 * <p>The returned array is reused by subsequent calls on the same thread and
+	 * must be consumed before scoring the next text.
+	 *
+	 * @param text the text to score
+	 * @return the scores indexed by class ordinal
+	 */
+	public double[] score(CharSequence text) {
+		final int numClasses = classes.length;
+		final double[] scores = scratch.get();
+		System.arraycopy(logPriors, 0, scores, 0, numClasses);
+
+		final int length = text.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean boundary = i == length || Character.isWhitespace(text.charAt(i));
+			if (!boundary) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				int id = dictionary.lookupLowerCase(text, start, i);
+				if (id >= 0) {
+					int offset = id * numClasses;
+					for (int c = 0; c < numClasses; c++) {
+						scores[c] += logLikelihoods.get(offset + c);
+					}
+				}
+				start = -1;
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Returns the index of the highest score, or of the first one if tied.
+	 */
+	static int best(double[] scores) {
+		int best = 0;
+		for (int c = 1; c < scores.length; c++) {
+			if (scores[c] > scores[best]) {
+				best = c;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the difference between the best score and the runner-up.
+	 */
+	static double margin(double[] scores, int best) {
+		double runnerUp = Double.NEGATIVE_INFINITY;
+		for (int c = 0; c < scores.length; c++) {
+			if (c != best && scores[c] > runnerUp) {
+				runnerUp = scores[c];
+			}
+		}
+		return scores[best] - runnerUp;
+	}
+
+	/**
+	 * Returns the number of distinct words known to this model.
+	 *
+	 * @return the vocabulary size
+	 */
+	public int vocabularySize() {
+		return dictionary.size();
+	}
+
+}
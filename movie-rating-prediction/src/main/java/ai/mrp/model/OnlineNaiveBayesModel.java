@@ -0,0 +1,305 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link OnlineNaiveBayesModel} is a Naive Bayes inference model which keeps
+ * learning from labelled texts while it is being used.
+ *
+ * <p>Texts are scored with the log-likelihoods of the frozen
+ * {@link NaiveBayesModel} of the trained counts, which may well be read from a
+ * memory-mapped snapshot. Learning changes the word totals and the vocabulary
+ * size, and so the normalizer of every likelihood, by the same amount for all
+ * words of a class. Words without learned counts therefore keep their frozen
+ * log-likelihood plus one correction per class, and only words with learned
+ * counts are scored from their counts. Learned counts are kept apart from the
+ * trained ones in {@link LearnedWords}, for the learned words only, which also
+ * holds the new words, up to a maximum number of them.
+ *
+ * <p>The word totals per class and the vocabulary size, along with the priors
+ * and corrections derived from them, are held by one immutable {@link Totals}
+ * instance, which is replaced by compare-and-set, so scoring never blocks and
+ * always reads totals of the same moment. A word count may run ahead of the
+ * totals by the text being learned at that very moment, which is negligible
+ * for scoring.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class OnlineNaiveBayesModel<C extends Enum<C>> {
+
+	private final C[] classes;
+	private final TokenIndex dictionary;
+
+	/** The model holding the trained counts and log-likelihoods. */
+	private final NaiveBayesModel<C> frozen;
+
+	/**
+	 * The log normalizer of the frozen log-likelihoods of each class, that is
+	 * the logarithm of its trained word total plus the trained vocabulary size.
+	 */
+	private final double[] frozenLogNormalizers;
+
+	/** The counts of learned words. */
+	private final LearnedWords learnedWords;
+
+	private final AtomicReference<Totals> totals;
+
+	/** Per-thread score accumulators, so that scoring does not allocate. */
+	private final ThreadLocal<double[]> scratch;
+
+	private OnlineNaiveBayesModel(NaiveBayesModel<C> frozen, int maximumNewWords) {
+		this.classes = frozen.getType().getEnumConstants();
+		this.dictionary = frozen.getDictionary();
+		this.frozen = frozen;
+		this.learnedWords = new LearnedWords(classes.length, maximumNewWords);
+		long[] numWords = new long[classes.length];
+		this.frozenLogNormalizers = new double[classes.length];
+		for (C type : classes) {
+			numWords[type.ordinal()] = frozen.total(type);
+			frozenLogNormalizers[type.ordinal()] = Math.log((double) frozen.total(type) + dictionary.size());
+		}
+		this.totals = new AtomicReference<>(new Totals(numWords, dictionary.size(), 0, frozenLogNormalizers));
+		this.scratch = ThreadLocal.withInitial(() -> new double[classes.length]);
+	}
+
+	/**
+	 * Builds an online model out of the given trained {@link DataModel}. The
+	 * data model must not be modified afterwards, since it is shared.
+	 *
+	 * @param trained the trained data model
+	 * @param maximumNewWords the maximum number of words unknown to the trained
+	 *        model to learn; further new words are ignored
+	 * @return the online model
+	 */
+	public static <C extends Enum<C>> OnlineNaiveBayesModel<C> of(DataModel<C> trained, int maximumNewWords) {
+		return of(NaiveBayesModel.of(trained), maximumNewWords);
+	}
+
+	/**
+	 * Builds an online model on top of the given frozen model, which holds the
+	 * trained counts.
+	 *
+	 * @param frozen the trained inference model
+	 * @param maximumNewWords the maximum number of words unknown to the trained
+	 *        model to learn; further new words are ignored
+	 * @return the online model
+	 */
+	public static <C extends Enum<C>> OnlineNaiveBayesModel<C> of(NaiveBayesModel<C> frozen, int maximumNewWords) {
+		return new OnlineNaiveBayesModel<>(frozen, maximumNewWords);
+	}
+
+	/**
+	 * Predicts the class of the given text, as {@link NaiveBayesModel#classify(CharSequence)}
+	 * does.
+	 *
+	 * @param text the text to classify
+	 * @return the predicted class
+	 */
+	public C classify(CharSequence text) {
+		return classes[NaiveBayesModel.best(score(text))];
+	}
+
+	/**
+	 * Predicts the class of the given text if the model is confident about it,
+	 * as {@link NaiveBayesModel#classify(CharSequence, double)} does.
+	 *
+	 * @param text the text to classify
+	 * @param minMargin the minimum log-odds margin
+	 * @return the predicted class, or {@code null} if the margin is smaller
+	 */
+	public C classify(CharSequence text, double minMargin) {
+		double[] scores = score(text);
+		int best = NaiveBayesModel.best(scores);
+		return NaiveBayesModel.margin(scores, best) >= minMargin ? classes[best] : null;
+	}
+
+	/**
+	 * Computes the log-space score of each class for the given text, taking the
+	 * learned counts into account.
+	 *
+	 * <p>The returned array is reused by subsequent calls on the same thread and
+	 * must be consumed before scoring the next text.
+	 *
+	 * @param text the text to score
+	 * @return the scores indexed by class ordinal
+	 */
+	public double[] score(CharSequence text) {
+		Totals totals = this.totals.get();
+		if (totals.texts == 0) {
+			return frozen.score(text);
+		}
+		final int numClasses = classes.length;
+		final double[] scores = scratch.get();
+		System.arraycopy(totals.logPriors, 0, scores, 0, numClasses);
+
+		int knownWords = 0;
+		final int length = text.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean boundary = i == length || Character.isWhitespace(text.charAt(i));
+			if (!boundary) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				int id = dictionary.lookupLowerCase(text, start, i);
+				if (id >= 0) {
+					int entry = learnedWords.find(id);
+					for (int c = 0; c < numClasses; c++) {
+						scores[c] += entry < 0 ? frozen.logLikelihood(classes[c], id)
+								: Math.log(frozen.count(classes[c], id) + learnedWords.count(entry, c) + 1.0)
+										- frozenLogNormalizers[c];
+					}
+					knownWords++;
+				}
+				else {
+					int entry = learnedWords.find(text, start, i);
+					if (entry >= 0) {
+						for (int c = 0; c < numClasses; c++) {
+							scores[c] += Math.log(learnedWords.count(entry, c) + 1.0) - frozenLogNormalizers[c];
+						}
+						knownWords++;
+					}
+				}
+				start = -1;
+			}
+		}
+		for (int c = 0; c < numClasses; c++) {
+			scores[c] += knownWords * totals.corrections[c];
+		}
+		return scores;
+	}
+
+	/**
+	 * Adds the words of the given text to the counts of the given class. Words
+	 * are split and matched as for scoring.
+	 *
+	 * @param type the class of the text
+	 * @param text the text to learn
+	 */
+	public void learn(C type, CharSequence text) {
+		final int ordinal = type.ordinal();
+		long words = 0;
+		final int length = text.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			boolean boundary = i == length || Character.isWhitespace(text.charAt(i));
+			if (!boundary) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				int id = dictionary.lookupLowerCase(text, start, i);
+				int entry = id >= 0 ? learnedWords.add(id) : learnedWords.add(text, start, i);
+				if (entry >= 0) {
+					learnedWords.increment(entry, ordinal);
+					words++;
+				}
+				start = -1;
+			}
+		}
+		if (words == 0) {
+			return;
+		}
+		Totals current, next;
+		do {
+			current = totals.get();
+			int vocabularySize = Math.max(current.vocabularySize, dictionary.size() + learnedWords.newWords());
+			next = current.add(ordinal, words, vocabularySize, frozenLogNormalizers);
+		}
+		while (!totals.compareAndSet(current, next));
+	}
+
+	/**
+	 * Returns the number of texts learned so far.
+	 *
+	 * @return the number of learned texts
+	 */
+	public long learnedTexts() {
+		return totals.get().texts;
+	}
+
+	/**
+	 * Returns the number of words learned which are unknown to the trained model.
+	 *
+	 * @return the number of new words
+	 */
+	public int newWords() {
+		return learnedWords.newWords();
+	}
+
+	/**
+	 * Returns the number of distinct words known to this model.
+	 *
+	 * @return the vocabulary size
+	 */
+	public int vocabularySize() {
+		return totals.get().vocabularySize;
+	}
+
+	/**
+	 * {@link Totals} is an immutable snapshot of the word totals per class and of
+	 * the vocabulary size, along with the log priors and the corrections of the
+	 * frozen log-likelihoods they imply.
+	 */
+	private static final class Totals {
+
+		private final long[] numWords;
+		private final int vocabularySize;
+		private final long texts;
+
+		/** The log prior of each class, indexed by class ordinal. */
+		private final double[] logPriors;
+
+		/**
+		 * The amount to add to a frozen log-likelihood of each class to account
+		 * for the learned totals, indexed by class ordinal.
+		 */
+		private final double[] corrections;
+
+		private Totals(long[] numWords, int vocabularySize, long texts, double[] frozenLogNormalizers) {
+			this.numWords = numWords;
+			this.vocabularySize = vocabularySize;
+			this.texts = texts;
+			long totalWords = 0;
+			for (long classWords : numWords) {
+				totalWords += classWords;
+			}
+			this.logPriors = new double[numWords.length];
+			this.corrections = new double[numWords.length];
+			for (int c = 0; c < numWords.length; c++) {
+				logPriors[c] = Math.log((double) numWords[c] / totalWords);
+				corrections[c] = frozenLogNormalizers[c] - Math.log((double) numWords[c] + vocabularySize);
+			}
+		}
+
+		private Totals add(int ordinal, long words, int vocabularySize, double[] frozenLogNormalizers) {
+			long[] newNumWords = numWords.clone();
+			newNumWords[ordinal] += words;
+			return new Totals(newNumWords, vocabularySize, texts + 1, frozenLogNormalizers);
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+/**
+ * The policies for handling statuses that arrive faster than they can be
+ * classified.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public enum OverflowPolicy {
+
+	/** Block the producer until there is room, pushing back on the stream. */
+	BLOCK,
+
+	/** Drop the oldest queued status to make room for the newest one. */
+	DROP_OLDEST,
+
+	/**
+	 * Admit statuses with a probability that falls from one to zero as the queue
+	 * fills up beyond the sample threshold, so that a sample of the stream is
+	 * classified under sustained overload.
+	 */
+	SAMPLE;
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Pipeline statistics data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class PipelineStats {
+
+	/** The number of statuses waiting to be classified. */
+	private int queueDepth;
+
+	/** The maximum number of statuses waiting to be classified. */
+	private int queueCapacity;
+
+	/** The number of statuses submitted to the pipeline. */
+	private long received;
+
+	/** The number of statuses dropped due to overflow. */
+	private long dropped;
+
+	/** The number of verbatims published. */
+	private long published;
+
+	/** The number of statuses which could not be classified or published. */
+	private long failed;
+
+	/**
+	 * The number of statuses published without the sentiment of a classifier
+	 * which missed its latency budget, per classifier type.
+	 */
+	private Map<ClassifierType, Long> budgetMisses;
+
+}
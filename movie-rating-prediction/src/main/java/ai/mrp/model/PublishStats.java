@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Verbatim publishing statistics data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class PublishStats {
+
+	/** This is the number of verbatims sent one frame each. */
+	private long verbatimsSent;
+
+	/** This is the number of batches sent. */
+	private long batchesSent;
+
+	/** This is the number of verbatims sent in batches. */
+	private long batchedVerbatims;
+
+	/** This is the number of verbatims waiting to be sent in a batch. */
+	private int pending;
+
+	/** This is the number of verbatims dropped while waiting for a batch. */
+	private long dropped;
+
+	/** This is the number of subscriptions by destination. */
+	private Map<String, Integer> subscriptions;
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Replay run report data transfer object.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+@Data
+@AllArgsConstructor
+public class ReplayReport {
+
+	/** Whether the replay has completed and all statuses have been published. */
+	private boolean completed;
+
+	/** The rate at which statuses are replayed. */
+	private ReplayMode mode;
+
+	/** The number of statuses read from the recordings. */
+	private long read;
+
+	/** The number of lines which were retweets or could not be parsed. */
+	private long skipped;
+
+	/** The time in seconds since the replay started. */
+	private double elapsed;
+
+	/** The number of verbatims published per second since the replay started. */
+	private double throughput;
+
+	/** The counters of the classification pipeline. */
+	private PipelineStats pipeline;
+
+	/** The latency percentiles of the classifiers and the pipeline stages. */
+	private LatencyReport latency;
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Map;
+
+/**
+ * {@link RollingSentiment} counts the predicted classes of each classifier
+ * over each {@link Window}, for a single movie.
+ *
+ * <p>Each window is a ring of buckets holding the counts of one bucket
+ * duration each, along with the running totals of the ring. Recording adds to
+ * the current bucket and to the totals; moving on to a new bucket subtracts
+ * the bucket it overwrites from the totals. Queries therefore read the totals
+ * instead of summing the buckets, and cost at most one pass over the expired
+ * buckets of each window, however many statuses were recorded.
+ *
+ * <p>All methods are synchronized, which is cheap as each movie has its own
+ * instance.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class RollingSentiment {
+
+	private static final int CLASSES = ReviewType.values().length;
+
+	/** The number of counters per bucket, one per classifier and class. */
+	private static final int COUNTERS = ClassifierType.values().length * CLASSES;
+
+	private final Ring[] rings = new Ring[Window.values().length];
+
+	public RollingSentiment(long now) {
+		for (Window window : Window.values()) {
+			rings[window.ordinal()] = new Ring(window, now);
+		}
+	}
+
+	/**
+	 * Records the sentiment predicted for a status.
+	 *
+	 * @param sentiment the predicted class of each classifier
+	 * @param now the current time in milliseconds
+	 */
+	public synchronized void record(Map<ClassifierType, ReviewType> sentiment, long now) {
+		for (Ring ring : rings) {
+			ring.advance(now);
+			int offset = ring.slot() * COUNTERS;
+			for (Map.Entry<ClassifierType, ReviewType> entry : sentiment.entrySet()) {
+				int counter = counter(entry.getKey(), entry.getValue());
+				ring.counts[offset + counter]++;
+				ring.totals[counter]++;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of statuses each class was predicted for by the given
+	 * classifier within the given window.
+	 *
+	 * @param window the window
+	 * @param type the classifier type
+	 * @param now the current time in milliseconds
+	 * @return the counts indexed by {@link ReviewType} ordinal
+	 */
+	public synchronized long[] counts(Window window, ClassifierType type, long now) {
+		Ring ring = rings[window.ordinal()];
+		ring.advance(now);
+		long[] counts = new long[CLASSES];
+		System.arraycopy(ring.totals, type.ordinal() * CLASSES, counts, 0, CLASSES);
+		return counts;
+	}
+
+	private static int counter(ClassifierType type, ReviewType reviewType) {
+		return type.ordinal() * CLASSES + reviewType.ordinal();
+	}
+
+	/**
+	 * {@link Ring} holds the buckets of one window.
+	 */
+	private static final class Ring {
+
+		private final long bucketMillis;
+		private final int buckets;
+
+		/** The counters of each bucket, back to back. */
+		private final long[] counts;
+
+		/** The sum of the counters of all buckets. */
+		private final long[] totals = new long[COUNTERS];
+
+		/** The index since the epoch of the current bucket. */
+		private long current;
+
+		private Ring(Window window, long now) {
+			this.bucketMillis = window.getBucketMillis();
+			this.buckets = window.getBuckets();
+			this.counts = new long[buckets * COUNTERS];
+			this.current = now / bucketMillis;
+		}
+
+		private int slot() {
+			return (int) (current % buckets);
+		}
+
+		/**
+		 * Moves on to the bucket of the given time, expiring the buckets in
+		 * between. A time before the current bucket, as when the clock is set
+		 * back, is counted in the current bucket.
+		 */
+		private void advance(long now) {
+			long bucket = now / bucketMillis;
+			if (bucket <= current) {
+				return;
+			}
+			for (long b = Math.max(current + 1, bucket - buckets + 1); b <= bucket; b++) {
+				int offset = (int) (b % buckets) * COUNTERS;
+				for (int i = 0; i < COUNTERS; i++) {
+					totals[i] -= counts[offset + i];
+					counts[offset + i] = 0;
+				}
+			}
+			current = bucket;
+		}
+
+	}
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+/**
+ * The stages a status goes through from its receipt to its publication.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public enum Stage {
+
+	/** From receipt until a worker takes the status off the queue. */
+	QUEUE,
+
+	/** Classifying a batch with all classifiers. */
+	CLASSIFY,
+
+	/** Building and sending the verbatims of a batch. */
+	PUBLISH,
+
+	/** From receipt until the verbatim is sent, in a batch if batched. */
+	END_TO_END;
+
+}
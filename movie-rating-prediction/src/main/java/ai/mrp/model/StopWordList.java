@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+import weka.core.stopwords.StopwordsHandler;
+
+/**
+ * {@link StopWordList} is a {@link StopwordsHandler} backed by a list of words
+ * read up front, so that classifiers do not depend on the stop words being
+ * available as a file once trained.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class StopWordList implements StopwordsHandler, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Set<String> words;
+
+	public StopWordList(Collection<String> words) {
+		this.words = new HashSet<>(words);
+	}
+
+	/**
+	 * Tells whether the given word is a stop word, ignoring case and surrounding
+	 * white space as Weka's file based handlers do.
+	 */
+	@Override
+	public boolean isStopword(String word) {
+		return words.contains(word.trim().toLowerCase());
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * {@link TagMatcher} finds which of a set of tags a text mentions, in a single
+ * pass over the text whatever the number of tags.
+ *
+ * <p>The matcher is an Aho-Corasick automaton over the lower-cased tags. Its
+ * transitions are kept in an open-addressing hash table keyed by state and
+ * character, and the tags recognized in each state, including those reached
+ * through failure links, are precomputed. Matching is case-insensitive, and a
+ * tag only matches where it is neither preceded nor followed by a letter,
+ * digit or underscore, so that {@code up} matches neither {@code upside} nor
+ * {@code cup}.
+ *
+ * <p>A matcher is immutable and may be used concurrently.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class TagMatcher {
+
+	/** The marker of empty slots in the transition table. */
+	private static final long EMPTY = -1;
+
+	private final String[] tags;
+
+	/** The transition keys, made of the source state and the character. */
+	private final long[] keys;
+
+	/** The target state of each transition key. */
+	private final int[] targets;
+
+	/** The state to fall back to when a state has no transition for a character. */
+	private final int[] failures;
+
+	/** The ids of the tags recognized in each state, or {@code null} if none. */
+	private final int[][] outputs;
+
+	/**
+	 * Builds a matcher for the given tags.
+	 *
+	 * @param tags the tags to match
+	 */
+	public TagMatcher(Collection<String> tags) {
+		LinkedHashSet<String> distinct = new LinkedHashSet<>();
+		for (String tag : tags) {
+			if (!tag.isEmpty()) {
+				distinct.add(tag.toLowerCase());
+			}
+		}
+		this.tags = distinct.toArray(new String[distinct.size()]);
+
+		// Builds the trie of the tags
+		List<Map<Character, Integer>> children = new ArrayList<>();
+		List<int[]> own = new ArrayList<>();
+		children.add(new HashMap<>());
+		own.add(null);
+		int transitions = 0;
+		for (int id = 0; id < this.tags.length; id++) {
+			int state = 0;
+			for (char c : this.tags[id].toCharArray()) {
+				Integer next = children.get(state).get(c);
+				if (next == null) {
+					next = children.size();
+					children.get(state).put(c, next);
+					children.add(new HashMap<>());
+					own.add(null);
+					transitions++;
+				}
+				state = next;
+			}
+			own.set(state, new int[] { id });
+		}
+
+		int capacity = Integer.highestOneBit(Math.max(2, transitions) * 2 - 1) * 2;
+		this.keys = new long[capacity];
+		this.targets = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		for (int state = 0; state < children.size(); state++) {
+			for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+				put(key(state, child.getKey()), child.getValue());
+			}
+		}
+
+		// Computes the failure links and outputs, parents before children
+		this.failures = new int[children.size()];
+		this.outputs = new int[children.size()][];
+		Queue<Integer> queue = new ArrayDeque<>(children.get(0).values());
+		while (!queue.isEmpty()) {
+			int state = queue.poll();
+			outputs[state] = merge(own.get(state), outputs[failures[state]]);
+			for (Map.Entry<Character, Integer> child : children.get(state).entrySet()) {
+				int failure = failures[state];
+				int next;
+				while ((next = next(failure, child.getKey())) < 0 && failure != 0) {
+					failure = failures[failure];
+				}
+				failures[child.getValue()] = next < 0 || next == child.getValue() ? 0 : next;
+				queue.add(child.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tags of this matcher.
+	 *
+	 * @return the number of tags
+	 */
+	public int size() {
+		return tags.length;
+	}
+
+	/**
+	 * Returns the tags mentioned in the given text, in the order in which they
+	 * are first mentioned.
+	 *
+	 * @param text the text to search
+	 * @return the lower-cased tags mentioned
+	 */
+	public List<String> match(CharSequence text) {
+		List<String> matches = Collections.emptyList();
+		int state = 0;
+		for (int i = 0, length = text.length(); i < length; i++) {
+			char c = Character.toLowerCase(text.charAt(i));
+			int next;
+			while ((next = next(state, c)) < 0 && state != 0) {
+				state = failures[state];
+			}
+			state = next < 0 ? 0 : next;
+			int[] output = outputs[state];
+			if (output == null || (i + 1 < length && continuesTag(text.charAt(i + 1)))) {
+				continue;
+			}
+			for (int id : output) {
+				int start = i - tags[id].length() + 1;
+				if (start > 0 && continuesTag(text.charAt(start - 1))) {
+					continue;
+				}
+				if (matches.isEmpty()) {
+					matches = new ArrayList<>(2);
+				}
+				if (!matches.contains(tags[id])) {
+					matches.add(tags[id]);
+				}
+			}
+		}
+		return matches;
+	}
+
+	private static boolean continuesTag(char c) {
+		return Character.isLetterOrDigit(c) || c == '_';
+	}
+
+	private static long key(int state, char c) {
+		return ((long) state << 16) | c;
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+	private void put(long key, int target) {
+		int mask = keys.length - 1;
+		int slot = hash(key) & mask;
+		while (keys[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		targets[slot] = target;
+	}
+
+	/**
+	 * Returns the target of the transition from the given state on the given
+	 * character, or {@code -1} if there is none.
+	 */
+	private int next(int state, char c) {
+		long key = key(state, c);
+		int mask = keys.length - 1;
+		for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+			long entry = keys[slot];
+			if (entry == key) {
+				return targets[slot];
+			}
+			if (entry == EMPTY) {
+				return -1;
+			}
+		}
+	}
+
+	private static int[] merge(int[] own, int[] inherited) {
+		if (own == null) {
+			return inherited;
+		}
+		if (inherited == null) {
+			return own;
+		}
+		int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+		System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+		return merged;
+	}
+
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.Arrays;
+
+/**
+ * {@link TokenDictionary} interns tokens to dense integer ids. Ids are assigned
+ * in insertion order starting at {@code 0}, so they can be used to index flat
+ * primitive arrays.
+ *
+ * <p>The dictionary is an open-addressing hash table over the token strings. It
+ * is not thread-safe for writes, but may be read concurrently once it is no
+ * longer modified.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class TokenDictionary implements TokenIndex {
+
+	/** The default number of tokens to reserve space for. */
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/** The tokens indexed by id. */
+	private String[] tokens;
+
+	/** The hash codes of the tokens indexed by id. */
+	private int[] hashes;
+
+	/** The hash table slots holding {@code id + 1}, or {@code 0} if empty. */
+	private int[] slots;
+
+	private int size;
+
+	public TokenDictionary() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public TokenDictionary(int expectedSize) {
+		int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+		this.tokens = new String[capacity];
+		this.hashes = new int[capacity];
+		this.slots = new int[tableSizeFor(capacity)];
+	}
+
+	/**
+	 * Returns the number of tokens in this dictionary.
+	 *
+	 * @return the number of tokens
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the token with the given id.
+	 *
+	 * @param id the token id
+	 * @return the token
+	 */
+	@Override
+	public String token(int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("Unknown token id: " + id);
+		}
+		return tokens[id];
+	}
+
+	/**
+	 * Returns the id of the given token.
+	 *
+	 * @param token the token to look up
+	 * @return the id of the token, or {@code -1} if it is unknown
+	 */
+	public int id(String token) {
+		int hash = hash(token, 0, token.length());
+		int mask = slots.length - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			if (hashes[entry - 1] == hash && tokens[entry - 1].equals(token)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of the token held by the given range of characters, without
+	 * materializing it as a {@link String}.
+	 *
+	 * @param chars the characters holding the token
+	 * @param start the start index of the token, inclusive
+	 * @param end the end index of the token, exclusive
+	 * @return the id of the token, or {@code -1} if it is unknown
+	 */
+	@Override
+	public int id(char[] chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + chars[i];
+		}
+		int hash = h ^ (h >>> 16);
+		int length = end - start;
+		int mask = slots.length - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			if (hashes[entry - 1] == hash && matches(tokens[entry - 1], chars, start, length)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of the lower-cased form of the given range of characters,
+	 * without materializing it as a {@link String}. This expects the dictionary
+	 * to hold lower-cased tokens only.
+	 *
+	 * @param chars the characters holding the token
+	 * @param start the start index of the token, inclusive
+	 * @param end the end index of the token, exclusive
+	 * @return the id of the token, or {@code -1} if it is unknown
+	 */
+	@Override
+	public int lookupLowerCase(CharSequence chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + Character.toLowerCase(chars.charAt(i));
+		}
+		int hash = h ^ (h >>> 16);
+		int length = end - start;
+		int mask = slots.length - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				return -1;
+			}
+			if (hashes[entry - 1] == hash && matchesLowerCase(tokens[entry - 1], chars, start, length)) {
+				return entry - 1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the id of the given token, adding it to the dictionary if it is
+	 * not known yet.
+	 *
+	 * @param token the token to intern
+	 * @return the id of the token
+	 */
+	public int intern(String token) {
+		int hash = hash(token, 0, token.length());
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		for (; ; slot = (slot + 1) & mask) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				break;
+			}
+			if (hashes[entry - 1] == hash && tokens[entry - 1].equals(token)) {
+				return entry - 1;
+			}
+		}
+		return add(token, hash, slot);
+	}
+
+	/**
+	 * Returns the id of the token held by the given range of characters, adding
+	 * it to the dictionary if it is not known yet. A {@link String} is only
+	 * created for tokens that are added.
+	 *
+	 * @param chars the characters holding the token
+	 * @param start the start index of the token, inclusive
+	 * @param end the end index of the token, exclusive
+	 * @return the id of the token
+	 */
+	public int intern(char[] chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + chars[i];
+		}
+		int hash = h ^ (h >>> 16);
+		int length = end - start;
+		int mask = slots.length - 1;
+		int slot = hash & mask;
+		for (; ; slot = (slot + 1) & mask) {
+			int entry = slots[slot];
+			if (entry == 0) {
+				break;
+			}
+			if (hashes[entry - 1] == hash && matches(tokens[entry - 1], chars, start, length)) {
+				return entry - 1;
+			}
+		}
+		return add(new String(chars, start, length), hash, slot);
+	}
+
+	/**
+	 * Estimates the number of heap bytes retained by this dictionary.
+	 *
+	 * @return the estimated footprint in bytes
+	 */
+	public long footprint() {
+		long bytes = 4L * slots.length + 4L * hashes.length + 4L * tokens.length;
+		for (int i = 0; i < size; i++) {
+			// String header and hash plus the backing char array
+			bytes += 24 + 16 + 2L * tokens[i].length();
+		}
+		return bytes;
+	}
+
+	private static boolean matches(String token, char[] chars, int start, int length) {
+		if (token.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (token.charAt(i) != chars[start + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean matchesLowerCase(String token, CharSequence chars, int start, int length) {
+		if (token.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (token.charAt(i) != Character.toLowerCase(chars.charAt(start + i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int add(String token, int hash, int slot) {
+		int id = size++;
+		if (id == tokens.length) {
+			tokens = Arrays.copyOf(tokens, id * 2);
+			hashes = Arrays.copyOf(hashes, id * 2);
+		}
+		tokens[id] = token;
+		hashes[id] = hash;
+		slots[slot] = id + 1;
+		if (size * 2 > slots.length) {
+			rehash(slots.length * 2);
+		}
+		return id;
+	}
+
+	private void rehash(int capacity) {
+		int[] newSlots = new int[capacity];
+		int mask = capacity - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = hashes[id] & mask;
+			while (newSlots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			newSlots[slot] = id + 1;
+		}
+		this.slots = newSlots;
+	}
+
+	/**
+	 * Hashes the given range of characters. The result only depends on the
+	 * characters themselves, so equal tokens hash equally regardless of the
+	 * sequence holding them.
+	 */
+	static int hash(CharSequence chars, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + chars.charAt(i);
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns the power of two hash table size for the given number of tokens,
+	 * which keeps the load factor at or below one half.
+	 */
+	static int tableSizeFor(int expectedSize) {
+		return Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) * 2;
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+/**
+ * {@link TokenIndex} maps tokens to dense integer ids and back. Ids range from
+ * {@code 0} to {@link #size()} exclusive, so they can be used to index flat
+ * primitive arrays and buffers.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public interface TokenIndex {
+
+	/**
+	 * Returns the number of tokens in this index.
+	 *
+	 * @return the number of tokens
+	 */
+	public int size();
+
+	/**
+	 * Returns the token with the given id.
+	 *
+	 * @param id the token id
+	 * @return the token
+	 */
+	public String token(int id);
+
+	/**
+	 * Returns the id of the token held by the given range of characters, without
+	 * materializing it as a {@link String}.
+	 *
+	 * @param chars the characters holding the token
+	 * @param start the start index of the token, inclusive
+	 * @param end the end index of the token, exclusive
+	 * @return the id of the token, or {@code -1} if it is unknown
+	 */
+	public int id(char[] chars, int start, int end);
+
+	/**
+	 * Returns the id of the lower-cased form of the given range of characters,
+	 * without materializing it as a {@link String}. This expects the index to
+	 * hold lower-cased tokens only.
+	 *
+	 * @param chars the characters holding the token
+	 * @param start the start index of the token, inclusive
+	 * @param end the end index of the token, exclusive
+	 * @return the id of the token, or {@code -1} if it is unknown
+	 */
+	public int lookupLowerCase(CharSequence chars, int start, int end);
+
+}
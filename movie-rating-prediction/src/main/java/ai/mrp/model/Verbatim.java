@@ -18,6 +18,7 @@ package ai.mrp.model;
 
 import java.util.Date;
 import java.util.EnumMap;
+import java.util.List;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -53,4 +54,10 @@ public class Verbatim {
 	/** This is the sentiment map with key as different classifier types. */
 	private EnumMap<ClassifierType, ReviewType> sentiment;
 
+	/** This is the version of the models which determined the sentiment. */
+	private long modelVersion;
+
+	/** This is the tags of the movies the message mentions. */
+	private List<String> movies;
+
 }
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time windows over which sentiment is aggregated. Each window is a ring
+ * of buckets, so it slides by one bucket at a time.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public enum Window {
+
+	MINUTE(TimeUnit.SECONDS.toMillis(1), 60),
+	HOUR(TimeUnit.MINUTES.toMillis(1), 60),
+	DAY(TimeUnit.HOURS.toMillis(1), 24);
+
+	private final long bucketMillis;
+	private final int buckets;
+
+	private Window(long bucketMillis, int buckets) {
+		this.bucketMillis = bucketMillis;
+		this.buckets = buckets;
+	}
+
+	/**
+	 * Returns the time in milliseconds covered by one bucket of this window.
+	 *
+	 * @return the bucket duration
+	 */
+	public long getBucketMillis() {
+		return bucketMillis;
+	}
+
+	/**
+	 * Returns the number of buckets of this window.
+	 *
+	 * @return the number of buckets
+	 */
+	public int getBuckets() {
+		return buckets;
+	}
+
+}
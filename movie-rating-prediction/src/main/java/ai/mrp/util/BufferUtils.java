@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link BufferUtils} provides utilities for reading structured data out of
+ * {@link ByteBuffer}s, typically memory-mapped snapshots, without copying it.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class BufferUtils {
+
+	private BufferUtils() { }
+
+	/**
+	 * Returns a view of the given number of bytes at the current position of the
+	 * buffer, and advances the buffer past them.
+	 *
+	 * @param buffer the buffer
+	 * @param length the number of bytes
+	 * @return the view, sharing the contents of the buffer
+	 * @throws IOException if the buffer has fewer bytes remaining
+	 */
+	public static ByteBuffer slice(ByteBuffer buffer, long length) throws IOException {
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IOException("Truncated buffer, " + length + " bytes expected but " + buffer.remaining()
+					+ " remaining");
+		}
+		ByteBuffer view = buffer.slice();
+		view.limit((int) length);
+		buffer.position(buffer.position() + (int) length);
+		return view;
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.util;
+
+/**
+ * {@link TextUtils} provides utilities for processing streamed texts.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class TextUtils {
+
+	private TextUtils() { }
+
+	/**
+	 * Normalizes a text so that trivially different copies of a message compare
+	 * equal. The text is lower-cased, words which are URLs or mentions are
+	 * removed and the remaining words are joined by single spaces.
+	 *
+	 * @param text the text to normalize
+	 * @return the normalized text
+	 */
+	public static String normalize(String text) {
+		StringBuilder normalized = new StringBuilder(text.length());
+		int length = text.length();
+		int start = -1;
+		for (int i = 0; i <= length; i++) {
+			if (i < length && !Character.isWhitespace(text.charAt(i))) {
+				if (start < 0) {
+					start = i;
+				}
+				continue;
+			}
+			if (start >= 0) {
+				if (!isUrlOrMention(text, start)) {
+					if (normalized.length() > 0) {
+						normalized.append(' ');
+					}
+					for (int j = start; j < i; j++) {
+						normalized.append(Character.toLowerCase(text.charAt(j)));
+					}
+				}
+				start = -1;
+			}
+		}
+		return normalized.toString();
+	}
+
+	private static boolean isUrlOrMention(String text, int start) {
+		return text.charAt(start) == '@'
+				|| text.regionMatches(true, start, "http://", 0, 7)
+				|| text.regionMatches(true, start, "https://", 0, 8)
+				|| text.regionMatches(true, start, "www.", 0, 4);
+	}
+
+}
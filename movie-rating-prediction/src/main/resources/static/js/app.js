@@ -38,9 +38,9 @@ var searchCtrl = mrpApp.controller('searchCtrl', ['$rootScope', '$scope', '$http
     	var stompClient = Stomp.over(socket);
     	stompClient.connect({}, function (frame) {
     		console.log('Connected: ' + frame);
-    		stompClient.subscribe('/stream/verbatim', function(verbatim) {
-    			verbatimData = JSON.parse(verbatim.body);
-    			$rootScope.$broadcast('new-verbatim', verbatimData);
+    		stompClient.subscribe('/stream/verbatims', function(batch) {
+    			verbatimBatch = JSON.parse(batch.body);
+    			$rootScope.$broadcast('new-verbatims', verbatimBatch);
     		});
     	});
     }
@@ -71,9 +71,9 @@ var searchResultCtrl = mrpApp.controller('searchResultCtrl', ['$scope', '$timeou
 		$scope.moviePoster = "images/loading.gif";
 	});
 
-    $scope.$on('new-verbatim', function(e, verbatim) {
+    $scope.$on('new-verbatims', function(e, verbatims) {
     	$timeout(function() {
-    		$scope.verbatimList.push(verbatim);
+    		Array.prototype.push.apply($scope.verbatimList, verbatims);
     		var verbatimEl = document.getElementById('verbatim');
     		$timeout(function() {
     			verbatimEl.scrollTop = verbatimEl.scrollHeight;
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import ai.mrp.model.FeatureHasher;
+import ai.mrp.model.HashingSVMClassifier;
+import ai.mrp.model.Vectorizer;
+
+/**
+ * Tests for {@link SVMConfig}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class SVMConfigTests {
+
+	@Test
+	public void acceptsTheDefaults() {
+		SVMConfig config = new SVMConfig();
+		assertFalse(validate(config).hasErrors());
+		config.setVectorizer(Vectorizer.HASHING);
+		assertFalse(validate(config).hasErrors());
+	}
+
+	@Test
+	public void rejectsHashBitsOutOfRange() {
+		SVMConfig config = new SVMConfig();
+		config.setHashBits(0);
+		assertTrue(validate(config).hasFieldErrors("hashBits"));
+		config.setHashBits(FeatureHasher.MAX_BITS + 1);
+		assertTrue(validate(config).hasFieldErrors("hashBits"));
+	}
+
+	@Test
+	public void rejectsHashBitsTooLargeForTheHeap() {
+		int hashBits = 1;
+		while (HashingSVMClassifier.trainingBytes(hashBits) <= Runtime.getRuntime().maxMemory()) {
+			hashBits++;
+		}
+		Assume.assumeTrue("The heap fits the largest number of hash bits", hashBits <= FeatureHasher.MAX_BITS);
+		SVMConfig config = new SVMConfig();
+		config.setHashBits(hashBits);
+		config.setVectorizer(Vectorizer.HASHING);
+		assertTrue(validate(config).hasFieldErrors("hashBits"));
+
+		// the dictionary vectorizer does not hash
+		config.setVectorizer(Vectorizer.DICTIONARY);
+		assertFalse(validate(config).hasErrors());
+	}
+
+	private static Errors validate(SVMConfig config) {
+		Errors errors = new BeanPropertyBindingResult(config, "svm");
+		config.validate(config, errors);
+		return errors;
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.controller;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import ai.mrp.config.ModelConfig;
+import ai.mrp.impl.CorpusLoader;
+import ai.mrp.impl.ModelRegistry;
+import ai.mrp.inf.Reloadable;
+import ai.mrp.model.ClassifierType;
+
+/**
+ * Tests for the readiness probe of {@link ModelController}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class ModelControllerTests {
+
+	/** Released to let the SVM model load. */
+	private final CountDownLatch svmRelease = new CountDownLatch(1);
+
+	/** Counted down once the Naive Bayes model has loaded. */
+	private final CountDownLatch nbLoaded = new CountDownLatch(1);
+
+	private final ModelRegistry modelRegistry = new ModelRegistry();
+
+	private volatile Exception svmFailure;
+
+	private MockMvc mockMvc;
+
+	@Before
+	public void setUp() {
+		Reloadable nb = reloadable(ClassifierType.NB, () -> { });
+		Reloadable svm = reloadable(ClassifierType.SVM, () -> {
+			svmRelease.await(1, TimeUnit.MINUTES);
+			if (svmFailure != null) {
+				throw svmFailure;
+			}
+		});
+		List<Reloadable> reloadables = Arrays.asList(nb, svm);
+		ReflectionTestUtils.setField(modelRegistry, "reloadables", reloadables);
+		ReflectionTestUtils.setField(modelRegistry, "corpusLoader", new CorpusLoader());
+		ReflectionTestUtils.setField(modelRegistry, "modelConfig", new ModelConfig());
+		ModelController controller = new ModelController();
+		ReflectionTestUtils.setField(controller, "modelRegistry", modelRegistry);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		svmRelease.countDown();
+		modelRegistry.destroy();
+	}
+
+	@Test
+	public void isUnavailableUntilAllModelsAreReady() throws Exception {
+		modelRegistry.afterPropertiesSet();
+		assertTrue(nbLoaded.await(10, TimeUnit.SECONDS));
+		awaitState(ClassifierType.NB, "READY");
+		mockMvc.perform(get("/models/readiness"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(jsonPath("$.ready").value(false))
+				.andExpect(jsonPath("$.classifiers.NB.state").value("READY"))
+				.andExpect(jsonPath("$.classifiers.SVM.state").value("LOADING"))
+				.andExpect(jsonPath("$.classifiers.CASCADE.state").value("LOADING"));
+
+		svmRelease.countDown();
+		modelRegistry.awaitInitialization();
+		mockMvc.perform(get("/models/readiness"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.ready").value(true))
+				.andExpect(jsonPath("$.classifiers.SVM.state").value("READY"))
+				.andExpect(jsonPath("$.classifiers.CASCADE.state").value("READY"));
+	}
+
+	@Test
+	public void isUnavailableWhenAModelFailed() throws Exception {
+		svmFailure = new IllegalStateException("No corpus");
+		svmRelease.countDown();
+		modelRegistry.afterPropertiesSet();
+		modelRegistry.awaitInitialization();
+		mockMvc.perform(get("/models/readiness"))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(jsonPath("$.ready").value(false))
+				.andExpect(jsonPath("$.classifiers.NB.state").value("READY"))
+				.andExpect(jsonPath("$.classifiers.SVM.state").value("FAILED"))
+				.andExpect(jsonPath("$.classifiers.CASCADE.state").value("FAILED"))
+				.andExpect(jsonPath("$.classifiers.CASCADE.error").value(svmFailure.toString()));
+	}
+
+	/**
+	 * Waits for the given classifier to reach the given state, as its readiness
+	 * is recorded right after its model is swapped in.
+	 */
+	private void awaitState(ClassifierType type, String state) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!modelRegistry.getReadiness().getClassifiers().get(type).getState().name().equals(state)) {
+			assertTrue(type + " did not become " + state, System.nanoTime() - deadline < 0);
+			Thread.sleep(10);
+		}
+	}
+
+	private Reloadable reloadable(ClassifierType type, Loader loader) {
+		return new Reloadable() {
+
+			@Override
+			public Runnable prepare(boolean retrain, List<String> warmUpTexts) throws Exception {
+				loader.load();
+				return () -> {
+					if (type == ClassifierType.NB) {
+						nbLoaded.countDown();
+					}
+				};
+			}
+
+			@Override
+			public ClassifierType getClassifierType() {
+				return type;
+			}
+
+		};
+	}
+
+	/**
+	 * {@link Loader} loads the model of a test classifier.
+	 */
+	private interface Loader {
+
+		void load() throws Exception;
+
+	}
+
+}
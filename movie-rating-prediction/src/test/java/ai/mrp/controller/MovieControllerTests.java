@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ai.mrp.config.StreamConfig;
+import ai.mrp.impl.ReplayClassificationEngine;
+import ai.mrp.impl.SentimentAggregator;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Tests for {@link MovieController}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class MovieControllerTests {
+
+	private final ReplayClassificationEngine engine = new ReplayClassificationEngine();
+
+	private final SentimentAggregator aggregator = new SentimentAggregator();
+
+	private final MovieController controller = new MovieController();
+
+	@Before
+	public void setUp() {
+		StreamConfig streamConfig = new StreamConfig();
+		streamConfig.setClassifiers(Collections.singletonList(ClassifierType.NB.name()));
+		ReflectionTestUtils.setField(aggregator, "streamConfig", streamConfig);
+		ReflectionTestUtils.setField(controller, "engine", engine);
+		ReflectionTestUtils.setField(controller, "aggregator", aggregator);
+	}
+
+	@Test
+	public void updateForgetsTheRatingsOfReplacedMovies() {
+		controller.update("La La Land");
+		controller.track("Arrival");
+		record("#lalaland");
+		record("#arrival");
+		controller.update("Moonlight");
+		record("#moonlight");
+		assertEquals(Collections.singleton("#moonlight"), controller.tracked());
+		assertNull(rating("La La Land"));
+		assertNull(rating("Arrival"));
+		assertEquals(10.0, rating("Moonlight"), 0);
+	}
+
+	@Test
+	public void updateKeepsTheRatingOfTheSameMovie() {
+		controller.update("Arrival");
+		record("#arrival");
+		controller.update("Arrival");
+		assertEquals(10.0, rating("Arrival"), 0);
+	}
+
+	@Test
+	public void untrackForgetsTheRatingOfTheMovie() {
+		controller.update("Arrival");
+		controller.track("Moonlight");
+		record("#arrival");
+		record("#moonlight");
+		controller.untrack("Arrival");
+		assertEquals(Collections.singleton("#moonlight"), controller.tracked());
+		assertNull(rating("Arrival"));
+		assertEquals(10.0, rating("Moonlight"), 0);
+	}
+
+	@Test
+	public void engineReportsTheTagsItDrops() {
+		engine.update("#arrival");
+		engine.track("#moonlight");
+		assertEquals(new HashSet<>(Arrays.asList("#arrival", "#moonlight")), engine.update("#lalaland"));
+		assertEquals(Collections.emptySet(), engine.update("#lalaland"));
+	}
+
+	private void record(String tag) {
+		Map<ClassifierType, ReviewType> sentiment = new EnumMap<>(ClassifierType.class);
+		sentiment.put(ClassifierType.NB, ReviewType.POSITIVE);
+		aggregator.record(tag, sentiment);
+	}
+
+	private Double rating(String name) {
+		return controller.rating(name).getClassifiers().get(ClassifierType.NB).getRating();
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.CacheStats;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Tests for {@link CachingPredictor}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class CachingPredictorTests {
+
+	/** The number of segments of {@link CachingPredictor}. */
+	private static final int SEGMENTS = 16;
+
+	/** The texts the wrapped predictor was asked to classify. */
+	private final List<String> predicted = new ArrayList<>();
+
+	private final Predictor<ReviewType> predictor = text -> {
+		predicted.add(text);
+		return text.toLowerCase().contains("bad") ? ReviewType.NEGATIVE : ReviewType.POSITIVE;
+	};
+
+	@Test
+	public void servesNormalizedCopiesFromTheCache() {
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(predictor, 100, 60000);
+		assertEquals(ReviewType.NEGATIVE, cache.predict("A  BAD film @critic http://t.co/x"));
+		assertEquals(ReviewType.NEGATIVE, cache.predict("a bad FILM"));
+		assertEquals(ReviewType.NEGATIVE, cache.predict("a bad film www.example.com @fan"));
+		assertEquals(Arrays.asList("A  BAD film @critic http://t.co/x"), predicted);
+		assertStats(cache, 1, 2, 1, 0);
+	}
+
+	@Test
+	public void passesOnlyMissesOnInABatch() {
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(predictor, 100, 60000);
+		cache.predict("good film");
+		assertEquals(Arrays.asList(ReviewType.NEGATIVE, ReviewType.POSITIVE, ReviewType.POSITIVE),
+				cache.predictBatch(Arrays.asList("bad film", "GOOD film", "good plot")));
+		assertEquals(Arrays.asList("good film", "bad film", "good plot"), predicted);
+		assertStats(cache, 3, 1, 3, 0);
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyUsedPredictionAtCapacity() {
+		// two predictions per segment
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(predictor, 2 * SEGMENTS, 60000);
+		List<String> texts = sameSegment(3);
+		String a = texts.get(0), b = texts.get(1), c = texts.get(2);
+		cache.predict(a);
+		cache.predict(b);
+		cache.predict(a);
+		cache.predict(c);
+		assertStats(cache, 2, 1, 3, 1);
+		cache.predict(a);
+		cache.predict(b);
+		assertEquals(Arrays.asList(a, b, c, b), predicted);
+	}
+
+	@Test
+	public void expiresPredictions() throws InterruptedException {
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(predictor, 100, 1);
+		cache.predict("good film");
+		Thread.sleep(10);
+		cache.predict("good film");
+		assertEquals(Arrays.asList("good film", "good film"), predicted);
+		assertStats(cache, 1, 0, 2, 1);
+	}
+
+	@Test
+	public void clearRemovesAllPredictions() {
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(predictor, 100, 60000);
+		cache.predictBatch(Arrays.asList("good film", "bad film"));
+		cache.clear();
+		assertStats(cache, 0, 0, 2, 0);
+		cache.predict("good film");
+		assertEquals(Arrays.asList("good film", "bad film", "good film"), predicted);
+	}
+
+	@Test
+	public void doesNotCachePredictionsOfAnOlderModel() {
+		AtomicReference<CachingPredictor<ReviewType>> reloaded = new AtomicReference<>();
+		// the model is swapped, and the cache cleared, while a prediction is computed
+		Predictor<ReviewType> reloading = text -> {
+			CachingPredictor<ReviewType> cache = reloaded.getAndSet(null);
+			if (cache != null) {
+				cache.clear();
+			}
+			return predictor.predict(text);
+		};
+		CachingPredictor<ReviewType> cache = new CachingPredictor<>(reloading, 100, 60000);
+		reloaded.set(cache);
+		cache.predict("good film");
+		reloaded.set(cache);
+		cache.predictBatch(Arrays.asList("bad film"));
+		assertStats(cache, 0, 0, 2, 0);
+
+		// predictions computed after the swap are cached again
+		cache.predict("good film");
+		cache.predict("good film");
+		assertEquals(Arrays.asList("good film", "bad film", "good film"), predicted);
+		assertStats(cache, 1, 1, 3, 0);
+	}
+
+	private static void assertStats(CachingPredictor<ReviewType> cache, long size, long hits, long misses,
+			long evictions) {
+		assertEquals(new CacheStats(size, hits, misses, evictions), cache.getStats());
+	}
+
+	/**
+	 * Returns normalized texts which fall into the same segment, the way
+	 * {@link CachingPredictor} spreads them.
+	 */
+	private static List<String> sameSegment(int count) {
+		List<String> texts = new ArrayList<>();
+		int segment = -1;
+		for (int i = 0; texts.size() < count; i++) {
+			String text = "film " + i;
+			int h = text.hashCode();
+			int index = (h ^ (h >>> 16)) & (SEGMENTS - 1);
+			if (segment < 0) {
+				segment = index;
+			}
+			if (index == segment) {
+				texts.add(text);
+			}
+		}
+		return texts;
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ai.mrp.config.CascadeConfig;
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.CascadeEvaluation;
+import ai.mrp.model.CascadeStats;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.NaiveBayesModel;
+import ai.mrp.model.OnlineNaiveBayesModel;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Tests for {@link CascadingPredictorImpl}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class CascadingPredictorImplTests {
+
+	private static final String[] POSITIVE = { "great great great film", "great great great film" };
+
+	private static final String[] NEGATIVE = { "dull dull dull film", "dull dull dull film" };
+
+	private final NaiveBayesPredictorImpl nbPredictor = new NaiveBayesPredictorImpl();
+
+	private final CascadeConfig cascadeConfig = new CascadeConfig();
+
+	private final ModelRegistry modelRegistry = new ModelRegistry();
+
+	/** The batches escalated to the SVM predictor. */
+	private final List<List<String>> escalations = new ArrayList<>();
+
+	private final CascadingPredictorImpl cascade = new CascadingPredictorImpl();
+
+	@Before
+	public void setUp() {
+		Predictor<ReviewType> svmPredictor = new Predictor<ReviewType>() {
+
+			@Override
+			public ReviewType predict(String text) {
+				return predictBatch(Arrays.asList(text)).get(0);
+			}
+
+			@Override
+			public List<ReviewType> predictBatch(List<String> texts) {
+				escalations.add(new ArrayList<>(texts));
+				List<ReviewType> predictedTypes = new ArrayList<>();
+				for (String text : texts) {
+					predictedTypes.add(text.contains("great") ? ReviewType.POSITIVE : ReviewType.NEGATIVE);
+				}
+				return predictedTypes;
+			}
+
+		};
+		cascadeConfig.setMarginThreshold(1.0);
+		CorpusLoader corpusLoader = new CorpusLoader();
+		ReflectionTestUtils.setField(corpusLoader, "corpus", corpus());
+		ReflectionTestUtils.setField(cascade, "nbPredictor", nbPredictor);
+		ReflectionTestUtils.setField(cascade, "svmPredictor", svmPredictor);
+		ReflectionTestUtils.setField(cascade, "cascadeConfig", cascadeConfig);
+		ReflectionTestUtils.setField(cascade, "corpusLoader", corpusLoader);
+		ReflectionTestUtils.setField(cascade, "modelRegistry", modelRegistry);
+	}
+
+	@Test
+	public void isNotReadyWithoutNaiveBayesModel() {
+		assertFalse(cascade.isReady());
+		loadNaiveBayesModel();
+		assertTrue(cascade.isReady());
+	}
+
+	@Test
+	public void escalatesOnlyUncertainTexts() {
+		loadNaiveBayesModel();
+		assertEquals(ReviewType.POSITIVE, cascade.predict("great"));
+		assertEquals(ReviewType.NEGATIVE, cascade.predict("dull film"));
+		assertTrue(escalations.isEmpty());
+		assertEquals(ReviewType.NEGATIVE, cascade.predict("film"));
+		assertEquals(Arrays.asList(Arrays.asList("film")), escalations);
+
+		CascadeStats stats = cascade.getStats();
+		assertEquals(3, stats.getPredicted());
+		assertEquals(1, stats.getEscalated());
+	}
+
+	@Test
+	public void escalatesUncertainTextsOfABatchTogether() {
+		loadNaiveBayesModel();
+		List<ReviewType> predictedTypes = cascade.predictBatch(Arrays.asList("great", "film", "dull", "great dull"));
+		assertEquals(Arrays.asList(ReviewType.POSITIVE, ReviewType.NEGATIVE, ReviewType.NEGATIVE, ReviewType.POSITIVE),
+				predictedTypes);
+		assertEquals(Arrays.asList(Arrays.asList("film", "great dull")), escalations);
+		assertEquals(2, cascade.getStats().getEscalated());
+	}
+
+	@Test
+	public void zeroThresholdNeverEscalates() {
+		loadNaiveBayesModel();
+		cascadeConfig.setMarginThreshold(0);
+		cascade.predictBatch(Arrays.asList("film", "great dull"));
+		assertTrue(escalations.isEmpty());
+	}
+
+	@Test
+	public void evaluatesUntilModelsOrThresholdChange() throws Exception {
+		loadNaiveBayesModel();
+		CascadeEvaluation evaluation = cascade.evaluate();
+		assertEquals(4, evaluation.getDocuments());
+		assertEquals(1.0, evaluation.getCascadeAccuracy(), 0);
+		assertEquals(CascadeEvaluation.TRAINING_CORPUS, evaluation.getMeasuredOn());
+		assertEquals(modelRegistry.getVersion(), evaluation.getModelVersion());
+		assertEquals(0, cascade.getStats().getPredicted());
+		assertSame(evaluation, cascade.evaluate());
+
+		// swaps in models of the next version
+		AtomicLong sequence = (AtomicLong) ReflectionTestUtils.getField(modelRegistry, "sequence");
+		sequence.addAndGet(2);
+		CascadeEvaluation reloaded = cascade.evaluate();
+		assertNotSame(evaluation, reloaded);
+		assertEquals(modelRegistry.getVersion(), reloaded.getModelVersion());
+		assertSame(reloaded, cascade.evaluate());
+
+		cascadeConfig.setMarginThreshold(10);
+		CascadeEvaluation rethresholded = cascade.evaluate();
+		assertNotSame(reloaded, rethresholded);
+		assertEquals(10, rethresholded.getMarginThreshold(), 0);
+		assertEquals(1.0, rethresholded.getEscalationRate(), 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void loadNaiveBayesModel() {
+		DataModel<ReviewType> dataModel = new DataModel<>(ReviewType.class);
+		for (String text : POSITIVE) {
+			for (String word : text.split(" ")) {
+				dataModel.put(ReviewType.POSITIVE, word);
+			}
+		}
+		for (String text : NEGATIVE) {
+			for (String word : text.split(" ")) {
+				dataModel.put(ReviewType.NEGATIVE, word);
+			}
+		}
+		((AtomicReference<OnlineNaiveBayesModel<ReviewType>>) ReflectionTestUtils.getField(nbPredictor, "model"))
+				.set(OnlineNaiveBayesModel.of(NaiveBayesModel.of(dataModel), 100));
+	}
+
+	private static Corpus<ReviewType> corpus() {
+		Corpus.Builder<ReviewType> builder = new Corpus.Builder<>(ReviewType.class);
+		for (String text : POSITIVE) {
+			add(builder, ReviewType.POSITIVE, text);
+		}
+		for (String text : NEGATIVE) {
+			add(builder, ReviewType.NEGATIVE, text);
+		}
+		return builder.build();
+	}
+
+	private static void add(Corpus.Builder<ReviewType> builder, ReviewType type, String text) {
+		builder.startDocument(type);
+		for (String word : text.split(" ")) {
+			builder.addToken(word.toCharArray(), 0, word.length());
+		}
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ai.mrp.config.CacheConfig;
+import ai.mrp.config.StreamConfig;
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.OverflowPolicy;
+import ai.mrp.model.PipelineStats;
+import ai.mrp.model.ReviewType;
+import twitter4j.Status;
+import twitter4j.TwitterException;
+import twitter4j.TwitterObjectFactory;
+
+/**
+ * Tests for {@link ClassificationPipeline}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class ClassificationPipelineTests {
+
+	private final StreamConfig streamConfig = new StreamConfig();
+
+	/** The texts classified by the Naive Bayes predictor, in order. */
+	private final List<String> classified = new CopyOnWriteArrayList<>();
+
+	/** Released to let the SVM predictor return. */
+	private final CountDownLatch svmRelease = new CountDownLatch(1);
+
+	/** Counted down once the SVM predictor is called. */
+	private final CountDownLatch svmCalled = new CountDownLatch(1);
+
+	private long svmMillis;
+
+	/** The text both predictors hold on to until released, if any. */
+	private String held;
+
+	/** Released to let the Naive Bayes predictor return the held text. */
+	private final CountDownLatch heldRelease = new CountDownLatch(1);
+
+	/** Counted down once the Naive Bayes predictor holds the held text. */
+	private final CountDownLatch heldCalled = new CountDownLatch(1);
+
+	private ClassificationPipeline pipeline;
+
+	@Before
+	public void configure() {
+		streamConfig.setWorkers(2);
+		streamConfig.setBatchSize(1);
+		streamConfig.setClassifiers(Arrays.asList("NB", "SVM"));
+		Map<String, Long> budgets = new HashMap<>();
+		budgets.put("NB", 250L);
+		budgets.put("SVM", 10L);
+		streamConfig.setLatencyBudgets(budgets);
+	}
+
+	@After
+	public void stop() throws Exception {
+		svmRelease.countDown();
+		heldRelease.countDown();
+		if (pipeline != null) {
+			pipeline.destroy();
+		}
+	}
+
+	@Test
+	public void slowClassifierDoesNotHoldUpTheOthers() throws Exception {
+		svmMillis = 500;
+		start();
+		for (int i = 0; i < 40; i++) {
+			pipeline.submit(status(i, "status " + i), Collections.emptyList());
+		}
+		PipelineStats stats = awaitDrained(40);
+		assertEquals(40, stats.getPublished());
+		assertEquals(0, (long) stats.getBudgetMisses().get(ClassifierType.NB));
+		assertEquals(40, (long) stats.getBudgetMisses().get(ClassifierType.SVM));
+		assertEquals(40, classified.size());
+	}
+
+	@Test
+	public void budgetScalesWithTheBatchSize() throws Exception {
+		streamConfig.setWorkers(1);
+		streamConfig.setBatchSize(8);
+		streamConfig.getLatencyBudgets().put("NB", TimeUnit.SECONDS.toMillis(30));
+		streamConfig.getLatencyBudgets().put("SVM", TimeUnit.SECONDS.toMillis(30));
+		svmMillis = 10;
+		held = "held";
+		start();
+		// hold the worker within a generous budget, so that the next statuses
+		// make up a single batch classified within the budget under test
+		pipeline.submit(status(0, held), Collections.emptyList());
+		assertTrue(heldCalled.await(10, TimeUnit.SECONDS));
+		streamConfig.getLatencyBudgets().put("SVM", 40L);
+		for (int i = 1; i <= 8; i++) {
+			pipeline.submit(status(i, "status " + i), Collections.emptyList());
+		}
+		heldRelease.countDown();
+		PipelineStats stats = awaitDrained(9);
+		assertEquals(9, stats.getPublished());
+		assertEquals(0, (long) stats.getBudgetMisses().get(ClassifierType.SVM));
+	}
+
+	@Test
+	public void dropOldestKeepsTheNewestStatuses() throws Exception {
+		streamConfig.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+		pause();
+		for (int i = 1; i < 8; i++) {
+			pipeline.submit(status(i, "status " + i), Collections.emptyList());
+		}
+		assertEquals(5, pipeline.getStats().getDropped());
+		svmRelease.countDown();
+		PipelineStats stats = awaitDrained(8);
+		assertEquals(3, stats.getPublished());
+		assertEquals(Arrays.asList("status 0", "status 6", "status 7"), classified);
+	}
+
+	@Test
+	public void sampleShedsStatusesOnceTheQueueFills() throws Exception {
+		streamConfig.setOverflowPolicy(OverflowPolicy.SAMPLE);
+		pause();
+		for (int i = 1; i < 11; i++) {
+			pipeline.submit(status(i, "status " + i), Collections.emptyList());
+		}
+		assertTrue(pipeline.getStats().getDropped() >= 8);
+		svmRelease.countDown();
+		PipelineStats stats = awaitDrained(11);
+		assertEquals(11 - stats.getDropped(), stats.getPublished());
+		assertEquals("status 1", classified.get(1));
+	}
+
+	@Test
+	public void blockWaitsForRoomInTheQueue() throws Exception {
+		streamConfig.setOverflowPolicy(OverflowPolicy.BLOCK);
+		pause();
+		Thread submitter = new Thread(() -> {
+			try {
+				for (int i = 1; i < 6; i++) {
+					pipeline.submit(status(i, "status " + i), Collections.emptyList());
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		submitter.start();
+		submitter.join(200);
+		assertTrue(submitter.isAlive());
+		svmRelease.countDown();
+		submitter.join(TimeUnit.SECONDS.toMillis(10));
+		PipelineStats stats = awaitDrained(6);
+		assertEquals(0, stats.getDropped());
+		assertEquals(6, stats.getPublished());
+	}
+
+	@Test
+	public void countsAStatusWhichCannotBePublishedOnceAsFailed() throws Exception {
+		streamConfig.setBatchSize(2);
+		pause();
+		pipeline.submit(withoutUser(1, "status 1"), Collections.emptyList());
+		pipeline.submit(status(2, "status 2"), Collections.emptyList());
+		svmRelease.countDown();
+		PipelineStats stats = awaitDrained(3);
+		assertEquals(2, stats.getPublished());
+		assertEquals(1, stats.getFailed());
+		assertEquals(Arrays.asList("status 0", "status 1", "status 2"), classified);
+	}
+
+	/**
+	 * Starts a pipeline with a single worker and a queue of two statuses, and
+	 * submits a status the worker then holds on to until released.
+	 */
+	private void pause() throws Exception {
+		streamConfig.setWorkers(1);
+		streamConfig.setQueueCapacity(2);
+		streamConfig.setLatencyBudgets(Collections.singletonMap("SVM", TimeUnit.SECONDS.toMillis(30)));
+		svmMillis = -1;
+		start();
+		pipeline.submit(status(0, "status 0"), Collections.emptyList());
+		assertTrue(svmCalled.await(10, TimeUnit.SECONDS));
+	}
+
+	private void start() throws Exception {
+		Predictor<ReviewType> nb = text -> {
+			if (text.equals(held)) {
+				heldCalled.countDown();
+				awaitUninterruptibly(heldRelease, TimeUnit.MINUTES.toMillis(1));
+			}
+			classified.add(text);
+			return ReviewType.POSITIVE;
+		};
+		Predictor<ReviewType> svm = text -> {
+			svmCalled.countDown();
+			if (svmMillis < 0) {
+				awaitUninterruptibly(svmRelease, TimeUnit.MINUTES.toMillis(1));
+			}
+			else {
+				awaitUninterruptibly(new CountDownLatch(1), svmMillis);
+			}
+			return ReviewType.NEGATIVE;
+		};
+		CacheConfig cacheConfig = new CacheConfig();
+		pipeline = new ClassificationPipeline();
+		ReflectionTestUtils.setField(pipeline, "nbPredictor", nb);
+		ReflectionTestUtils.setField(pipeline, "svmPredictor", svm);
+		ReflectionTestUtils.setField(pipeline, "cascadePredictor", nb);
+		ReflectionTestUtils.setField(pipeline, "publisher", new VerbatimPublisher());
+		ReflectionTestUtils.setField(pipeline, "aggregator", new SentimentAggregator());
+		ReflectionTestUtils.setField(pipeline, "streamConfig", streamConfig);
+		ReflectionTestUtils.setField(pipeline, "cacheConfig", cacheConfig);
+		ReflectionTestUtils.setField(pipeline, "modelRegistry", new ModelRegistry());
+		pipeline.afterPropertiesSet();
+	}
+
+	/**
+	 * Waits for the pipeline to account for the given number of statuses.
+	 */
+	private PipelineStats awaitDrained(long received) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		PipelineStats stats;
+		while ((stats = pipeline.getStats()).getPublished() + stats.getDropped() + stats.getFailed() < received) {
+			assertTrue("Pipeline did not drain: " + stats, System.nanoTime() - deadline < 0);
+			Thread.sleep(10);
+		}
+		return stats;
+	}
+
+	/**
+	 * Waits like a Weka classifier would compute, ignoring interrupts.
+	 */
+	private static void awaitUninterruptibly(CountDownLatch latch, long millis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+		boolean interrupted = false;
+		while (latch.getCount() > 0 && deadline - System.nanoTime() > 0) {
+			try {
+				latch.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns a status without a user, which cannot be turned into a verbatim.
+	 */
+	static Status withoutUser(long id, String text) {
+		try {
+			return TwitterObjectFactory.createStatus("{\"id\":" + id + ",\"text\":\"" + text + "\"}");
+		}
+		catch (TwitterException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static Status status(long id, String text) {
+		try {
+			return TwitterObjectFactory.createStatus("{\"id\":" + id + ",\"text\":\"" + text + "\","
+					+ "\"created_at\":\"Tue Oct 18 10:00:00 +0000 2016\",\"user\":{\"id\":7,\"name\":\"Reviewer\","
+					+ "\"screen_name\":\"reviewer\",\"profile_image_url\":\"http://example.com/reviewer.png\"}}");
+		}
+		catch (TwitterException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ai.mrp.config.EvaluationConfig;
+import ai.mrp.model.ClassifierEvaluation;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.Corpus;
+import ai.mrp.model.EvaluationReport;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Tests for {@link CrossValidator}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class CrossValidatorTests {
+
+	@Test
+	public void stratifyKeepsTheClassBalanceInEveryFold() {
+		Corpus<ReviewType> corpus = corpus(37, 23);
+		int[][] folds = CrossValidator.stratify(corpus, 5, 42);
+		assertEquals(5, folds.length);
+		Set<Integer> documents = new HashSet<>();
+		int[] sizes = new int[folds.length];
+		int[] positives = new int[folds.length];
+		for (int fold = 0; fold < folds.length; fold++) {
+			for (int i = 0; i < folds[fold].length; i++) {
+				assertTrue("Documents occur once", documents.add(folds[fold][i]));
+				assertTrue("Documents are sorted", i == 0 || folds[fold][i - 1] < folds[fold][i]);
+				if (corpus.label(folds[fold][i]) == ReviewType.POSITIVE) {
+					positives[fold]++;
+				}
+			}
+			sizes[fold] = folds[fold].length;
+		}
+		assertEquals(corpus.size(), documents.size());
+		assertSpread(sizes);
+		assertSpread(positives);
+	}
+
+	@Test
+	public void stratifyShufflesBySeed() {
+		Corpus<ReviewType> corpus = corpus(30, 30);
+		int[][] folds = CrossValidator.stratify(corpus, 3, 42);
+		assertTrue(Arrays.deepEquals(folds, CrossValidator.stratify(corpus, 3, 42)));
+		assertFalse(Arrays.deepEquals(folds, CrossValidator.stratify(corpus, 3, 7)));
+	}
+
+	@Test
+	public void aggregateAveragesAccuracyAndPoolsF1() {
+		ClassifierEvaluation evaluation = CrossValidator.aggregate(Arrays.asList(
+				new CrossValidator.FoldResult(new long[][] { { 4, 1 }, { 0, 5 } }, 2_000_000, 1_000_000, 10, 100),
+				new CrossValidator.FoldResult(new long[][] { { 3, 2 }, { 1, 4 } }, 4_000_000, 3_000_000, 10, 300)));
+		assertEquals(0.8, evaluation.getAccuracy(), 1e-9);
+		assertEquals(Math.sqrt(0.02), evaluation.getAccuracyStdDev(), 1e-9);
+		// pooled, 7 of 10 positive documents and 9 of 10 negative ones are right
+		double positiveF1 = 2.0 * 7 / (8 + 10);
+		double negativeF1 = 2.0 * 9 / (12 + 10);
+		assertEquals(positiveF1, evaluation.getClassF1().get(ReviewType.POSITIVE), 1e-9);
+		assertEquals(negativeF1, evaluation.getClassF1().get(ReviewType.NEGATIVE), 1e-9);
+		assertEquals((positiveF1 + negativeF1) / 2, evaluation.getF1(), 1e-9);
+		assertEquals(3, evaluation.getTrainingMillis(), 1e-9);
+		assertEquals(20 / 0.004, evaluation.getThroughput(), 1e-6);
+		assertEquals(200, evaluation.getModelBytes());
+	}
+
+	@Test
+	public void evaluateCrossValidatesNaiveBayes() throws Exception {
+		CorpusLoader corpusLoader = new CorpusLoader();
+		ReflectionTestUtils.setField(corpusLoader, "corpus", corpus(20, 20));
+		EvaluationConfig evaluationConfig = new EvaluationConfig();
+		evaluationConfig.setFolds(4);
+		evaluationConfig.setParallelism(2);
+		evaluationConfig.setClassifiers(Collections.singletonList("NB"));
+		CrossValidator crossValidator = new CrossValidator();
+		ReflectionTestUtils.setField(crossValidator, "corpusLoader", corpusLoader);
+		ReflectionTestUtils.setField(crossValidator, "nbTrainer", new NaiveBayesTrainerImpl());
+		ReflectionTestUtils.setField(crossValidator, "evaluationConfig", evaluationConfig);
+
+		EvaluationReport report = crossValidator.evaluate();
+		assertEquals(4, report.getFolds());
+		assertEquals(40, report.getDocuments());
+		assertEquals(Collections.singleton(ClassifierType.NB), report.getClassifiers().keySet());
+		ClassifierEvaluation evaluation = report.getClassifiers().get(ClassifierType.NB);
+		assertEquals(1.0, evaluation.getAccuracy(), 1e-9);
+		assertEquals(0.0, evaluation.getAccuracyStdDev(), 1e-9);
+		assertEquals(1.0, evaluation.getF1(), 1e-9);
+		assertTrue(evaluation.getModelBytes() > 0);
+		assertEquals(report, crossValidator.getReport());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void evaluateRejectsMoreFoldsThanDocuments() throws Exception {
+		CorpusLoader corpusLoader = new CorpusLoader();
+		ReflectionTestUtils.setField(corpusLoader, "corpus", corpus(2, 1));
+		EvaluationConfig evaluationConfig = new EvaluationConfig();
+		evaluationConfig.setFolds(4);
+		CrossValidator crossValidator = new CrossValidator();
+		ReflectionTestUtils.setField(crossValidator, "corpusLoader", corpusLoader);
+		ReflectionTestUtils.setField(crossValidator, "evaluationConfig", evaluationConfig);
+		crossValidator.evaluate();
+	}
+
+	/**
+	 * Asserts that the given counts differ by at most one.
+	 */
+	private static void assertSpread(int[] counts) {
+		int[] sorted = counts.clone();
+		Arrays.sort(sorted);
+		assertTrue(Arrays.toString(counts), sorted[sorted.length - 1] - sorted[0] <= 1);
+	}
+
+	/**
+	 * Builds a corpus of separable documents, with the labels interleaved.
+	 */
+	private static Corpus<ReviewType> corpus(int positive, int negative) {
+		Corpus.Builder<ReviewType> builder = new Corpus.Builder<>(ReviewType.class);
+		for (int i = 0; i < Math.max(positive, negative); i++) {
+			if (i < positive) {
+				add(builder, ReviewType.POSITIVE, "great film " + (i % 3 == 0 ? "fun" : "moving"));
+			}
+			if (i < negative) {
+				add(builder, ReviewType.NEGATIVE, "dull film " + (i % 3 == 0 ? "awful" : "boring"));
+			}
+		}
+		return builder.build();
+	}
+
+	private static void add(Corpus.Builder<ReviewType> builder, ReviewType type, String text) {
+		builder.startDocument(type);
+		for (String word : text.split(" ")) {
+			builder.addToken(word.toCharArray(), 0, word.length());
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import ai.mrp.model.DataModel;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.TokenDictionary;
+
+/**
+ * Tests for {@link DataModelCodec}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class DataModelCodecTests {
+
+	private final DataModelCodec<ReviewType> codec = new DataModelCodec<>(ReviewType.class);
+
+	@Test
+	public void roundTrip() throws IOException {
+		DataModel<ReviewType> model = new DataModel<>(ReviewType.class);
+		model.put(ReviewType.POSITIVE, "great");
+		model.put(ReviewType.POSITIVE, "great");
+		model.put(ReviewType.POSITIVE, "été");
+		model.put(ReviewType.NEGATIVE, "dull");
+		model.put(ReviewType.NEGATIVE, "great");
+
+		DataModel<ReviewType> read = codec.read(write(model));
+
+		TokenDictionary dictionary = model.getDictionary();
+		assertEquals(dictionary.size(), read.getDictionary().size());
+		for (int id = 0; id < dictionary.size(); id++) {
+			assertEquals(dictionary.token(id), read.getDictionary().token(id));
+			for (ReviewType type : ReviewType.values()) {
+				assertEquals(model.get(type, id), read.get(type, id));
+			}
+		}
+		for (ReviewType type : ReviewType.values()) {
+			assertEquals(model.total(type), read.total(type));
+		}
+	}
+
+	@Test
+	public void roundTripEmptyModel() throws IOException {
+		DataModel<ReviewType> read = codec.read(write(new DataModel<>(ReviewType.class)));
+		assertEquals(0, read.getDictionary().size());
+		assertEquals(0, read.total(ReviewType.POSITIVE));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsCorruptCounts() throws IOException {
+		DataModel<ReviewType> model = new DataModel<>(ReviewType.class);
+		model.put(ReviewType.POSITIVE, "great");
+		ByteBuffer payload = write(model);
+		payload.putInt(payload.limit() - 8, 7);
+		codec.read(payload);
+	}
+
+	private ByteBuffer write(DataModel<ReviewType> model) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			codec.write(model, out);
+		}
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import ai.mrp.model.LinearSVMModel;
+import weka.classifiers.functions.LibSVM;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.SelectedTag;
+import weka.core.tokenizers.NGramTokenizer;
+import weka.filters.unsupervised.attribute.StringToWordVector;
+
+/**
+ * Tests for {@link LinearSVMModelCodec}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class LinearSVMModelCodecTests {
+
+	private static final String[] POSITIVE = { "a great film", "great acting and a great story", "loved it",
+			"what a wonderful film", "wonderful and moving", "the best film this year" };
+
+	private static final String[] NEGATIVE = { "a dull film", "boring and far too long", "hated it",
+			"what a waste of time", "dull acting and a weak story", "the worst film this year" };
+
+	private static final String[] TEXTS = { "a great story", "a dull story", "WONDERFUL", "unknown words only", "" };
+
+	private static LinearSVMModel model;
+
+	private final LinearSVMModelCodec codec = new LinearSVMModelCodec();
+
+	@BeforeClass
+	public static void compileModel() throws Exception {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("text", (List<String>) null));
+		attributes.add(new Attribute("@@class@@", Arrays.asList("POSITIVE", "NEGATIVE")));
+		Instances data = new Instances("reviews", attributes, 0);
+		data.setClassIndex(1);
+		for (String text : POSITIVE) {
+			data.add(new DenseInstance(1, new double[] { data.attribute(0).addStringValue(text), 0 }));
+		}
+		for (String text : NEGATIVE) {
+			data.add(new DenseInstance(1, new double[] { data.attribute(0).addStringValue(text), 1 }));
+		}
+
+		LibSVM svm = new LibSVM();
+		svm.setKernelType(new SelectedTag(0, LibSVM.TAGS_KERNELTYPE));
+		svm.setProbabilityEstimates(true);
+		NGramTokenizer tokenizer = new NGramTokenizer();
+		tokenizer.setNGramMaxSize(2);
+		StringToWordVector filter = new StringToWordVector();
+		filter.setTokenizer(tokenizer);
+		filter.setTFTransform(true);
+		filter.setLowerCaseTokens(true);
+		FilteredClassifier classifier = new FilteredClassifier();
+		classifier.setFilter(filter);
+		classifier.setClassifier(svm);
+		classifier.buildClassifier(data);
+		model = LinearSVMModel.of(classifier, data.stringFreeStructure());
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		LinearSVMModel read = codec.read(write(model));
+		assertSameModel(read);
+	}
+
+	@Test
+	public void readsInPlaceFromDirectBuffers() throws IOException {
+		ByteBuffer heap = write(model);
+		ByteBuffer direct = ByteBuffer.allocateDirect(heap.remaining());
+		direct.put(heap).flip();
+		assertSameModel(codec.read(direct));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedModel() throws IOException {
+		ByteBuffer payload = write(model);
+		payload.limit(payload.limit() - 8);
+		codec.read(payload);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTrailingBytes() throws IOException {
+		ByteBuffer written = write(model);
+		ByteBuffer payload = ByteBuffer.allocate(written.remaining() + 1);
+		payload.put(written).rewind();
+		codec.read(payload);
+	}
+
+	private static void assertSameModel(LinearSVMModel read) {
+		assertEquals(model.numClasses(), read.numClasses());
+		for (int c = 0; c < model.numClasses(); c++) {
+			assertEquals(model.className(c), read.className(c));
+		}
+		assertEquals(model.vocabularySize(), read.vocabularySize());
+		for (String text : TEXTS) {
+			assertEquals(text, model.decisionValue(text), read.decisionValue(text), 0);
+			assertEquals(text, model.classify(text), read.classify(text));
+		}
+	}
+
+	private ByteBuffer write(LinearSVMModel model) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			codec.write(model, out);
+		}
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.NaiveBayesModel;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.TokenIndex;
+
+/**
+ * Tests for {@link NaiveBayesModelCodec}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class NaiveBayesModelCodecTests {
+
+	private final NaiveBayesModelCodec<ReviewType> codec = new NaiveBayesModelCodec<>(ReviewType.class);
+
+	@Test
+	public void roundTrip() throws IOException {
+		NaiveBayesModel<ReviewType> model = model();
+		NaiveBayesModel<ReviewType> read = codec.read(write(codec, model));
+
+		TokenIndex dictionary = model.getDictionary();
+		assertEquals(dictionary.size(), read.getDictionary().size());
+		for (int id = 0; id < dictionary.size(); id++) {
+			assertEquals(dictionary.token(id), read.getDictionary().token(id));
+			for (ReviewType type : ReviewType.values()) {
+				assertEquals(model.count(type, id), read.count(type, id));
+				assertEquals(model.logLikelihood(type, id), read.logLikelihood(type, id), 0);
+			}
+		}
+		for (ReviewType type : ReviewType.values()) {
+			assertEquals(model.total(type), read.total(type));
+		}
+		assertEquals(model.vocabularySize(), read.vocabularySize());
+		for (String text : new String[] { "a great film", "So DULL", "unknown words only", "" }) {
+			assertArrayEquals(model.score(text), read.score(text), 0);
+			assertEquals(model.classify(text), read.classify(text));
+		}
+	}
+
+	@Test
+	public void roundTripEmptyModel() throws IOException {
+		NaiveBayesModel<ReviewType> read = codec.read(write(codec, NaiveBayesModel.of(new DataModel<>(ReviewType.class))));
+		assertEquals(0, read.getDictionary().size());
+		assertEquals(0, read.total(ReviewType.NEGATIVE));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsOtherClasses() throws IOException {
+		DataModel<ClassifierType> dataModel = new DataModel<>(ClassifierType.class);
+		dataModel.put(ClassifierType.NB, "great");
+		NaiveBayesModelCodec<ClassifierType> other = new NaiveBayesModelCodec<>(ClassifierType.class);
+		codec.read(write(other, NaiveBayesModel.of(dataModel)));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedModel() throws IOException {
+		ByteBuffer payload = write(codec, model());
+		payload.limit(payload.limit() - 8);
+		codec.read(payload);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTrailingBytes() throws IOException {
+		ByteBuffer written = write(codec, model());
+		ByteBuffer payload = ByteBuffer.allocate(written.remaining() + 1);
+		payload.put(written).rewind();
+		codec.read(payload);
+	}
+
+	private static NaiveBayesModel<ReviewType> model() {
+		DataModel<ReviewType> dataModel = new DataModel<>(ReviewType.class);
+		dataModel.put(ReviewType.POSITIVE, "great");
+		dataModel.put(ReviewType.POSITIVE, "great");
+		dataModel.put(ReviewType.POSITIVE, "film");
+		dataModel.put(ReviewType.POSITIVE, "été");
+		dataModel.put(ReviewType.NEGATIVE, "dull");
+		dataModel.put(ReviewType.NEGATIVE, "film");
+		return NaiveBayesModel.of(dataModel);
+	}
+
+	private static <C extends Enum<C>> ByteBuffer write(NaiveBayesModelCodec<C> codec, NaiveBayesModel<C> model)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			codec.write(model, out);
+		}
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+}
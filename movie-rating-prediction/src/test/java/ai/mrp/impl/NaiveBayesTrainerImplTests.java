@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ai.mrp.model.Corpus;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Tests for {@link NaiveBayesTrainerImpl}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class NaiveBayesTrainerImplTests {
+
+	private final NaiveBayesTrainerImpl trainer = new NaiveBayesTrainerImpl();
+
+	@Test
+	public void trainsInParallelLikeSequentially() {
+		Corpus<ReviewType> corpus = corpus(3000, 500);
+		DataModel<ReviewType> expected = sequential(corpus);
+		for (int parallelism : new int[] { 1, 2, 3, 8 }) {
+			assertSameCounts(expected, trainer.train(corpus, parallelism));
+		}
+	}
+
+	@Test
+	public void trainsOnViews() {
+		Corpus<ReviewType> corpus = corpus(3000, 500);
+		int[] selection = new int[1001];
+		for (int i = 0; i < selection.length; i++) {
+			selection[i] = 2 * i + 1;
+		}
+		Corpus<ReviewType> view = corpus.select(selection);
+		assertSameCounts(sequential(view), trainer.train(view, 4));
+	}
+
+	@Test
+	public void trainsOnSmallCorpora() {
+		Corpus<ReviewType> corpus = corpus(10, 20);
+		assertSameCounts(sequential(corpus), trainer.train(corpus, 4));
+		assertSameCounts(sequential(corpus(0, 20)), trainer.train(corpus(0, 20), 4));
+	}
+
+	private static void assertSameCounts(DataModel<ReviewType> expected, DataModel<ReviewType> actual) {
+		assertEquals(expected.getDictionary().size(), actual.getDictionary().size());
+		for (ReviewType type : ReviewType.values()) {
+			assertEquals(expected.total(type), actual.total(type));
+			for (int id = 0; id < expected.getDictionary().size(); id++) {
+				assertEquals(expected.get(type, id), actual.get(type, id));
+			}
+		}
+	}
+
+	private static DataModel<ReviewType> sequential(Corpus<ReviewType> corpus) {
+		DataModel<ReviewType> dataModel = new DataModel<>(ReviewType.class, corpus.getDictionary());
+		for (int i = 0; i < corpus.size(); i++) {
+			ReviewType type = corpus.label(i);
+			corpus.forEachToken(i, id -> dataModel.put(type, id));
+		}
+		return dataModel;
+	}
+
+	/**
+	 * Builds a corpus of random documents, with words skewed by class so that
+	 * the counts of the classes differ.
+	 */
+	private static Corpus<ReviewType> corpus(int documents, int words) {
+		Random random = new Random(42);
+		Corpus.Builder<ReviewType> builder = new Corpus.Builder<>(ReviewType.class);
+		for (int i = 0; i < documents; i++) {
+			ReviewType type = ReviewType.values()[random.nextInt(ReviewType.values().length)];
+			builder.startDocument(type);
+			for (int length = random.nextInt(50); length > 0; length--) {
+				int word = random.nextInt(words);
+				char[] chars = ("w" + (type == ReviewType.POSITIVE ? word / 2 : word)).toCharArray();
+				builder.addToken(chars, 0, chars.length);
+			}
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ai.mrp.config.CacheConfig;
+import ai.mrp.config.ReplayConfig;
+import ai.mrp.config.StreamConfig;
+import ai.mrp.inf.Predictor;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.PipelineStats;
+import ai.mrp.model.ReplayReport;
+import ai.mrp.model.ReviewType;
+import ai.mrp.model.SentimentCounts;
+import ai.mrp.model.Window;
+
+/**
+ * Tests for {@link ReplayClassificationEngine}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class ReplayClassificationEngineTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final StreamConfig streamConfig = new StreamConfig();
+
+	private final ReplayConfig replayConfig = new ReplayConfig();
+
+	private final SentimentAggregator aggregator = new SentimentAggregator();
+
+	private final ClassificationPipeline pipeline = new ClassificationPipeline();
+
+	private final ReplayClassificationEngine engine = new ReplayClassificationEngine();
+
+	@Before
+	public void setUp() throws Exception {
+		streamConfig.setClassifiers(Collections.singletonList("NB"));
+		Predictor<ReviewType> nb = text -> text.contains("great") ? ReviewType.POSITIVE : ReviewType.NEGATIVE;
+		ModelRegistry modelRegistry = new ModelRegistry();
+		ReflectionTestUtils.setField(modelRegistry, "initialization", CompletableFuture.completedFuture(null));
+		ReflectionTestUtils.setField(aggregator, "streamConfig", streamConfig);
+		ReflectionTestUtils.setField(pipeline, "nbPredictor", nb);
+		ReflectionTestUtils.setField(pipeline, "svmPredictor", nb);
+		ReflectionTestUtils.setField(pipeline, "cascadePredictor", nb);
+		ReflectionTestUtils.setField(pipeline, "publisher", new VerbatimPublisher());
+		ReflectionTestUtils.setField(pipeline, "aggregator", aggregator);
+		ReflectionTestUtils.setField(pipeline, "streamConfig", streamConfig);
+		ReflectionTestUtils.setField(pipeline, "cacheConfig", new CacheConfig());
+		ReflectionTestUtils.setField(pipeline, "modelRegistry", modelRegistry);
+		pipeline.afterPropertiesSet();
+		ReflectionTestUtils.setField(engine, "replayConfig", replayConfig);
+		ReflectionTestUtils.setField(engine, "pipeline", pipeline);
+		ReflectionTestUtils.setField(engine, "modelRegistry", modelRegistry);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		engine.stop();
+		pipeline.destroy();
+	}
+
+	@Test
+	public void replaysRecordedStatusesToTheTrackedTags() throws Exception {
+		File file = folder.newFile("statuses.jsonl");
+		String lines = status(1, "#LaLaLand was great") + "\n"
+				+ "{\"id\":2,\"text\":\"RT #lalaland\",\"retweeted_status\":" + status(1, "#lalaland was great") + "}\n"
+				+ "not a status\n"
+				+ "\n"
+				+ status(3, "#lalaland was dull") + "\r\n"
+				+ status(4, "#arrival was great");
+		Files.write(file.toPath(), lines.getBytes(StandardCharsets.UTF_8));
+		replayConfig.setFiles(Collections.singletonList(file.getPath()));
+		engine.update("#lalaland");
+
+		ReplayReport report = awaitCompletion();
+		assertEquals(4, report.getRead());
+		assertEquals(2, report.getSkipped());
+		assertEquals(3, report.getPipeline().getPublished());
+		SentimentCounts counts = aggregator.getRating("#lalaland").getClassifiers().get(ClassifierType.NB)
+				.getWindows().get(Window.DAY);
+		assertEquals(1, counts.getPositive());
+		assertEquals(1, counts.getNegative());
+	}
+
+	@Test
+	public void completesWithStatusesWhichCannotBePublished() throws Exception {
+		File file = folder.newFile("statuses.jsonl");
+		String lines = status(1, "a great film") + "\n"
+				+ "{\"id\":2,\"text\":\"a status without a user\"}\n"
+				+ status(3, "a dull film") + "\n";
+		Files.write(file.toPath(), lines.getBytes(StandardCharsets.UTF_8));
+		replayConfig.setFiles(Collections.singletonList(file.getPath()));
+		replayConfig.setRepeat(2);
+
+		ReplayReport report = awaitCompletion();
+		PipelineStats stats = report.getPipeline();
+		assertEquals(6, report.getRead());
+		assertEquals(6, stats.getReceived());
+		assertEquals(4, stats.getPublished());
+		assertEquals(2, stats.getFailed());
+	}
+
+	private ReplayReport awaitCompletion() throws InterruptedException {
+		engine.start();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		ReplayReport report;
+		while (!(report = engine.getReport()).isCompleted()) {
+			assertTrue("Replay did not complete: " + report, System.nanoTime() - deadline < 0);
+			Thread.sleep(10);
+		}
+		return report;
+	}
+
+	private static String status(long id, String text) {
+		return "{\"id\":" + id + ",\"text\":\"" + text + "\",\"created_at\":\"Tue Oct 18 10:00:00 +0000 2016\","
+				+ "\"user\":{\"id\":7,\"name\":\"Reviewer\",\"screen_name\":\"reviewer\"}}";
+	}
+
+}
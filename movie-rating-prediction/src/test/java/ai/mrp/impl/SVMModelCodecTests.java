@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import ai.mrp.model.HashingSVMClassifier;
+import ai.mrp.model.SVMModel;
+import weka.classifiers.functions.LibSVM;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Tests for {@link SVMModelCodec}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class SVMModelCodecTests {
+
+	@Test
+	public void roundTrip() throws Exception {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("x"));
+		attributes.add(new Attribute("y"));
+		attributes.add(new Attribute("class", Arrays.asList("POSITIVE", "NEGATIVE")));
+		Instances data = new Instances("reviews", attributes, 0);
+		data.setClassIndex(2);
+		double[][] points = { { 1, 2 }, { 2, 1 }, { 2, 3 }, { -1, -2 }, { -2, -1 }, { -2, -3 } };
+		for (int i = 0; i < points.length; i++) {
+			data.add(new DenseInstance(1, new double[] { points[i][0], points[i][1], i < 3 ? 0 : 1 }));
+		}
+		LibSVM classifier = new LibSVM();
+		classifier.buildClassifier(data);
+		SVMModel model = new SVMModel(classifier, new Instances(data, 0));
+
+		SVMModel read = roundTrip(model);
+
+		assertEquals(model.getHeader().toString(), read.getHeader().toString());
+		for (Instance instance : data) {
+			assertEquals(classifier.classifyInstance(instance), read.getClassifier().classifyInstance(instance), 0);
+		}
+	}
+
+	/**
+	 * Round-trips a hashing classifier, as saved to the "svm-hashing" snapshot.
+	 */
+	@Test
+	public void roundTripHashingClassifier() throws Exception {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("text", (ArrayList<String>) null));
+		attributes.add(new Attribute("@@class@@", Arrays.asList("POSITIVE", "NEGATIVE")));
+		Instances data = new Instances("instances", attributes, 0);
+		data.setClassIndex(1);
+		String[] texts = { "a great film", "great fun", "a great plot", "a dull film", "dull fun", "a dull plot" };
+		for (int i = 0; i < texts.length; i++) {
+			data.add(new DenseInstance(1, new double[] { data.attribute(0).addStringValue(texts[i]), i < 3 ? 0 : 1 }));
+		}
+		HashingSVMClassifier classifier = new HashingSVMClassifier();
+		classifier.setHashBits(10);
+		classifier.setStopWords(Arrays.asList("a"));
+		classifier.buildClassifier(data);
+		SVMModel model = new SVMModel(classifier, data.stringFreeStructure());
+
+		SVMModel read = roundTrip(model);
+
+		assertEquals(model.getHeader().toString(), read.getHeader().toString());
+		HashingSVMClassifier readClassifier = (HashingSVMClassifier) read.getClassifier();
+		assertEquals(classifier.dimension(), readClassifier.dimension());
+		for (String text : new String[] { "a great film", "a dull film", "a a a", "great dull fun" }) {
+			assertEquals(text, classifier.decisionValue(text), readClassifier.decisionValue(text), 0);
+		}
+	}
+
+	private static SVMModel roundTrip(SVMModel model) throws Exception {
+		SVMModelCodec codec = new SVMModelCodec();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			codec.write(model, out);
+		}
+		return codec.read(ByteBuffer.wrap(bytes.toByteArray()));
+	}
+
+}
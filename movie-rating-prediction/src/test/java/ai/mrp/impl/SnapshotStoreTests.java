@@ -0,0 +1,207 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import ai.mrp.config.DataConfig;
+import ai.mrp.inf.SnapshotCodec;
+import ai.mrp.model.DataModel;
+import ai.mrp.model.ReviewType;
+
+/**
+ * Tests for {@link SnapshotStore}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class SnapshotStoreTests {
+
+	private static final String NAME = "naive-bayes";
+
+	private static final String SETTINGS = "settings";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final DataModelCodec<ReviewType> codec = new DataModelCodec<>(ReviewType.class);
+
+	private File corpus;
+
+	private DataConfig dataConfig;
+
+	private SnapshotStore store;
+
+	@Before
+	public void setUp() throws IOException {
+		corpus = folder.newFolder("data");
+		write("positive/cv000.txt", "a great film");
+		write("negative/cv000.txt", "a dull film");
+		write("stopwords/english.txt", "a\nthe");
+
+		dataConfig = new DataConfig();
+		dataConfig.setBaseDataDirectory(corpus.toURI().toString());
+		dataConfig.setPositiveReviewsDirectory("positive/");
+		dataConfig.setNegativeReviewsDirectory("negative/");
+		dataConfig.setStopWordsDirectory("stopwords/");
+		dataConfig.setSnapshotDirectory(folder.newFolder("snapshots").getPath());
+
+		CorpusReader corpusReader = new CorpusReader();
+		ReflectionTestUtils.setField(corpusReader, "resourceLoader", new DefaultResourceLoader());
+		ReflectionTestUtils.setField(corpusReader, "dataConfig", dataConfig);
+		store = new SnapshotStore();
+		ReflectionTestUtils.setField(store, "corpusReader", corpusReader);
+		ReflectionTestUtils.setField(store, "dataConfig", dataConfig);
+	}
+
+	@Test
+	public void loadsSavedSnapshot() {
+		store.save(NAME, SETTINGS, model(), codec);
+		DataModel<ReviewType> loaded = store.load(NAME, SETTINGS, codec);
+		assertNotNull(loaded);
+		assertEquals(2, loaded.get(ReviewType.POSITIVE, "great"));
+		assertEquals(1, loaded.get(ReviewType.NEGATIVE, "dull"));
+		assertEquals(3, loaded.total(ReviewType.POSITIVE));
+	}
+
+	@Test
+	public void ignoresMissingSnapshot() {
+		assertNull(store.load(NAME, SETTINGS, codec));
+	}
+
+	@Test
+	public void ignoresSnapshotWithOtherSettings() {
+		store.save(NAME, SETTINGS, model(), codec);
+		assertNull(store.load(NAME, "other settings", codec));
+	}
+
+	@Test
+	public void ignoresSnapshotOfOtherDataConfig() {
+		store.save(NAME, SETTINGS, model(), codec);
+		dataConfig.setPositiveReviewsDirectory("negative/");
+		store.refresh();
+		assertNull(store.load(NAME, SETTINGS, codec));
+	}
+
+	@Test
+	public void ignoresSnapshotOfChangedCorpus() throws IOException {
+		store.save(NAME, SETTINGS, model(), codec);
+		write("positive/cv001.txt", "a moving film");
+		assertNotNull(store.load(NAME, SETTINGS, codec));
+		store.refresh();
+		assertNull(store.load(NAME, SETTINGS, codec));
+	}
+
+	@Test
+	public void ignoresTruncatedSnapshot() throws IOException {
+		store.save(NAME, SETTINGS, model(), codec);
+		File snapshot = new File(dataConfig.getSnapshotDirectory(), NAME + ".snapshot");
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+			file.setLength(file.length() - 4);
+		}
+		assertNull(store.load(NAME, SETTINGS, codec));
+	}
+
+	@Test
+	public void ignoresCorruptPayload() throws IOException {
+		store.save(NAME, SETTINGS, model(), codec);
+		File snapshot = new File(dataConfig.getSnapshotDirectory(), NAME + ".snapshot");
+		try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+			file.seek(file.length() - 4);
+			file.writeInt(42);
+		}
+		assertNull(store.load(NAME, SETTINGS, codec));
+	}
+
+	@Test
+	public void loadsSnapshotLargerThanTheWriteBuffer() {
+		DataModel<ReviewType> model = new DataModel<>(ReviewType.class);
+		for (int i = 0; i < 100000; i++) {
+			model.add(ReviewType.values()[i % 2], model.getDictionary().intern("word" + i), i);
+		}
+		store.save(NAME, SETTINGS, model, codec);
+		DataModel<ReviewType> loaded = store.load(NAME, SETTINGS, codec);
+		assertNotNull(loaded);
+		assertEquals(100000, loaded.getDictionary().size());
+		assertEquals(99999, loaded.get(ReviewType.NEGATIVE, "word99999"));
+		assertEquals(model.total(ReviewType.POSITIVE), loaded.total(ReviewType.POSITIVE));
+	}
+
+	@Test
+	public void keepsPreviousSnapshotWhenSaveFails() {
+		store.save(NAME, SETTINGS, model(), codec);
+		store.save(NAME, SETTINGS, model(), new SnapshotCodec<DataModel<ReviewType>>() {
+
+			@Override
+			public void write(DataModel<ReviewType> model, DataOutputStream out) throws IOException {
+				out.writeInt(42);
+				throw new IOException("Disk full");
+			}
+
+			@Override
+			public DataModel<ReviewType> read(ByteBuffer payload) throws IOException {
+				throw new UnsupportedOperationException();
+			}
+
+		});
+		assertEquals(2, store.load(NAME, SETTINGS, codec).get(ReviewType.POSITIVE, "great"));
+		assertArrayEquals(new String[] { NAME + ".snapshot" }, new File(dataConfig.getSnapshotDirectory()).list());
+	}
+
+	@Test
+	public void savesNothingWhenDisabled() {
+		dataConfig.setSnapshotDirectory("");
+		store.save(NAME, SETTINGS, model(), codec);
+		assertNull(store.load(NAME, SETTINGS, codec));
+		DataModel<ReviewType> model = model();
+		assertEquals(model, store.saveAndLoad(NAME, SETTINGS, model, codec));
+	}
+
+	private DataModel<ReviewType> model() {
+		DataModel<ReviewType> model = new DataModel<>(ReviewType.class);
+		model.put(ReviewType.POSITIVE, "great");
+		model.put(ReviewType.POSITIVE, "great");
+		model.put(ReviewType.POSITIVE, "film");
+		model.put(ReviewType.NEGATIVE, "dull");
+		return model;
+	}
+
+	private void write(String path, String text) throws IOException {
+		File file = new File(corpus, path);
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
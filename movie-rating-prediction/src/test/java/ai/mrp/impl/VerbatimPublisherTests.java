@@ -0,0 +1,245 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ai.mrp.config.PublishConfig;
+import ai.mrp.model.ClassifierType;
+import ai.mrp.model.PublishStats;
+import ai.mrp.model.Verbatim;
+
+/**
+ * Tests for {@link VerbatimPublisher}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class VerbatimPublisherTests {
+
+	private final VerbatimPublisher publisher = new VerbatimPublisher();
+
+	private final PublishConfig publishConfig = new PublishConfig();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/** The messages sent to the broker. */
+	private final List<Message<?>> sent = new ArrayList<>();
+
+	/** The flushes requested by the publisher, run by the tests themselves. */
+	private final List<Runnable> flushes = new ArrayList<>();
+
+	private final ScheduledThreadPoolExecutor flusher = new ScheduledThreadPoolExecutor(1) {
+
+		@Override
+		public void execute(Runnable command) {
+			flushes.add(command);
+		}
+
+	};
+
+	@Before
+	public void setUp() {
+		publishConfig.setBatchSize(3);
+		ExecutorSubscribableChannel channel = new ExecutorSubscribableChannel();
+		channel.subscribe(sent::add);
+		SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate(channel);
+		messagingTemplate.setMessageConverter(new MappingJackson2MessageConverter());
+		ReflectionTestUtils.setField(publisher, "messagingTemplate", messagingTemplate);
+		ReflectionTestUtils.setField(publisher, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(publisher, "publishConfig", publishConfig);
+		ReflectionTestUtils.setField(publisher, "flusher", flusher);
+	}
+
+	@After
+	public void tearDown() {
+		flusher.shutdownNow();
+	}
+
+	@Test
+	public void sendsABatchOnceFull() throws Exception {
+		subscribe("a", "1", VerbatimPublisher.BATCH);
+		publish("t0", "t1");
+		assertTrue(flushes.isEmpty());
+		publish("t2");
+		assertEquals(1, flushes.size());
+		flushes.get(0).run();
+		assertEquals(Collections.singletonList(Arrays.asList("t0", "t1", "t2")), batches());
+		PublishStats stats = publisher.getStats();
+		assertEquals(0, stats.getVerbatimsSent());
+		assertEquals(1, stats.getBatchesSent());
+		assertEquals(3, stats.getBatchedVerbatims());
+		assertEquals(0, stats.getPending());
+	}
+
+	@Test
+	public void splitsPendingVerbatimsIntoBatches() throws Exception {
+		subscribe("a", "1", VerbatimPublisher.BATCH);
+		publish("t0", "t1", "t2", "t3", "t4", "t5", "t6");
+		flush();
+		assertEquals(Arrays.asList(Arrays.asList("t0", "t1", "t2"), Arrays.asList("t3", "t4", "t5"),
+				Collections.singletonList("t6")), batches());
+		assertEquals(7, publisher.getStats().getBatchedVerbatims());
+	}
+
+	@Test
+	public void recordsEndToEndLatencyOnceTheBatchIsSent() {
+		subscribe("a", "1", VerbatimPublisher.BATCH);
+		publish("t0", "t1");
+		assertEquals(0, publisher.getEndToEndLatency().getCount());
+		flush();
+		assertEquals(2, publisher.getEndToEndLatency().getCount());
+	}
+
+	@Test
+	public void recordsEndToEndLatencyWithoutBatchSubscribers() {
+		publish("t0");
+		subscribe("a", "1", VerbatimPublisher.VERBATIM);
+		publish("t1");
+		assertEquals(2, publisher.getEndToEndLatency().getCount());
+		assertEquals(1, sent.size());
+		assertEquals(VerbatimPublisher.VERBATIM, SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders()));
+		assertEquals(1, publisher.getStats().getVerbatimsSent());
+		assertEquals(0, publisher.getStats().getPending());
+	}
+
+	@Test
+	public void dropsTheOldestVerbatimsBeyondTheMaximumPending() throws Exception {
+		publishConfig.setBatchSize(10);
+		publishConfig.setMaximumPending(4);
+		subscribe("a", "1", VerbatimPublisher.BATCH);
+		publish("t0", "t1", "t2", "t3", "t4", "t5");
+		PublishStats stats = publisher.getStats();
+		assertEquals(4, stats.getPending());
+		assertEquals(2, stats.getDropped());
+		flush();
+		assertEquals(Collections.singletonList(Arrays.asList("t2", "t3", "t4", "t5")), batches());
+		assertEquals(4, publisher.getEndToEndLatency().getCount());
+	}
+
+	@Test
+	public void countsSubscriptionsByDestination() {
+		subscribe("a", "1", VerbatimPublisher.BATCH);
+		subscribe("a", "2", VerbatimPublisher.VERBATIM);
+		subscribe("b", "1", VerbatimPublisher.BATCH);
+		assertEquals(subscriptions(2, 1), publisher.getStats().getSubscriptions());
+
+		// a subscription id subscribed again replaces its previous destination
+		subscribe("b", "1", VerbatimPublisher.VERBATIM);
+		assertEquals(subscriptions(1, 2), publisher.getStats().getSubscriptions());
+
+		unsubscribe("a", "2");
+		unsubscribe("a", "2");
+		assertEquals(subscriptions(1, 1), publisher.getStats().getSubscriptions());
+
+		disconnect("a");
+		disconnect("b");
+		assertEquals(Collections.emptyMap(), publisher.getStats().getSubscriptions());
+		publish("t0");
+		assertTrue(sent.isEmpty());
+		assertEquals(0, publisher.getStats().getPending());
+	}
+
+	private void publish(String... texts) {
+		for (String text : texts) {
+			publisher.publish(new Verbatim("TWITTER", text, "name", "screenName", "pic", null,
+					new EnumMap<>(ClassifierType.class), 1, Collections.emptyList()), System.nanoTime());
+		}
+	}
+
+	private void flush() {
+		ReflectionTestUtils.invokeMethod(publisher, "flush");
+	}
+
+	private List<List<String>> batches() throws Exception {
+		List<List<String>> batches = new ArrayList<>();
+		for (Message<?> message : sent) {
+			assertEquals(VerbatimPublisher.BATCH, SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+			List<String> texts = new ArrayList<>();
+			for (JsonNode verbatim : objectMapper.readTree((byte[]) message.getPayload())) {
+				texts.add(verbatim.get("text").asText());
+			}
+			batches.add(texts);
+		}
+		return batches;
+	}
+
+	private void subscribe(String sessionId, String subscriptionId, String destination) {
+		SimpMessageHeaderAccessor headers = headers(SimpMessageType.SUBSCRIBE, sessionId);
+		headers.setSubscriptionId(subscriptionId);
+		headers.setDestination(destination);
+		publisher.onSubscribe(new SessionSubscribeEvent(this, message(headers)));
+	}
+
+	private void unsubscribe(String sessionId, String subscriptionId) {
+		SimpMessageHeaderAccessor headers = headers(SimpMessageType.UNSUBSCRIBE, sessionId);
+		headers.setSubscriptionId(subscriptionId);
+		publisher.onUnsubscribe(new SessionUnsubscribeEvent(this, message(headers)));
+	}
+
+	private void disconnect(String sessionId) {
+		SimpMessageHeaderAccessor headers = headers(SimpMessageType.DISCONNECT, sessionId);
+		publisher.onDisconnect(new SessionDisconnectEvent(this, message(headers), sessionId, CloseStatus.NORMAL));
+	}
+
+	private static SimpMessageHeaderAccessor headers(SimpMessageType type, String sessionId) {
+		SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+		headers.setSessionId(sessionId);
+		return headers;
+	}
+
+	private static Message<byte[]> message(SimpMessageHeaderAccessor headers) {
+		return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+	}
+
+	private static Map<String, Integer> subscriptions(int batch, int verbatim) {
+		Map<String, Integer> subscriptions = new HashMap<>();
+		subscriptions.put(VerbatimPublisher.BATCH, batch);
+		subscriptions.put(VerbatimPublisher.VERBATIM, verbatim);
+		return subscriptions;
+	}
+
+}
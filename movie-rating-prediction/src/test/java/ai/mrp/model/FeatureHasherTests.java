@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link FeatureHasher}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class FeatureHasherTests {
+
+	private final FeatureHasher.Features features = new FeatureHasher.Features();
+
+	@Test
+	public void hashesEachNGramToOneSignedFeature() {
+		FeatureHasher hasher = new FeatureHasher(18, 3, Collections.emptyList());
+		hasher.vectorize("a great film", features);
+		// three unigrams, two bigrams and a trigram
+		assertEquals(6, features.size());
+		for (int f = 0; f < features.size(); f++) {
+			assertEquals(Math.log(2), Math.abs(features.value(f)), 1e-12);
+			assertTrue(features.index(f) < hasher.dimension());
+			assertTrue(f == 0 || features.index(f - 1) < features.index(f));
+		}
+	}
+
+	@Test
+	public void ignoresCaseAndDelimiters() {
+		FeatureHasher hasher = new FeatureHasher(18, 2, Collections.emptyList());
+		assertEquals(vector(hasher, "great film great film"), vector(hasher, "Great, FILM! (great) film."));
+	}
+
+	@Test
+	public void countsRepeatedNGramsSublinearly() {
+		FeatureHasher hasher = new FeatureHasher(18, 1, Collections.emptyList());
+		Map<Integer, Double> once = vector(hasher, "great");
+		Map<Integer, Double> thrice = vector(hasher, "great great great");
+		assertEquals(once.keySet(), thrice.keySet());
+		double sign = Math.signum(once.values().iterator().next());
+		assertEquals(sign * Math.log(4), thrice.values().iterator().next(), 1e-12);
+	}
+
+	@Test
+	public void skipsOnlyTheUnigramsOfStopWords() {
+		FeatureHasher hasher = new FeatureHasher(18, 2, Arrays.asList("The"));
+		assertTrue(vector(hasher, "THE").isEmpty());
+		// the bigram alone
+		assertEquals(1, vector(hasher, "the THE").size());
+		// the unigram of the film and the bigram
+		assertEquals(2, vector(hasher, "the film").size());
+	}
+
+	/**
+	 * Hashes many words into two features, and checks that each feature holds
+	 * the signed sum of the words colliding into it.
+	 */
+	@Test
+	public void collidingNGramsAddUpBySign() {
+		FeatureHasher hasher = new FeatureHasher(1, 1, Collections.emptyList());
+		StringBuilder text = new StringBuilder();
+		Map<Integer, Integer> counts = new HashMap<>();
+		for (int i = 0; i < 25; i++) {
+			String word = "word" + i;
+			text.append(word).append(' ');
+			Map<Integer, Double> single = vector(hasher, word);
+			assertEquals(1, single.size());
+			Map.Entry<Integer, Double> feature = single.entrySet().iterator().next();
+			assertEquals(Math.log(2), Math.abs(feature.getValue()), 1e-12);
+			counts.merge(feature.getKey(), (int) Math.signum(feature.getValue()), Integer::sum);
+		}
+		Map<Integer, Double> expected = new HashMap<>();
+		counts.forEach((feature, count) -> {
+			if (count != 0) {
+				expected.put(feature, Math.signum(count) * Math.log(1 + Math.abs(count)));
+			}
+		});
+		assertEquals(expected, vector(hasher, text));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTooManyBits() {
+		new FeatureHasher(FeatureHasher.MAX_BITS + 1, 1, Collections.emptyList());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNoBits() {
+		new FeatureHasher(0, 1, Collections.emptyList());
+	}
+
+	private Map<Integer, Double> vector(FeatureHasher hasher, CharSequence text) {
+		hasher.vectorize(text, features);
+		Map<Integer, Double> vector = new HashMap<>();
+		for (int f = 0; f < features.size(); f++) {
+			vector.put(features.index(f), features.value(f));
+		}
+		return vector;
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+/**
+ * Tests for {@link HashingSVMClassifier}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class HashingSVMClassifierTests {
+
+	private static final String[] POSITIVE = {
+			"a great film", "great acting and a fun plot", "fun and moving", "a moving film with great acting",
+			"great fun", "moving and great" };
+
+	private static final String[] NEGATIVE = {
+			"a dull film", "dull acting and an awful plot", "awful and boring", "a boring film with dull acting",
+			"awful fun", "boring and dull" };
+
+	@Test
+	public void fitsASeparableCorpus() throws Exception {
+		HashingSVMClassifier classifier = new HashingSVMClassifier();
+		classifier.setHashBits(12);
+		classifier.setStopWords(Arrays.asList("a", "and", "with"));
+		classifier.buildClassifier(instances(POSITIVE, NEGATIVE));
+		for (String text : POSITIVE) {
+			assertEquals(text, 0, classifier.classify(text));
+			assertTrue(text, classifier.decisionValue(text) > 0);
+		}
+		for (String text : NEGATIVE) {
+			assertEquals(text, 1, classifier.classify(text));
+			assertTrue(text, classifier.decisionValue(text) < 0);
+		}
+		assertEquals(0, classifier.classify("GREAT, moving acting!"));
+		assertEquals(1, classifier.classify("an awful, boring plot"));
+	}
+
+	@Test
+	public void predictsTheClassOfInstances() throws Exception {
+		HashingSVMClassifier classifier = new HashingSVMClassifier();
+		Instances data = instances(POSITIVE, NEGATIVE);
+		classifier.buildClassifier(data);
+		assertEquals(0, classifier.classifyInstance(data.instance(0)), 0);
+		assertEquals(1, classifier.classifyInstance(data.instance(POSITIVE.length)), 0);
+	}
+
+	@Test
+	public void keepsItsSettingsAsOptions() throws Exception {
+		HashingSVMClassifier classifier = new HashingSVMClassifier();
+		classifier.setOptions(new String[] { "-B", "10", "-M", "3" });
+		assertEquals(10, classifier.getHashBits());
+		assertEquals(3, classifier.getMinDocumentFrequency());
+		assertEquals(1024, classifier.dimension());
+		HashingSVMClassifier copy = new HashingSVMClassifier();
+		copy.setOptions(classifier.getOptions());
+		assertEquals(10, copy.getHashBits());
+		assertEquals(3, copy.getMinDocumentFrequency());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsClassifyingBeforeTraining() {
+		new HashingSVMClassifier().classify("a great film");
+	}
+
+	/**
+	 * Builds string instances like those of {@code SVMTrainerImpl}, the first
+	 * texts of the positive class and the others of the negative one.
+	 */
+	static Instances instances(String[] positive, String[] negative) {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("text", (ArrayList<String>) null));
+		attributes.add(new Attribute("@@class@@", Arrays.asList(ReviewType.POSITIVE.name(),
+				ReviewType.NEGATIVE.name())));
+		Instances instances = new Instances("instances", attributes, positive.length + negative.length);
+		instances.setClassIndex(1);
+		for (String text : positive) {
+			instances.add(new DenseInstance(1, new double[] { instances.attribute(0).addStringValue(text), 0 }));
+		}
+		for (String text : negative) {
+			instances.add(new DenseInstance(1, new double[] { instances.attribute(0).addStringValue(text), 1 }));
+		}
+		return instances;
+	}
+
+}
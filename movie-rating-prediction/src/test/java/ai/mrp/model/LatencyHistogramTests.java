@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class LatencyHistogramTests {
+
+	/** The highest trackable value. */
+	private static final long MAX_VALUE = (1L << 40) - 1;
+
+	@Test
+	public void smallValuesHaveABucketEach() {
+		for (int value = 0; value < 32; value++) {
+			assertEquals(value, LatencyHistogram.index(value));
+			assertEquals(value, LatencyHistogram.upperBound(value));
+		}
+	}
+
+	@Test
+	public void bucketsAreContiguous() {
+		int last = LatencyHistogram.index(MAX_VALUE);
+		assertEquals(MAX_VALUE, LatencyHistogram.upperBound(last));
+		for (int index = 0; index < last; index++) {
+			long upperBound = LatencyHistogram.upperBound(index);
+			assertEquals(index, LatencyHistogram.index(upperBound));
+			assertEquals(index + 1, LatencyHistogram.index(upperBound + 1));
+		}
+	}
+
+	@Test
+	public void bucketsAreAccurateToAboutThreePercent() {
+		for (long value = 1; value <= MAX_VALUE; value = value * 3 / 2 + 1) {
+			long upperBound = LatencyHistogram.upperBound(LatencyHistogram.index(value));
+			assertTrue(value + " in bucket up to " + upperBound,
+					upperBound >= value && upperBound - value <= value / 32.0);
+		}
+	}
+
+	@Test
+	public void readsPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+		}
+		LatencyStats stats = histogram.getStats();
+		assertEquals(1000, stats.getCount());
+		assertEquals(500.5, stats.getMean(), 0.001);
+		assertEquals(500, stats.getP50(), 500 / 32.0);
+		assertEquals(990, stats.getP99(), 990 / 32.0);
+		assertEquals(999, stats.getP999(), 999 / 32.0);
+		assertEquals(1000, stats.getMax(), 0);
+	}
+
+	@Test
+	public void percentilesDoNotExceedTheMaximum() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(1001);
+		LatencyStats stats = histogram.getStats();
+		assertEquals(1.001, stats.getP50(), 0);
+		assertEquals(1.001, stats.getMax(), 0);
+	}
+
+	@Test
+	public void clampsOutOfRangeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(-5);
+		histogram.record(Long.MAX_VALUE, 10);
+		LatencyStats stats = histogram.getStats();
+		assertEquals(2, stats.getCount());
+		assertEquals(0, stats.getP50(), 0);
+		assertEquals(MAX_VALUE / 1000.0, stats.getMax(), 0);
+	}
+
+	@Test
+	public void emptyHistogramReadsZero() {
+		LatencyStats stats = new LatencyHistogram().getStats();
+		assertEquals(0, stats.getCount());
+		assertEquals(0, stats.getP99(), 0);
+		assertEquals(0, stats.getMax(), 0);
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import weka.classifiers.functions.LibSVM;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.SelectedTag;
+import weka.core.tokenizers.NGramTokenizer;
+import weka.filters.unsupervised.attribute.StringToWordVector;
+
+/**
+ * Tests that a {@link LinearSVMModel} predicts the same classes as the
+ * {@link FilteredClassifier} it is compiled from, on every document of the
+ * bundled corpus.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class LinearSVMModelTests {
+
+	/** The number of documents per class to train on. */
+	private static final int TRAINING_DOCUMENTS = 50;
+
+	private static List<String> texts;
+
+	private static List<ReviewType> labels;
+
+	private static List<String> stopWords;
+
+	@BeforeClass
+	public static void readCorpus() throws IOException {
+		texts = new ArrayList<>();
+		labels = new ArrayList<>();
+		for (ReviewType type : ReviewType.values()) {
+			for (String text : read("data/" + type.name().toLowerCase() + "/")) {
+				texts.add(text);
+				labels.add(type);
+			}
+		}
+		stopWords = new ArrayList<>();
+		for (String text : read("data/stopwords/")) {
+			stopWords.addAll(Arrays.asList(text.split(" ")));
+		}
+	}
+
+	@Test
+	public void classifiesLikeFilteredClassifier() throws Exception {
+		assertSamePredictions(true);
+	}
+
+	@Test
+	public void classifiesLikeFilteredClassifierWithoutProbabilityEstimates() throws Exception {
+		assertSamePredictions(false);
+	}
+
+	private void assertSamePredictions(boolean probabilityEstimates) throws Exception {
+		Instances header = header();
+		Instances trainingData = new Instances(header, 2 * TRAINING_DOCUMENTS);
+		int[] trained = new int[ReviewType.values().length];
+		for (int i = 0; i < texts.size(); i++) {
+			int type = labels.get(i).ordinal();
+			if (trained[type] < TRAINING_DOCUMENTS) {
+				trainingData.add(instance(trainingData, texts.get(i), type));
+				trained[type]++;
+			}
+		}
+		FilteredClassifier classifier = classifier(probabilityEstimates);
+		classifier.buildClassifier(trainingData);
+
+		LinearSVMModel model = LinearSVMModel.of(classifier, trainingData.stringFreeStructure());
+		Instances data = header.stringFreeStructure();
+		int[] predicted = new int[ReviewType.values().length];
+		for (int i = 0; i < texts.size(); i++) {
+			data.delete();
+			data.add(instance(data, texts.get(i), labels.get(i).ordinal()));
+			int expected = (int) classifier.classifyInstance(data.instance(0));
+			assertEquals("Document " + i, expected, model.classify(texts.get(i)));
+			predicted[expected]++;
+		}
+		for (ReviewType type : ReviewType.values()) {
+			assertTrue("No document predicted as " + type, predicted[type.ordinal()] > 0);
+		}
+	}
+
+	/**
+	 * Creates the classifier as configured by the SVM predictor.
+	 */
+	private static FilteredClassifier classifier(boolean probabilityEstimates) {
+		LibSVM svm = new LibSVM();
+		svm.setKernelType(new SelectedTag(0, LibSVM.TAGS_KERNELTYPE));
+		svm.setSVMType(new SelectedTag(0, LibSVM.TAGS_SVMTYPE));
+		svm.setProbabilityEstimates(probabilityEstimates);
+
+		NGramTokenizer tokenizer = new NGramTokenizer();
+		tokenizer.setNGramMaxSize(3);
+		StringToWordVector filter = new StringToWordVector();
+		filter.setTokenizer(tokenizer);
+		filter.setTFTransform(true);
+		filter.setIDFTransform(true);
+		filter.setStopwordsHandler(new StopWordList(stopWords));
+		filter.setLowerCaseTokens(true);
+
+		FilteredClassifier classifier = new FilteredClassifier();
+		classifier.setFilter(filter);
+		classifier.setClassifier(svm);
+		return classifier;
+	}
+
+	private static Instances header() {
+		ArrayList<Attribute> attributes = new ArrayList<>();
+		attributes.add(new Attribute("text", (List<String>) null));
+		List<String> classes = new ArrayList<>();
+		for (ReviewType type : ReviewType.values()) {
+			classes.add(type.name());
+		}
+		attributes.add(new Attribute("@@class@@", classes));
+		Instances header = new Instances("instances", attributes, 0);
+		header.setClassIndex(1);
+		return header;
+	}
+
+	private static Instance instance(Instances data, String text, int type) {
+		return new DenseInstance(1, new double[] { data.attribute(0).addStringValue(text), type });
+	}
+
+	/**
+	 * Reads the documents of the given corpus directory as lower-cased texts with
+	 * their words separated by single spaces, like the training corpus.
+	 */
+	private static List<String> read(String directory) throws IOException {
+		Resource[] documents = new PathMatchingResourcePatternResolver().getResources("classpath:" + directory + "*");
+		Arrays.sort(documents, (a, b) -> a.getFilename().compareTo(b.getFilename()));
+		List<String> texts = new ArrayList<>(documents.length);
+		for (Resource document : documents) {
+			try (InputStream in = document.getInputStream()) {
+				String text = StreamUtils.copyToString(in, StandardCharsets.UTF_8).trim().toLowerCase();
+				texts.add(String.join(" ", text.split("\\s+")));
+			}
+		}
+		return texts;
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link MappedTokenIndex}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class MappedTokenIndexTests {
+
+	private static final String[] TOKENS = { "great", "été", "dull", "a", "great film", "" };
+
+	@Test
+	public void roundTrip() throws IOException {
+		TokenDictionary dictionary = dictionary(TOKENS);
+		MappedTokenIndex index = MappedTokenIndex.read(write(dictionary));
+		assertEquals(dictionary.size(), index.size());
+		for (int id = 0; id < dictionary.size(); id++) {
+			String token = dictionary.token(id);
+			assertEquals(token, index.token(id));
+			assertEquals(id, index.id(token.toCharArray(), 0, token.length()));
+		}
+	}
+
+	@Test
+	public void looksUpRangesOfCharacters() throws IOException {
+		MappedTokenIndex index = MappedTokenIndex.read(write(dictionary(TOKENS)));
+		char[] chars = "a great film".toCharArray();
+		assertEquals(0, index.id(chars, 2, 7));
+		assertEquals(3, index.id(chars, 0, 1));
+		assertEquals(4, index.id(chars, 2, 12));
+		assertEquals(-1, index.id(chars, 8, 12));
+		assertEquals(-1, index.id(chars, 0, 7));
+	}
+
+	@Test
+	public void looksUpLowerCasedTokens() throws IOException {
+		MappedTokenIndex index = MappedTokenIndex.read(write(dictionary(TOKENS)));
+		assertEquals(0, index.lookupLowerCase("So GREAT", 3, 8));
+		assertEquals(1, index.lookupLowerCase("Été", 0, 3));
+		assertEquals(-1, index.lookupLowerCase("Great!", 0, 6));
+	}
+
+	@Test
+	public void readsInPlaceFromDirectBuffers() throws IOException {
+		ByteBuffer heap = write(dictionary(TOKENS));
+		ByteBuffer direct = ByteBuffer.allocateDirect(heap.remaining() + 4);
+		direct.putInt(42).put(heap).flip();
+		direct.getInt();
+		MappedTokenIndex index = MappedTokenIndex.read(direct);
+		assertEquals(0, direct.remaining());
+		assertEquals("great film", index.token(4));
+		assertEquals(2, index.lookupLowerCase("DULL", 0, 4));
+	}
+
+	@Test
+	public void roundTripEmptyIndex() throws IOException {
+		MappedTokenIndex index = MappedTokenIndex.read(write(new TokenDictionary()));
+		assertEquals(0, index.size());
+		assertEquals(-1, index.id("great".toCharArray(), 0, 5));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void rejectsUnknownIds() throws IOException {
+		MappedTokenIndex.read(write(dictionary(TOKENS))).token(TOKENS.length);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsCorruptTableSize() throws IOException {
+		ByteBuffer payload = write(dictionary(TOKENS));
+		payload.putInt(4, 12);
+		MappedTokenIndex.read(payload);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsTruncatedIndex() throws IOException {
+		ByteBuffer payload = write(dictionary(TOKENS));
+		payload.limit(payload.limit() - 2);
+		MappedTokenIndex.read(payload);
+	}
+
+	private static TokenDictionary dictionary(String... tokens) {
+		TokenDictionary dictionary = new TokenDictionary();
+		for (String token : tokens) {
+			dictionary.intern(token);
+		}
+		return dictionary;
+	}
+
+	private static ByteBuffer write(TokenIndex index) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			MappedTokenIndex.write(index, out);
+		}
+		return ByteBuffer.wrap(bytes.toByteArray());
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link OnlineNaiveBayesModel}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class OnlineNaiveBayesModelTests {
+
+	private static final double DELTA = 1e-9;
+
+	private static final String[] TEXTS = {
+			"a great film", "great acting and a great story", "what a dull film", "dull and boring",
+			"Boring plot but GREAT music", "an amazing cast", "never again", "Mesmerizing and moving" };
+
+	@Test
+	public void scoresLikeFrozenModelBeforeLearning() {
+		DataModel<ReviewType> trained = trained();
+		OnlineNaiveBayesModel<ReviewType> model = OnlineNaiveBayesModel.of(trained, 100);
+		NaiveBayesModel<ReviewType> frozen = NaiveBayesModel.of(trained());
+		for (String text : TEXTS) {
+			assertArrayEquals(frozen.score(text).clone(), model.score(text), DELTA);
+		}
+	}
+
+	@Test
+	public void scoresLikeModelTrainedOnLearnedTexts() {
+		OnlineNaiveBayesModel<ReviewType> model = OnlineNaiveBayesModel.of(trained(), 100);
+		DataModel<ReviewType> retrained = trained();
+		learn(model, retrained, ReviewType.POSITIVE, "An AMAZING cast and a great film");
+		learn(model, retrained, ReviewType.NEGATIVE, "never again never");
+		learn(model, retrained, ReviewType.POSITIVE, "mesmerizing");
+
+		assertEquals(3, model.learnedTexts());
+		assertEquals(6, model.newWords());
+		assertEquals(retrained.getDictionary().size(), model.vocabularySize());
+		assertSameScores(NaiveBayesModel.of(retrained), model);
+	}
+
+	@Test
+	public void ignoresNewWordsBeyondMaximum() {
+		OnlineNaiveBayesModel<ReviewType> model = OnlineNaiveBayesModel.of(trained(), 2);
+		DataModel<ReviewType> retrained = trained();
+		model.learn(ReviewType.NEGATIVE, "never again ever");
+		retrained.put(ReviewType.NEGATIVE, "never");
+		retrained.put(ReviewType.NEGATIVE, "again");
+
+		assertEquals(2, model.newWords());
+		assertSameScores(NaiveBayesModel.of(retrained), model);
+	}
+
+	@Test
+	public void learnsConcurrently() throws Exception {
+		OnlineNaiveBayesModel<ReviewType> model = OnlineNaiveBayesModel.of(trained(), 100000);
+		DataModel<ReviewType> retrained = trained();
+		int threads = 4;
+		int textsPerThread = 500;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				int thread = t;
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < textsPerThread; i++) {
+						model.learn(ReviewType.values()[i % 2], "great word" + (i % 250) + " thread" + thread + "word" + i);
+						model.score("great film word1");
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		for (int t = 0; t < threads; t++) {
+			for (int i = 0; i < textsPerThread; i++) {
+				for (String word : ("great word" + (i % 250) + " thread" + t + "word" + i).split(" ")) {
+					retrained.put(ReviewType.values()[i % 2], word);
+				}
+			}
+		}
+		assertEquals(threads * textsPerThread, model.learnedTexts());
+		assertEquals(250 + threads * textsPerThread, model.newWords());
+		assertSameScores(NaiveBayesModel.of(retrained), model);
+		assertArrayEquals(NaiveBayesModel.of(retrained).score("word7 thread2word7 great").clone(),
+				model.score("word7 thread2word7 great"), DELTA);
+	}
+
+	private static void assertSameScores(NaiveBayesModel<ReviewType> expected, OnlineNaiveBayesModel<ReviewType> model) {
+		for (String text : TEXTS) {
+			assertArrayEquals(text, expected.score(text).clone(), model.score(text), DELTA);
+		}
+	}
+
+	private static void learn(OnlineNaiveBayesModel<ReviewType> model, DataModel<ReviewType> retrained,
+			ReviewType type, String text) {
+		model.learn(type, text);
+		for (String word : text.toLowerCase().split(" ")) {
+			retrained.put(type, word);
+		}
+	}
+
+	private static DataModel<ReviewType> trained() {
+		DataModel<ReviewType> model = new DataModel<>(ReviewType.class);
+		for (String word : "a great film great acting and a great story boring music".split(" ")) {
+			model.put(ReviewType.POSITIVE, word);
+		}
+		for (String word : "what a dull film dull and boring plot".split(" ")) {
+			model.put(ReviewType.NEGATIVE, word);
+		}
+		return model;
+	}
+
+}
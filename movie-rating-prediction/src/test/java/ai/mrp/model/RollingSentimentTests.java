@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link RollingSentiment}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class RollingSentimentTests {
+
+	private static final long START = 1_000_000_000_000L;
+
+	private static final long SECOND = 1000;
+
+	private static final long MINUTE = 60 * SECOND;
+
+	@Test
+	public void countsEachClassifier() {
+		RollingSentiment sentiment = new RollingSentiment(START);
+		sentiment.record(sentiment(ReviewType.POSITIVE, ReviewType.NEGATIVE), START);
+		sentiment.record(sentiment(ReviewType.POSITIVE, ReviewType.POSITIVE), START + 1);
+		assertArrayEquals(new long[] { 2, 0 }, sentiment.counts(Window.MINUTE, ClassifierType.NB, START + 2));
+		assertArrayEquals(new long[] { 1, 1 }, sentiment.counts(Window.MINUTE, ClassifierType.SVM, START + 2));
+		assertArrayEquals(new long[] { 0, 0 }, sentiment.counts(Window.MINUTE, ClassifierType.CASCADE, START + 2));
+		assertArrayEquals(new long[] { 2, 0 }, sentiment.counts(Window.DAY, ClassifierType.NB, START + 2));
+	}
+
+	@Test
+	public void expiresBucketsOneAtATime() {
+		RollingSentiment sentiment = new RollingSentiment(START);
+		sentiment.record(sentiment(ReviewType.POSITIVE, ReviewType.POSITIVE), START);
+		sentiment.record(sentiment(ReviewType.NEGATIVE, ReviewType.NEGATIVE), START + 30 * SECOND);
+		assertArrayEquals(new long[] { 1, 1 }, sentiment.counts(Window.MINUTE, ClassifierType.NB, START + MINUTE - 1));
+		assertArrayEquals(new long[] { 0, 1 }, sentiment.counts(Window.MINUTE, ClassifierType.NB, START + MINUTE));
+		assertArrayEquals(new long[] { 0, 1 }, sentiment.counts(Window.MINUTE, ClassifierType.NB,
+				START + 90 * SECOND - 1));
+		assertArrayEquals(new long[] { 0, 0 }, sentiment.counts(Window.MINUTE, ClassifierType.NB, START + 90 * SECOND));
+		assertArrayEquals(new long[] { 1, 1 }, sentiment.counts(Window.HOUR, ClassifierType.NB, START + 90 * SECOND));
+	}
+
+	@Test
+	public void expiresEverythingAfterAWholeWindow() {
+		RollingSentiment sentiment = new RollingSentiment(START);
+		sentiment.record(sentiment(ReviewType.POSITIVE, ReviewType.POSITIVE), START);
+		sentiment.record(sentiment(ReviewType.NEGATIVE, ReviewType.NEGATIVE), START + 10 * MINUTE);
+		assertArrayEquals(new long[] { 0, 0 }, sentiment.counts(Window.MINUTE, ClassifierType.NB, START + 10 * MINUTE
+				+ MINUTE));
+		assertArrayEquals(new long[] { 1, 1 }, sentiment.counts(Window.HOUR, ClassifierType.SVM, START + 59 * MINUTE));
+		assertArrayEquals(new long[] { 0, 1 }, sentiment.counts(Window.HOUR, ClassifierType.SVM, START + 60 * MINUTE));
+		assertArrayEquals(new long[] { 0, 0 }, sentiment.counts(Window.HOUR, ClassifierType.SVM, START + 1000 * MINUTE));
+	}
+
+	@Test
+	public void countsEarlierTimesInTheCurrentBucket() {
+		RollingSentiment sentiment = new RollingSentiment(START);
+		sentiment.record(sentiment(ReviewType.POSITIVE, ReviewType.POSITIVE), START + 5 * SECOND);
+		sentiment.record(sentiment(ReviewType.NEGATIVE, ReviewType.NEGATIVE), START);
+		assertArrayEquals(new long[] { 1, 1 }, sentiment.counts(Window.MINUTE, ClassifierType.NB, START));
+		assertArrayEquals(new long[] { 1, 1 }, sentiment.counts(Window.MINUTE, ClassifierType.NB,
+				START + 5 * SECOND + MINUTE - 1));
+		assertArrayEquals(new long[] { 0, 0 }, sentiment.counts(Window.MINUTE, ClassifierType.NB,
+				START + 5 * SECOND + MINUTE));
+	}
+
+	private static Map<ClassifierType, ReviewType> sentiment(ReviewType nb, ReviewType svm) {
+		Map<ClassifierType, ReviewType> sentiment = new EnumMap<>(ClassifierType.class);
+		sentiment.put(ClassifierType.NB, nb);
+		sentiment.put(ClassifierType.SVM, svm);
+		return sentiment;
+	}
+
+}
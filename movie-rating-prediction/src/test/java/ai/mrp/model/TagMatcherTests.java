@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.mrp.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TagMatcher}.
+ *
+ * @author Donnabell Dmello <ddmello@usc.edu>
+ * @author Venil Noronha <vnoronha@usc.edu>
+ */
+public class TagMatcherTests {
+
+	private final TagMatcher matcher = new TagMatcher(Arrays.asList("Arrival", "up", "#LaLaLand", "la la land",
+			"land", ""));
+
+	@Test
+	public void ignoresEmptyAndDuplicateTags() {
+		assertEquals(5, matcher.size());
+		assertEquals(1, new TagMatcher(Arrays.asList("up", "UP", "Up")).size());
+	}
+
+	@Test
+	public void matchesCaseInsensitively() {
+		assertEquals(Arrays.asList("arrival", "up"), matcher.match("ARRIVAL was great, Up was better"));
+	}
+
+	@Test
+	public void matchesInFirstMentionOrder() {
+		assertEquals(Arrays.asList("up", "arrival"), matcher.match("up, then arrival, then up again"));
+	}
+
+	@Test
+	public void matchesAtTheEdgesOfTheText() {
+		assertEquals(Collections.singletonList("up"), matcher.match("up"));
+		assertEquals(Collections.singletonList("arrival"), matcher.match("(arrival)"));
+	}
+
+	@Test
+	public void matchesOverlappingTags() {
+		assertEquals(Arrays.asList("#lalaland"), matcher.match("#LaLaLand tonight"));
+		assertEquals(Arrays.asList("la la land", "land"), matcher.match("saw la la land"));
+	}
+
+	@Test
+	public void doesNotMatchTagsFollowedByAWordCharacter() {
+		assertTrue(matcher.match("Turned upside down by Arrivals").isEmpty());
+		assertTrue(matcher.match("up_beat and up2date").isEmpty());
+	}
+
+	@Test
+	public void doesNotMatchTagsPrecededByAWordCharacter() {
+		assertEquals(Collections.singletonList("arrival"), matcher.match("Spilled my cup at the Arrival screening"));
+		assertTrue(matcher.match("Nonarrival of the film").isEmpty());
+		assertTrue(matcher.match("_up and 2up").isEmpty());
+		assertEquals(Collections.singletonList("land"), matcher.match("Holla la land"));
+	}
+
+	@Test
+	public void matchesNothingWithoutTags() {
+		assertTrue(new TagMatcher(Collections.emptyList()).match("arrival").isEmpty());
+	}
+
+}